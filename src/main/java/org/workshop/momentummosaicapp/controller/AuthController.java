@@ -1,22 +1,47 @@
 package org.workshop.momentummosaicapp.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.workshop.momentummosaicapp.security.CurrentUser;
+import org.workshop.momentummosaicapp.security.TokenCookies;
+import org.workshop.momentummosaicapp.security.TokenRevocationService;
+import org.workshop.momentummosaicapp.security.VerifiedToken;
 import org.workshop.momentummosaicapp.user.AppUserPrincipal;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/auth")
+@RequiredArgsConstructor
 public class AuthController {
+
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenCookies tokenCookies;
+
     @GetMapping("/me")
     public Map<String, Object> me(Authentication authentication) {
 
+        // token logins (bearer header or stateless cookie)
+        if (authentication != null && authentication.getPrincipal() instanceof CurrentUser user) {
+            Map<String, Object> me = new LinkedHashMap<>();
+            me.put("email", user.getUsername());
+            me.put("name", user.getName());
+            me.put("userId", user.getUserId());
+            me.put("profileCompleted", user.isProfileCompleted());
+            return me;
+        }
+
         if (authentication == null ||
                 !(authentication.getPrincipal() instanceof AppUserPrincipal user)) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
@@ -29,4 +54,15 @@ public class AuthController {
                 "profileCompleted", user.isProfileCompleted()
         );
     }
-}
\ No newline at end of file
+
+    // revokes the bearer token this request was authenticated with
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        if (!(request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE) instanceof VerifiedToken token)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        tokenRevocationService.revoke(token);
+        tokenCookies.clear(response);
+    }
+}
@@ -1,13 +1,25 @@
 package org.workshop.momentummosaicapp.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.workshop.momentummosaicapp.dashboard.DashboardFields;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardDelta;
 import org.workshop.momentummosaicapp.dashboard.DashboardService;
+import org.workshop.momentummosaicapp.dashboard.DashboardStreamRegistry;
+import org.workshop.momentummosaicapp.dashboard.DashboardVersions;
+import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -15,8 +27,55 @@ import org.workshop.momentummosaicapp.dashboard.DashboardService;
 @PreAuthorize("@profileGuard.isCompleted(authentication)")
 public class DashboardController {
     private final DashboardService dashboardService;
+    private final DashboardVersions dashboardVersions;
+    private final DashboardStreamRegistry dashboardStreamRegistry;
+
+    // the ETag is the version token, so an unchanged dashboard is answered with 304 after one primary-key read
     @GetMapping("/{userId}")
-    public DashboardResponse getDashboard(@PathVariable Long userId){
-        return dashboardService.getDashboard(userId);
+    public ResponseEntity<?> getDashboard(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest webRequest
+    ){
+        DashboardFields selection = DashboardFields.parse(fields != null ? fields : include);
+        if (since != null && !selection.isAll()) {
+            throw new BadRequestException("since can't be combined with fields");
+        }
+
+        String currentVersion = dashboardVersions.token(dashboardVersions.current(userId), LocalDate.now());
+        if (webRequest.checkNotModified(etag(currentVersion, selection))) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+
+        if (!selection.isAll()) {
+            // versions were read first, so the tag never claims more than the body holds
+            return response.eTag(etag(currentVersion, selection))
+                    .body(dashboardService.getDashboard(userId, selection));
+        }
+
+        DashboardDelta delta = dashboardService.getDashboardDelta(userId, since);
+        if (delta.getVersion() != null) {
+            response.eTag(etag(delta.getVersion(), selection));
+        }
+        return since == null
+                ? response.body(delta.getDashboard())
+                : response.body(delta);
+    }
+
+    // live patches instead of polling; the request thread is released right away
+    @GetMapping(path = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("@profileGuard.isCompleted(authentication) and @profileGuard.isOwner(authentication, #userId)")
+    public SseEmitter stream(@PathVariable Long userId){
+        return dashboardStreamRegistry.open(userId);
+    }
+
+    // each selection is its own representation, so it gets its own tag
+    private static String etag(String version, DashboardFields selection) {
+        return selection.isAll()
+                ? "\"" + version + "\""
+                : "\"" + version + ";" + selection.key() + "\"";
     }
 }
@@ -1,18 +1,28 @@
 package org.workshop.momentummosaicapp.controller;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.UserSummary;
+import org.workshop.momentummosaicapp.export.ExportFormat;
+import org.workshop.momentummosaicapp.export.ExportService;
 import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
 import org.workshop.momentummosaicapp.fitness.FitnessService;
 import org.workshop.momentummosaicapp.fitness.dto.FitnessLogResponse;
 import org.workshop.momentummosaicapp.fitness.dto.WorkoutRequest;
+import org.workshop.momentummosaicapp.importer.ImportResponseStream;
+import org.workshop.momentummosaicapp.importer.ImportService;
 import org.workshop.momentummosaicapp.utility.DtoMapper;
 import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/fitness")
 @RequiredArgsConstructor
@@ -20,6 +30,8 @@ import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundExceptio
 public class FitnessController {
     private final FitnessService fitnessService;
     private final DtoMapper dtoMapper;
+    private final ExportService exportService;
+    private final ImportService importService;
     @PostMapping("/{userId}/workout")
     public void markWorkoutToday(@PathVariable Long userId, @RequestBody @Valid WorkoutRequest request){
         fitnessService.markWorkoutToday(userId, request.getDidWorkout());
@@ -37,10 +49,32 @@ public class FitnessController {
     public int getWorkoutStreak(@PathVariable Long userId){
         return fitnessService.getWorkoutStreak(userId);
     }
+    @GetMapping("/{userId}/streak/longest")
+    public int getLongestWorkoutStreak(@PathVariable Long userId){
+        return fitnessService.getLongestWorkoutStreak(userId);
+    }
     @GetMapping("/{userId}/macros")
     public UserSummary getMacros(@PathVariable Long userId){
         return fitnessService.getUserSummary(userId);
     }
+    // the whole workout history, streamed as ndjson or csv
+    @GetMapping("/{userId}/export")
+    @PreAuthorize("@profileGuard.isCompleted(authentication) and @profileGuard.isOwner(authentication, #userId)")
+    public ResponseEntity<StreamingResponseBody> exportWorkouts(@PathVariable Long userId,
+                                                                @RequestParam(defaultValue = "ndjson") String format){
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return exportFormat.toResponse("workouts", exportService.exportWorkouts(userId, exportFormat));
+    }
+
+    // the body is read in the export's columns; answers with ndjson error/progress/done lines while it runs
+    @PostMapping("/{userId}/import")
+    public void importWorkouts(@PathVariable Long userId,
+                               @RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat importFormat = ExportFormat.parse(format);
+        importService.importWorkouts(userId, importFormat, request.getInputStream(), new ImportResponseStream(response));
+    }
 
 
 }
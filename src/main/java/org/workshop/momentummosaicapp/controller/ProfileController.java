@@ -1,8 +1,10 @@
 package org.workshop.momentummosaicapp.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -12,10 +14,16 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.workshop.momentummosaicapp.security.CurrentUser;
+import org.workshop.momentummosaicapp.security.JwtService;
+import org.workshop.momentummosaicapp.security.TokenCookies;
+import org.workshop.momentummosaicapp.security.dto.AuthResponse;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserPrincipal;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
 import org.workshop.momentummosaicapp.user.Role;
+import org.workshop.momentummosaicapp.user.UserProfileChangedEvent;
+import org.workshop.momentummosaicapp.user.UserSnapshotCache;
 import org.workshop.momentummosaicapp.user.dto.CompleteProfileRequest;
 
 @RestController
@@ -24,18 +32,32 @@ import org.workshop.momentummosaicapp.user.dto.CompleteProfileRequest;
 public class ProfileController {
 
     private final AppUserRepository appUserRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final JwtService jwtService;
+    private final TokenCookies tokenCookies;
+    private final ApplicationEventPublisher eventPublisher;
+
     @PutMapping("/complete")
-    public void completeProfile(
+    public AuthResponse completeProfile(
             @Valid @RequestBody CompleteProfileRequest request,
             Authentication authentication,
-            HttpServletRequest httpRequest
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse
     ) {
-        if (authentication == null ||
-                !(authentication.getPrincipal() instanceof AppUserPrincipal principal)) {
+        if (authentication == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        String email;
+        if (authentication.getPrincipal() instanceof AppUserPrincipal principal) {
+            email = principal.getEmail();
+        } else if (authentication.getPrincipal() instanceof CurrentUser currentUser) {
+            email = currentUser.getUsername();
+        } else {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
         }
 
-        AppUser user = appUserRepository.findByEmail(principal.getEmail())
+        AppUser user = appUserRepository.findByEmail(email)
                 .orElseThrow();
 
         user.setGender(request.gender());
@@ -44,6 +66,19 @@ public class ProfileController {
         user.setProfileCompleted(true);
 
         appUserRepository.save(user);
+        userSnapshotCache.evict(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
+
+        // token clients get a fresh token, the old one still says profileCompleted=false
+        AuthResponse reissued = new AuthResponse(jwtService.generateToken(user), true);
+
+        if (!(authentication.getPrincipal() instanceof AppUserPrincipal principal)) {
+            // browser clients in stateless mode keep their token in a cookie
+            if (tokenCookies.read(httpRequest).isPresent()) {
+                tokenCookies.write(httpResponse, reissued.token());
+            }
+            return reissued;
+        }
 
         // ✅ Create updated principal
         AppUserPrincipal updatedPrincipal =
@@ -66,6 +101,8 @@ public class ProfileController {
                         HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
                         context
                 );
+
+        return reissued;
     }
 
 
@@ -1,15 +1,32 @@
 package org.workshop.momentummosaicapp.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.workshop.momentummosaicapp.export.ExportFormat;
+import org.workshop.momentummosaicapp.export.ExportService;
+import org.workshop.momentummosaicapp.importer.ImportResponseStream;
+import org.workshop.momentummosaicapp.importer.ImportService;
+import org.workshop.momentummosaicapp.task.BulkTaskResult;
 import org.workshop.momentummosaicapp.task.Task;
+import org.workshop.momentummosaicapp.task.TaskPage;
 import org.workshop.momentummosaicapp.task.TaskService;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.task.TaskTypeTotals;
+import org.workshop.momentummosaicapp.task.dto.BulkTaskItemResponse;
+import org.workshop.momentummosaicapp.task.dto.BulkTaskResponse;
+import org.workshop.momentummosaicapp.task.dto.TaskPageResponse;
 import org.workshop.momentummosaicapp.task.dto.TaskRequest;
 import org.workshop.momentummosaicapp.task.dto.TaskResponse;
 import org.workshop.momentummosaicapp.utility.DtoMapper;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -20,6 +37,8 @@ public class TaskController {
 
     private final TaskService taskService;
     private final DtoMapper dtoMapper;
+    private final ExportService exportService;
+    private final ImportService importService;
 
     @PostMapping("/{userId}")
     public TaskResponse createTask(@PathVariable Long userId, @RequestBody @Valid TaskRequest request){
@@ -48,6 +67,25 @@ public class TaskController {
         return dtoMapper.taskToTaskResponse(task);
     }
 
+    // every task of the user, streamed as ndjson or csv
+    @GetMapping("/{userId}/export")
+    @PreAuthorize("@profileGuard.isCompleted(authentication) and @profileGuard.isOwner(authentication, #userId)")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@PathVariable Long userId,
+                                                             @RequestParam(defaultValue = "ndjson") String format){
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return exportFormat.toResponse("tasks", exportService.exportTasks(userId, exportFormat));
+    }
+
+    // the body is read in the export's columns; answers with ndjson error/progress/done lines while it runs
+    @PostMapping("/{userId}/import")
+    public void importTasks(@PathVariable Long userId,
+                            @RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat importFormat = ExportFormat.parse(format);
+        importService.importTasks(userId, importFormat, request.getInputStream(), new ImportResponseStream(response));
+    }
+
     @GetMapping("/active/{userId}")
     public List<TaskResponse> getActiveTasks(@PathVariable Long userId){
         List<Task> tasks = taskService.getActiveTasks(userId);
@@ -60,4 +98,70 @@ public class TaskController {
         List<Task> tasks = taskService.getCompletedTasks(userId);
         return tasks.stream().map(dtoMapper::taskToTaskResponse).toList();
     }
+
+    // bounded alternatives to the two lists above, follow nextCursor until it is null
+    @GetMapping("/active/{userId}/page")
+    public TaskPageResponse getActiveTasksPage(@PathVariable Long userId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int limit){
+        return toPageResponse(taskService.getActiveTasksPage(userId, cursor, limit));
+    }
+
+    @GetMapping("/completed/{userId}/page")
+    public TaskPageResponse getCompletedTasksPage(@PathVariable Long userId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int limit){
+        return toPageResponse(taskService.getCompletedTasksPage(userId, cursor, limit));
+    }
+
+    // minutes and counts per task type, summed by the database; from/to are ISO instants
+    @GetMapping("/completed/{userId}/totals")
+    public List<TaskTypeTotals> getCompletedTotals(@PathVariable Long userId,
+                                                   @RequestParam(required = false) Instant from,
+                                                   @RequestParam(required = false) Instant to){
+        return taskService.getCompletedTotals(userId, from, to);
+    }
+
+    // q is one or more word prefixes, all of which must match; most recently written tasks first
+    @GetMapping("/{userId}/search")
+    public List<TaskResponse> searchTasks(@PathVariable Long userId,
+                                          @RequestParam String q,
+                                          @RequestParam(required = false) Boolean completed,
+                                          @RequestParam(required = false) TaskType type,
+                                          @RequestParam(defaultValue = "20") int limit){
+        return taskService.searchTasks(userId, q, completed, type, limit).stream().map(dtoMapper::taskToTaskResponse).toList();
+    }
+
+    // bulk variants for integrations; each answers per item, in request order
+    @PostMapping("/{userId}/batch")
+    public BulkTaskResponse createTasks(@PathVariable Long userId, @RequestBody List<TaskRequest> requests){
+        return toBulkResponse(taskService.createTasks(userId, requests));
+    }
+
+    @PutMapping("/{userId}/batch/complete")
+    public BulkTaskResponse completeTasks(@PathVariable Long userId, @RequestBody List<Long> taskIds){
+        return toBulkResponse(taskService.completeTasks(userId, taskIds));
+    }
+
+    @PostMapping("/{userId}/batch/delete")
+    public BulkTaskResponse deleteTasks(@PathVariable Long userId, @RequestBody List<Long> taskIds){
+        return toBulkResponse(taskService.deleteTasks(userId, taskIds));
+    }
+
+    private BulkTaskResponse toBulkResponse(List<BulkTaskResult> results){
+        List<BulkTaskItemResponse> items = results.stream()
+                .map(result -> new BulkTaskItemResponse(
+                        result.index(),
+                        result.taskId(),
+                        result.isSucceeded(),
+                        result.task() == null ? null : dtoMapper.taskToTaskResponse(result.task()),
+                        result.error()))
+                .toList();
+        int succeeded = (int) results.stream().filter(BulkTaskResult::isSucceeded).count();
+        return new BulkTaskResponse(succeeded, results.size() - succeeded, items);
+    }
+
+    private TaskPageResponse toPageResponse(TaskPage page){
+        return new TaskPageResponse(page.tasks().stream().map(dtoMapper::taskToTaskResponse).toList(), page.nextCursor());
+    }
 }
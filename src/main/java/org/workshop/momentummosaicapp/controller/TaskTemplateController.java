@@ -0,0 +1,41 @@
+package org.workshop.momentummosaicapp.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.workshop.momentummosaicapp.task.TaskTemplate;
+import org.workshop.momentummosaicapp.task.TaskTemplateService;
+import org.workshop.momentummosaicapp.task.dto.TaskTemplateRequest;
+import org.workshop.momentummosaicapp.task.dto.TaskTemplateResponse;
+import org.workshop.momentummosaicapp.utility.DtoMapper;
+
+import java.util.List;
+
+// recurring tasks; under /api/tasks so the task-writes rate limit covers them
+@RestController
+@RequestMapping("/api/tasks/{userId}/templates")
+@RequiredArgsConstructor
+@PreAuthorize("@profileGuard.isCompleted(authentication)")
+public class TaskTemplateController {
+
+    private final TaskTemplateService templateService;
+    private final DtoMapper dtoMapper;
+
+    @PostMapping
+    public TaskTemplateResponse createTemplate(@PathVariable Long userId, @RequestBody @Valid TaskTemplateRequest request){
+        TaskTemplate template = templateService.createTemplate(userId, request.getTitle(), request.getTaskType(),
+                request.getDurationMinutes(), request.getDays());
+        return dtoMapper.templateToTemplateResponse(template);
+    }
+
+    @GetMapping
+    public List<TaskTemplateResponse> getTemplates(@PathVariable Long userId){
+        return templateService.getTemplates(userId).stream().map(dtoMapper::templateToTemplateResponse).toList();
+    }
+
+    @DeleteMapping("/{templateId}")
+    public void deleteTemplate(@PathVariable Long userId, @PathVariable Long templateId){
+        templateService.deleteTemplate(userId, templateId);
+    }
+}
@@ -0,0 +1,165 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.importer.HistoryImportedEvent;
+import org.workshop.momentummosaicapp.task.TaskBatchChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.task.TasksArchivedEvent;
+import org.workshop.momentummosaicapp.task.TemplateTasksCreatedEvent;
+import org.workshop.momentummosaicapp.user.UserProfileChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of whole dashboard responses per user. Each entry keeps the dashboard version
+ * read before it was loaded, and a reader holding a newer version loads again, so a change
+ * committed on another replica is never hidden. Entries are also dropped as soon as a task,
+ * workout or profile change of that user, or an archiving chunk with their tasks, commits here, and all of them at midnight, because
+ * the streak and didWorkoutToday depend on the current date.
+ * Hit/miss counters are published as {@code cache.gets{cache=dashboards}}.
+ */
+@Component
+public class DashboardCache {
+
+    // null when dashboard.cache.max-size is 0
+    private final Cache<Long, CachedDashboard> dashboards;
+
+    public DashboardCache(
+            MeterRegistry meterRegistry,
+            @Value("${dashboard.cache.max-size:10000}") long maxSize,
+            @Value("${dashboard.cache.ttl:10m}") Duration ttl
+    ) {
+        if (maxSize > 0) {
+            this.dashboards = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, dashboards, "dashboards");
+        } else {
+            this.dashboards = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return dashboards != null;
+    }
+
+    /*
+     * version must be read before the loader runs; the loaded data is then at least that new.
+     * Loading runs inside the cache's compute, so an eviction for the same user waits for it
+     * and a response built from pre-commit data can't outlive the change that evicted it.
+     */
+    public DashboardResponse get(Long userId, long version, Function<Long, DashboardResponse> loader) {
+        if (dashboards == null) {
+            return loader.apply(userId);
+        }
+        LocalDate today = LocalDate.now();
+        CachedDashboard cached = dashboards.get(userId, id -> new CachedDashboard(today, version, loader.apply(id)));
+        if (!cached.isCurrent(today, version)) {
+            // built yesterday and the midnight sweep hasn't run yet, or older than a change made elsewhere
+            dashboards.asMap().remove(userId, cached);
+            cached = dashboards.get(userId, id -> new CachedDashboard(today, version, loader.apply(id)));
+        }
+        if (isPartial(cached.response())) {
+            // a section missed its deadline, next view should try again
+            dashboards.asMap().remove(userId, cached);
+        }
+        return cached.response();
+    }
+
+    // today's complete and current cached dashboard if there is one; never loads, and reads the version only to check an entry
+    public DashboardResponse getIfPresent(Long userId, LongSupplier currentVersion) {
+        if (dashboards == null) {
+            return null;
+        }
+        CachedDashboard cached = dashboards.getIfPresent(userId);
+        return cached != null && !isPartial(cached.response()) && cached.isCurrent(LocalDate.now(), currentVersion.getAsLong())
+                ? cached.response()
+                : null;
+    }
+
+    public void evict(Long userId) {
+        if (dashboards != null && userId != null) {
+            dashboards.invalidate(userId);
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        evict(event.userId());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatchChanged(TaskBatchChangedEvent event) {
+        evict(event.userId());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateTasksCreated(TemplateTasksCreatedEvent event) {
+        event.taskIdsByUser().keySet().forEach(this::evict);
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksArchived(TasksArchivedEvent event) {
+        event.taskIdsByUser().keySet().forEach(this::evict);
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkoutLogged(WorkoutLoggedEvent event) {
+        evict(event.userId());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        evict(event.userId());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHistoryImported(HistoryImportedEvent event) {
+        evict(event.userId());
+    }
+
+    @Scheduled(cron = "${dashboard.cache.rollover-cron:0 0 0 * * *}")
+    public void onDayRollover() {
+        if (dashboards != null) {
+            dashboards.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return dashboards == null ? CacheStats.empty() : dashboards.stats();
+    }
+
+    private static boolean isPartial(DashboardResponse response) {
+        return response.getUnavailableSections() != null && !response.getUnavailableSections().isEmpty();
+    }
+
+    private record CachedDashboard(LocalDate day, long version, DashboardResponse response) {
+
+        boolean isCurrent(LocalDate today, long current) {
+            return day.equals(today) && version >= current;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+/**
+ * Published by DashboardVersions inside the write's transaction once it has bumped a user's
+ * version, so listeners after commit know the version without reading it back. change is the
+ * event that caused the bump.
+ */
+public record DashboardChangedEvent(Long userId, long version, Object change) {
+}
@@ -0,0 +1,8 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+public enum DashboardExecutionMode {
+    // one thread, three statements in a single read-only transaction
+    SEQUENTIAL,
+    // user, task and fitness sections on their own virtual threads, each with its own deadline
+    PARALLEL
+}
@@ -0,0 +1,86 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.TaskSummary;
+import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sections requested with {@code ?fields=} (or {@code ?include=}), a comma separated list of
+ * userSummary, fitnessSummary and taskSummary. taskSummary may be narrowed to
+ * taskSummary.totals, taskSummary.activeTasks and taskSummary.completedTasks, so the counts
+ * and minutes can be fetched without the list bodies. No parameter means the whole dashboard.
+ */
+public record DashboardFields(
+        boolean userSummary,
+        boolean fitnessSummary,
+        boolean taskTotals,
+        boolean activeTasks,
+        boolean completedTasks
+) {
+
+    public static final DashboardFields ALL = new DashboardFields(true, true, true, true, true);
+
+    public static DashboardFields parse(String fields) {
+        if (fields == null) {
+            return ALL;
+        }
+        boolean userSummary = false, fitnessSummary = false, taskTotals = false, activeTasks = false, completedTasks = false;
+        for (String field : fields.split(",")) {
+            switch (field.trim()) {
+                case "userSummary" -> userSummary = true;
+                case "fitnessSummary" -> fitnessSummary = true;
+                case "taskSummary" -> taskTotals = activeTasks = completedTasks = true;
+                case "taskSummary.totals" -> taskTotals = true;
+                case "taskSummary.activeTasks" -> activeTasks = true;
+                case "taskSummary.completedTasks" -> completedTasks = true;
+                default -> throw new BadRequestException("Unknown dashboard field: " + field.trim());
+            }
+        }
+        return new DashboardFields(userSummary, fitnessSummary, taskTotals, activeTasks, completedTasks);
+    }
+
+    public boolean isAll() {
+        return userSummary && fitnessSummary && taskTotals && activeTasks && completedTasks;
+    }
+
+    public boolean anyTasks() {
+        return taskTotals || activeTasks || completedTasks;
+    }
+
+    // canonical form, so differently ordered but equal selections share an ETag
+    public String key() {
+        List<String> names = new ArrayList<>();
+        if (userSummary) names.add("userSummary");
+        if (fitnessSummary) names.add("fitnessSummary");
+        if (taskTotals) names.add("taskSummary.totals");
+        if (activeTasks) names.add("taskSummary.activeTasks");
+        if (completedTasks) names.add("taskSummary.completedTasks");
+        return String.join(",", names);
+    }
+
+    public DashboardResponse select(DashboardResponse dashboard) {
+        return DashboardResponse.builder()
+                .userSummary(userSummary ? dashboard.getUserSummary() : null)
+                .fitnessSummary(fitnessSummary ? dashboard.getFitnessSummary() : null)
+                .taskSummary(anyTasks() && dashboard.getTaskSummary() != null ? select(dashboard.getTaskSummary()) : null)
+                .unavailableSections(dashboard.getUnavailableSections())
+                .build();
+    }
+
+    public TaskSummary select(TaskSummary tasks) {
+        TaskSummary.TaskSummaryBuilder selected = TaskSummary.builder();
+        if (taskTotals) {
+            selected.activeTaskCount(tasks.getActiveTaskCount())
+                    .completedTaskCount(tasks.getCompletedTaskCount())
+                    .totalDeepMinutes(tasks.getTotalDeepMinutes())
+                    .totalShallowMinutes(tasks.getTotalShallowMinutes())
+                    .totalFitnessMinutes(tasks.getTotalFitnessMinutes());
+        }
+        if (activeTasks) selected.activeTasks(tasks.getActiveTasks());
+        if (completedTasks) selected.completedTasks(tasks.getCompletedTasks());
+        return selected.build();
+    }
+}
@@ -0,0 +1,7 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+public interface DashboardFitnessTotals {
+    Number getTotalWorkoutDays();
+    Number getWorkedOutToday();
+    Number getWorkoutStreak();
+}
@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+/**
+ * Profile columns of a user together with their fitness aggregates, read in one native query.
+ * Counts come back as whatever numeric type the driver picks, hence Number.
+ */
+public interface DashboardHeader extends DashboardFitnessTotals {
+    Integer getHeightCm();
+    Integer getWeightKg();
+    String getGender();
+}
@@ -0,0 +1,9 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.workshop.momentummosaicapp.user.Gender;
+
+public record DashboardProfile(
+        Integer heightCm,
+        Integer weightKg,
+        Gender gender
+) {}
@@ -0,0 +1,44 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Denormalized dashboard totals of one user. Kept current by DashboardProjector in the
+ * same transaction as the task or workout write, and rebuilt from the source tables by
+ * DashboardProjectionReconciler.
+ * The streak isn't projected here; reads join the workout_streak row FitnessServiceImpl keeps.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Table(name = "dashboard_projection")
+public class DashboardProjection {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int activeCount;
+
+    @Column(nullable = false)
+    private int completedCount;
+
+    @Column(nullable = false)
+    private int deepMinutes;
+
+    @Column(nullable = false)
+    private int shallowMinutes;
+
+    @Column(nullable = false)
+    private int fitnessMinutes;
+
+    @Column(nullable = false)
+    private int totalWorkoutDays;
+}
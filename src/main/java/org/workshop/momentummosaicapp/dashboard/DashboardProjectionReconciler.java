@@ -0,0 +1,65 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rebuilds dashboard projections from the source tables. Runs over all users in id-range
+ * chunks, one short transaction each, so drift from bugs or manual data fixes is repaired
+ * without locking many rows at once. Also used to create a missing row on demand.
+ */
+@Slf4j
+@Component
+public class DashboardProjectionReconciler {
+
+    private final DashboardProjectionRepository projectionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Value("${dashboard.read-model.mode:live}")
+    private DashboardReadModel readModel;
+
+    public DashboardProjectionReconciler(
+            DashboardProjectionRepository projectionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${dashboard.read-model.reconcile-chunk-size:500}") int chunkSize
+    ) {
+        this.projectionRepository = projectionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // joins the caller's transaction, so it sees the write that triggered it
+    public void rebuildUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            projectionRepository.flush();
+            projectionRepository.rebuild(userId, userId);
+        });
+    }
+
+    @Scheduled(
+            initialDelayString = "${dashboard.read-model.reconcile-initial-delay:PT1M}",
+            fixedDelayString = "${dashboard.read-model.reconcile-interval:PT6H}"
+    )
+    public void reconcileAll() {
+        if (readModel != DashboardReadModel.PROJECTION) {
+            return;
+        }
+        Long maxUserId = projectionRepository.findMaxUserId();
+        if (maxUserId == null) {
+            return;
+        }
+        long rows = 0;
+        for (long from = 1; from <= maxUserId; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, maxUserId);
+            long chunkFrom = from;
+            Integer affected = transactionTemplate.execute(status -> projectionRepository.rebuild(chunkFrom, to));
+            rows += affected == null ? 0 : affected;
+        }
+        log.info("Reconciled dashboard projections up to user {} ({} rows affected)", maxUserId, rows);
+    }
+}
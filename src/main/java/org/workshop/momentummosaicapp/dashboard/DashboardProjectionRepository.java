@@ -0,0 +1,101 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+
+/*
+ * The delta updates are single UPDATE statements so concurrent writers of one user never
+ * lose each other's changes.
+ */
+public interface DashboardProjectionRepository extends JpaRepository<DashboardProjection, Long> {
+
+    @Modifying
+    @Query("""
+            update DashboardProjection p
+               set p.activeCount = p.activeCount + :activeDelta,
+                   p.completedCount = p.completedCount + :completedDelta,
+                   p.deepMinutes = p.deepMinutes + :deepDelta,
+                   p.shallowMinutes = p.shallowMinutes + :shallowDelta,
+                   p.fitnessMinutes = p.fitnessMinutes + :fitnessDelta
+             where p.userId = :userId
+            """)
+    int applyTaskDelta(Long userId, int activeDelta, int completedDelta, int deepDelta, int shallowDelta, int fitnessDelta);
+
+    // new active tasks of many users in one statement; a user without a row gets one on the next read
+    @Modifying
+    @Query(value = """
+            UPDATE dashboard_projection p
+              JOIN (SELECT t.user_id, COUNT(*) AS created FROM task t WHERE t.id IN (:taskIds) GROUP BY t.user_id) c
+                ON c.user_id = p.user_id
+               SET p.active_count = p.active_count + c.created
+            """, nativeQuery = true)
+    int addActiveTasks(Collection<Long> taskIds);
+
+    @Modifying
+    @Query("""
+            update DashboardProjection p
+               set p.totalWorkoutDays = p.totalWorkoutDays + :delta
+             where p.userId = :userId
+            """)
+    int applyWorkoutDelta(Long userId, int delta);
+
+    // recomputes the rows of all users in [fromUserId, toUserId] from task, task_archive and daily_fitness_log
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_projection
+                   (user_id, active_count, completed_count, deep_minutes, shallow_minutes, fitness_minutes,
+                    total_workout_days)
+            SELECT src.user_id, src.active_count, src.completed_count, src.deep_minutes, src.shallow_minutes,
+                   src.fitness_minutes, src.total_workout_days
+              FROM (
+                    SELECT u.id AS user_id,
+                           COALESCE(ts.active_count, 0) AS active_count,
+                           COALESCE(ts.completed_count, 0) AS completed_count,
+                           COALESCE(ts.deep_minutes, 0) AS deep_minutes,
+                           COALESCE(ts.shallow_minutes, 0) AS shallow_minutes,
+                           COALESCE(ts.fitness_minutes, 0) AS fitness_minutes,
+                           COALESCE(fs.total_workout_days, 0) AS total_workout_days
+                      FROM app_user u
+                      LEFT JOIN (
+                            SELECT t.user_id,
+                                   SUM(t.completed = FALSE) AS active_count,
+                                   SUM(t.completed = TRUE) AS completed_count,
+                                   SUM(CASE WHEN t.completed = TRUE AND t.task_type = 'DEEP' THEN t.duration_minutes ELSE 0 END) AS deep_minutes,
+                                   SUM(CASE WHEN t.completed = TRUE AND t.task_type = 'SHALLOW' THEN t.duration_minutes ELSE 0 END) AS shallow_minutes,
+                                   SUM(CASE WHEN t.completed = TRUE AND t.task_type = 'FITNESS' THEN t.duration_minutes ELSE 0 END) AS fitness_minutes
+                              FROM (
+                                    SELECT l.user_id, l.completed, l.task_type, l.duration_minutes
+                                      FROM task l
+                                     WHERE l.user_id BETWEEN :fromUserId AND :toUserId
+                                    UNION ALL
+                                    SELECT a.user_id, TRUE, a.task_type, a.duration_minutes
+                                      FROM task_archive a
+                                     WHERE a.user_id BETWEEN :fromUserId AND :toUserId
+                              ) t
+                             GROUP BY t.user_id
+                      ) ts ON ts.user_id = u.id
+                      LEFT JOIN (
+                            SELECT f.user_id, COUNT(*) AS total_workout_days
+                              FROM daily_fitness_log f
+                             WHERE f.user_id BETWEEN :fromUserId AND :toUserId
+                               AND f.did_workout = TRUE
+                             GROUP BY f.user_id
+                      ) fs ON fs.user_id = u.id
+                     WHERE u.id BETWEEN :fromUserId AND :toUserId
+              ) src
+            ON DUPLICATE KEY UPDATE
+                   active_count = src.active_count,
+                   completed_count = src.completed_count,
+                   deep_minutes = src.deep_minutes,
+                   shallow_minutes = src.shallow_minutes,
+                   fitness_minutes = src.fitness_minutes,
+                   total_workout_days = src.total_workout_days
+            """, nativeQuery = true)
+    int rebuild(Long fromUserId, Long toUserId);
+
+    @Query("select max(u.id) from AppUser u")
+    Long findMaxUserId();
+}
@@ -0,0 +1,128 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.importer.HistoryImportedEvent;
+import org.workshop.momentummosaicapp.task.TaskBatchChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.task.TemplateTasksCreatedEvent;
+
+/**
+ * Applies task and workout changes to dashboard_projection as deltas. Plain (not
+ * transactional) listeners, so the update runs inside the transaction of the write that
+ * published the event and commits or rolls back with it.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardProjector {
+
+    private final DashboardProjectionRepository projectionRepository;
+    private final DashboardProjectionReconciler reconciler;
+
+    @Value("${dashboard.read-model.mode:live}")
+    private DashboardReadModel readModel;
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (readModel != DashboardReadModel.PROJECTION) {
+            return;
+        }
+        TaskDelta delta = new TaskDelta();
+        delta.add(event);
+        applyTaskDelta(event.userId(), delta);
+    }
+
+    // the changes of a bulk call summed into one UPDATE
+    @EventListener
+    public void onTaskBatchChanged(TaskBatchChangedEvent event) {
+        if (readModel != DashboardReadModel.PROJECTION || event.changes().isEmpty()) {
+            return;
+        }
+        TaskDelta delta = new TaskDelta();
+        event.changes().forEach(delta::add);
+        applyTaskDelta(event.userId(), delta);
+    }
+
+    // the inserts are flushed first, the update counts them from the task table
+    @EventListener
+    public void onTemplateTasksCreated(TemplateTasksCreatedEvent event) {
+        if (readModel == DashboardReadModel.PROJECTION) {
+            projectionRepository.flush();
+            projectionRepository.addActiveTasks(event.taskIds());
+        }
+    }
+
+    @EventListener
+    public void onWorkoutLogged(WorkoutLoggedEvent event) {
+        if (readModel != DashboardReadModel.PROJECTION || event.didWorkout() == event.previouslyDidWorkout()) {
+            return;
+        }
+        // the streak is kept in workout_streak by FitnessServiceImpl, only the day count is projected
+        int updated = projectionRepository.applyWorkoutDelta(event.userId(), event.didWorkout() ? 1 : -1);
+        if (updated == 0) {
+            // no row yet: build it from the tables, which already include this write
+            reconciler.rebuildUser(event.userId());
+        }
+    }
+
+    // published outside any transaction once an import is done; rebuilt before DashboardCache evicts
+    @Order(-10)
+    @EventListener
+    public void onHistoryImported(HistoryImportedEvent event) {
+        if (readModel == DashboardReadModel.PROJECTION) {
+            reconciler.rebuildUser(event.userId());
+        }
+    }
+
+    private void applyTaskDelta(Long userId, TaskDelta delta) {
+        int updated = projectionRepository.applyTaskDelta(
+                userId, delta.active, delta.completed, delta.deepMinutes, delta.shallowMinutes, delta.fitnessMinutes);
+        if (updated == 0) {
+            reconciler.rebuildUser(userId);
+        }
+    }
+
+    private static final class TaskDelta {
+
+        private int active;
+        private int completed;
+        private int deepMinutes;
+        private int shallowMinutes;
+        private int fitnessMinutes;
+
+        void add(TaskChangedEvent event) {
+            int minutes = event.durationMinutes() == null ? 0 : event.durationMinutes();
+            switch (event.kind()) {
+                case CREATED -> active++;
+                // only active tasks can be edited, and active minutes are not counted
+                case UPDATED -> { }
+                case COMPLETED -> {
+                    active--;
+                    addCompleted(1, event.taskType(), minutes);
+                }
+                case DELETED -> {
+                    if (event.completed()) {
+                        addCompleted(-1, event.taskType(), -minutes);
+                    } else {
+                        active--;
+                    }
+                }
+            }
+        }
+
+        private void addCompleted(int count, TaskType type, int minutes) {
+            completed += count;
+            switch (type) {
+                case DEEP -> deepMinutes += minutes;
+                case SHALLOW -> shallowMinutes += minutes;
+                case FITNESS -> fitnessMinutes += minutes;
+                default -> { }
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+public enum DashboardReadModel {
+    // aggregate tasks and fitness logs on every (uncached) view
+    LIVE,
+    // read the dashboard_projection row kept current by DashboardProjector
+    PROJECTION
+}
@@ -0,0 +1,127 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.workshop.momentummosaicapp.user.AppUser;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read side of the dashboard. The sequential path needs findHeader, findTasks and
+ * findTaskTotals; the parallel path splits the header into findProfile and findFitnessTotals so that
+ * each section runs on its own connection. The projection read model uses
+ * findProjectedHeader plus the two bounded task lists. Sparse requests (DashboardFields)
+ * pick only the methods behind the requested sections, e.g. findFitnessTotals alone.
+ */
+@Transactional(readOnly = true)
+public interface DashboardReadRepository extends Repository<AppUser, Long> {
+
+    /*
+     * The streak is the length of the run of workout days ending today. Numbering workout days
+     * newest first, a day belongs to that run exactly when date + (rn - 1) days lands on today.
+     */
+    @Query(value = """
+            SELECT u.height_cm AS heightCm,
+                   u.weight_kg AS weightKg,
+                   u.gender AS gender,
+                   (SELECT COUNT(*) FROM daily_fitness_log f
+                     WHERE f.user_id = u.id AND f.did_workout = TRUE) AS totalWorkoutDays,
+                   (SELECT COUNT(*) FROM daily_fitness_log f
+                     WHERE f.user_id = u.id AND f.date = :today AND f.did_workout = TRUE) AS workedOutToday,
+                   (SELECT COUNT(*) FROM (
+                        SELECT f.date, ROW_NUMBER() OVER (ORDER BY f.date DESC) AS rn
+                          FROM daily_fitness_log f
+                         WHERE f.user_id = :userId AND f.did_workout = TRUE AND f.date <= :today
+                    ) workout_days
+                     WHERE DATE_ADD(workout_days.date, INTERVAL workout_days.rn - 1 DAY) = :today) AS workoutStreak
+              FROM app_user u
+             WHERE u.id = :userId
+            """, nativeQuery = true)
+    Optional<DashboardHeader> findHeader(Long userId, LocalDate today);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.dashboard.DashboardProfile(u.heightCm, u.weightKg, u.gender)
+              from AppUser u
+             where u.id = :userId
+            """)
+    Optional<DashboardProfile> findProfile(Long userId);
+
+    @Query(value = """
+            SELECT (SELECT COUNT(*) FROM daily_fitness_log f
+                     WHERE f.user_id = :userId AND f.did_workout = TRUE) AS totalWorkoutDays,
+                   (SELECT COUNT(*) FROM daily_fitness_log f
+                     WHERE f.user_id = :userId AND f.date = :today AND f.did_workout = TRUE) AS workedOutToday,
+                   (SELECT COUNT(*) FROM (
+                        SELECT f.date, ROW_NUMBER() OVER (ORDER BY f.date DESC) AS rn
+                          FROM daily_fitness_log f
+                         WHERE f.user_id = :userId AND f.did_workout = TRUE AND f.date <= :today
+                    ) workout_days
+                     WHERE DATE_ADD(workout_days.date, INTERVAL workout_days.rn - 1 DAY) = :today) AS workoutStreak
+            """, nativeQuery = true)
+    DashboardFitnessTotals findFitnessTotals(Long userId, LocalDate today);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.dashboard.DashboardTaskRow(
+                       t.id, t.title, t.taskType, t.durationMinutes, t.completed, t.completedAt)
+              from Task t
+             where t.appUser.id = :userId
+             order by t.id
+            """)
+    List<DashboardTaskRow> findTasks(Long userId);
+
+    // completed counts and minutes come from user_task_stats, which includes archived tasks
+    @Query(value = """
+            SELECT (SELECT COUNT(*) FROM task t
+                     WHERE t.user_id = :userId AND t.completed = FALSE) AS activeCount,
+                   COALESCE(SUM(s.completed_count), 0) AS completedCount,
+                   COALESCE(SUM(CASE WHEN s.task_type = 'DEEP' THEN s.completed_minutes ELSE 0 END), 0) AS deepMinutes,
+                   COALESCE(SUM(CASE WHEN s.task_type = 'SHALLOW' THEN s.completed_minutes ELSE 0 END), 0) AS shallowMinutes,
+                   COALESCE(SUM(CASE WHEN s.task_type = 'FITNESS' THEN s.completed_minutes ELSE 0 END), 0) AS fitnessMinutes
+              FROM user_task_stats s
+             WHERE s.user_id = :userId
+            """, nativeQuery = true)
+    DashboardTaskTotals findTaskTotals(Long userId);
+
+    // the streak comes from workout_streak, the same row GET /streak reads
+    @Query(value = """
+            SELECT u.height_cm AS heightCm,
+                   u.weight_kg AS weightKg,
+                   u.gender AS gender,
+                   p.user_id AS projectionUserId,
+                   p.active_count AS activeCount,
+                   p.completed_count AS completedCount,
+                   p.deep_minutes AS deepMinutes,
+                   p.shallow_minutes AS shallowMinutes,
+                   p.fitness_minutes AS fitnessMinutes,
+                   COALESCE(p.total_workout_days, 0) AS totalWorkoutDays,
+                   CASE WHEN s.last_workout_date = :today THEN 1 ELSE 0 END AS workedOutToday,
+                   CASE WHEN s.last_workout_date = :today THEN s.current_streak ELSE 0 END AS workoutStreak
+              FROM app_user u
+              LEFT JOIN dashboard_projection p ON p.user_id = u.id
+              LEFT JOIN workout_streak s ON s.user_id = u.id
+             WHERE u.id = :userId
+            """, nativeQuery = true)
+    Optional<ProjectedDashboardHeader> findProjectedHeader(Long userId, LocalDate today);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.dashboard.DashboardTaskRow(
+                       t.id, t.title, t.taskType, t.durationMinutes, t.completed, t.completedAt)
+              from Task t
+             where t.appUser.id = :userId and t.completed = false
+             order by t.id
+            """)
+    List<DashboardTaskRow> findActiveTasks(Long userId, Limit limit);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.dashboard.DashboardTaskRow(
+                       t.id, t.title, t.taskType, t.durationMinutes, t.completed, t.completedAt)
+              from Task t
+             where t.appUser.id = :userId and t.completed = true
+             order by t.completedAt desc, t.id desc
+            """)
+    List<DashboardTaskRow> findRecentlyCompletedTasks(Long userId, Limit limit);
+}
@@ -0,0 +1,29 @@
+package org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Answer to {@code GET /api/dashboard/{userId}?since=<version>}. Either {@code full} with the
+ * whole dashboard, or only the sections that changed: taskTotals carries the counts and minutes
+ * of TaskSummary without its lists, and task items come as upserts and removals.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDelta {
+    private String version;
+    private boolean full;
+    private DashboardResponse dashboard;
+
+    private UserSummary userSummary;
+    private FitnessSummary fitnessSummary;
+    private TaskSummary taskTotals;
+    private List<TaskItem> changedTasks;
+    private List<Long> removedTaskIds;
+}
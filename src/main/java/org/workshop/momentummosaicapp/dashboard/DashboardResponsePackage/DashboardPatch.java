@@ -0,0 +1,32 @@
+package org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+
+import java.time.LocalDate;
+
+/**
+ * One message on the dashboard stream. type is task, fitness, profile or resync; only the
+ * fields of that type are set. version is the token to pass as ?since when catching up,
+ * and resync (sent on connect and when patches had to be dropped) means the client should
+ * fetch that way now.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DashboardPatch(
+        String type,
+        String version,
+        TaskChangedEvent.Kind kind,
+        TaskItem task,
+        LocalDate date,
+        Boolean didWorkout
+) {
+
+    public static final String TASK = "task";
+    public static final String FITNESS = "fitness";
+    public static final String PROFILE = "profile";
+    public static final String RESYNC = "resync";
+
+    public static DashboardPatch resync(String version) {
+        return new DashboardPatch(RESYNC, version, null, null, null, null);
+    }
+}
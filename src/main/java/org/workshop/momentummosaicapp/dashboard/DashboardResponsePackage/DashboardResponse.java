@@ -1,15 +1,23 @@
 package org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
+import java.util.List;
+
 
 @Setter
 @Getter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class DashboardResponse {
     private UserSummary userSummary;
     private TaskSummary taskSummary;
     private FitnessSummary fitnessSummary;
+
+    // sections left out because they missed their deadline; only ever set in parallel mode
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> unavailableSections;
 }
@@ -1,5 +1,6 @@
 package org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.util.List;
@@ -8,11 +9,17 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TaskSummary {
     private List<TaskItem> activeTasks;
     private List<TaskItem> completedTasks;
 
-    private int totalDeepMinutes;
-    private int totalShallowMinutes;
-    private int totalFitnessMinutes;
+    // the lists may be capped by the projection read model, these are always the full counts
+    // every part is null when left out by ?fields=
+    private Integer activeTaskCount;
+    private Integer completedTaskCount;
+
+    private Integer totalDeepMinutes;
+    private Integer totalShallowMinutes;
+    private Integer totalFitnessMinutes;
 }
@@ -1,8 +1,13 @@
 package org.workshop.momentummosaicapp.dashboard;
 
 
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardDelta;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
 
 public interface DashboardService {
     public DashboardResponse getDashboard(Long userId);
+    // only the selected sections are queried; an unknown user is only detected when userSummary is selected
+    public DashboardResponse getDashboard(Long userId, DashboardFields fields);
+    // since is a version token from an earlier response, null for a full dashboard
+    public DashboardDelta getDashboardDelta(Long userId, String since);
 }
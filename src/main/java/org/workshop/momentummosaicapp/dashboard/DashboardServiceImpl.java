@@ -1,82 +1,391 @@
 package org.workshop.momentummosaicapp.dashboard;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.*;
-import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
-import org.workshop.momentummosaicapp.fitness.DailyFitnessLogRepository;
-import org.workshop.momentummosaicapp.fitness.FitnessService;
-import org.workshop.momentummosaicapp.task.Task;
-import org.workshop.momentummosaicapp.task.TaskRepository;
-import org.workshop.momentummosaicapp.task.TaskType;
-import org.workshop.momentummosaicapp.user.AppUser;
-import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.user.Gender;
 import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+import org.workshop.momentummosaicapp.utility.exception.ServiceUnavailableException;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DashboardServiceImpl implements DashboardService{
 
-    private final AppUserRepository appUserRepository;
-    private final TaskRepository taskRepository;
-    private final DailyFitnessLogRepository fitnessLogRepository;
-    private final FitnessService fitnessService;
+    private final DashboardReadRepository dashboardReadRepository;
+    private final DashboardCache dashboardCache;
+    private final DashboardProjectionReconciler projectionReconciler;
+    private final DashboardVersions dashboardVersions;
 
+    // virtual threads are cheap enough to spawn per section and need no pool sizing
+    private final ExecutorService sectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${dashboard.read-model.mode:live}")
+    private DashboardReadModel readModel;
+
+    @Value("${dashboard.read-model.active-limit:200}")
+    private int activeLimit;
+
+    @Value("${dashboard.read-model.completed-limit:50}")
+    private int completedLimit;
+
+    @Value("${dashboard.execution:sequential}")
+    private DashboardExecutionMode executionMode;
+
+    @Value("${dashboard.partial-results:true}")
+    private boolean partialResults;
+
+    @Value("${dashboard.sections.user.timeout:500ms}")
+    private Duration userTimeout;
+
+    @Value("${dashboard.sections.tasks.timeout:1s}")
+    private Duration tasksTimeout;
+
+    @Value("${dashboard.sections.fitness.timeout:500ms}")
+    private Duration fitnessTimeout;
+
+    // repeat views are served from the cache until one of the user's mutations commits, on any replica
     @Override
     public DashboardResponse getDashboard(Long userId) {
-        AppUser appUser = getUserOrThrow(userId);
-        double proteinMin = appUser.getWeightKg()*1.6;
-        double proteinMax = appUser.getWeightKg()*2.2;
+        if (!dashboardCache.isEnabled()) {
+            return loadDashboard(userId);
+        }
+        return getDashboard(userId, dashboardVersions.current(userId));
+    }
+
+    private DashboardResponse getDashboard(Long userId, DashboardVersions.Snapshot version) {
+        return dashboardCache.get(userId, version.version(), this::loadDashboard);
+    }
+
+    /*
+     * A cached whole dashboard answers any selection. Otherwise only the statements behind the
+     * selected sections run: fitnessSummary alone reads daily_fitness_log and nothing else, and
+     * taskSummary.totals is a single aggregate instead of every task row. Sparse results are
+     * not cached, they're cheap to rebuild and would only multiply the entries per user.
+     */
+    @Override
+    public DashboardResponse getDashboard(Long userId, DashboardFields fields) {
+        if (fields.isAll()) {
+            return getDashboard(userId);
+        }
+        DashboardResponse cached = dashboardCache.getIfPresent(userId, () -> dashboardVersions.current(userId).version());
+        if (cached != null) {
+            return fields.select(cached);
+        }
+
+        LocalDate today = LocalDate.now();
+        // in projection mode one row holds the fitness numbers and the task totals
+        ProjectedDashboardHeader header = readModel == DashboardReadModel.PROJECTION
+                && (fields.fitnessSummary() || fields.taskTotals())
+                ? findProjectedHeader(userId, today)
+                : null;
+
+        DashboardResponse.DashboardResponseBuilder response = DashboardResponse.builder();
+        if (fields.userSummary()) {
+            if (header != null) {
+                response.userSummary(toUserSummary(header.getHeightCm(), header.getWeightKg(),
+                        header.getGender() == null ? null : Gender.valueOf(header.getGender())));
+            } else {
+                DashboardProfile profile = dashboardReadRepository.findProfile(userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+                response.userSummary(toUserSummary(profile.heightCm(), profile.weightKg(), profile.gender()));
+            }
+        }
+        if (fields.fitnessSummary()) {
+            response.fitnessSummary(toFitnessSummary(header != null
+                    ? header
+                    : dashboardReadRepository.findFitnessTotals(userId, today)));
+        }
+        if (fields.anyTasks()) {
+            response.taskSummary(loadTaskSections(userId, fields, header));
+        }
+        return response.build();
+    }
+
+    private TaskSummary loadTaskSections(Long userId, DashboardFields fields, DashboardTaskTotals totals) {
+        boolean live = readModel == DashboardReadModel.LIVE;
+        if (live && fields.activeTasks() && fields.completedTasks()) {
+            // both lists are every live task anyway, one read gives them both
+            return fields.select(loadLiveTasks(userId));
+        }
+
+        TaskSummary.TaskSummaryBuilder tasks = TaskSummary.builder();
+        if (fields.taskTotals()) {
+            tasks = toTaskTotals(totals != null ? totals : dashboardReadRepository.findTaskTotals(userId));
+        }
+        if (fields.activeTasks()) {
+            tasks.activeTasks(dashboardReadRepository.findActiveTasks(userId, live ? Limit.unlimited() : Limit.of(activeLimit))
+                    .stream().map(this::toTaskItem).toList());
+        }
+        if (fields.completedTasks()) {
+            List<DashboardTaskRow> completed = dashboardReadRepository.findRecentlyCompletedTasks(userId,
+                    live ? Limit.unlimited() : Limit.of(completedLimit));
+            tasks.completedTasks(completed.stream().map(this::toTaskItem).toList());
+        }
+        return tasks.build();
+    }
+
+    /*
+     * Versions are read before the dashboard is loaded, so the returned version never claims
+     * more than the data holds; at worst the client gets a change twice.
+     */
+    @Override
+    public DashboardDelta getDashboardDelta(Long userId, String since) {
+        LocalDate today = LocalDate.now();
+        DashboardVersions.Snapshot current = dashboardVersions.current(userId);
+        DashboardResponse dashboard = getDashboard(userId, current);
+        String version = dashboardVersions.token(current, today);
+
+        Optional<Long> sinceVersion = dashboardVersions.parse(since, today);
+        Optional<Set<Long>> changedTaskIds = sinceVersion.flatMap(v -> current.changedSince(DashboardVersions.Section.TASKS, v)
+                ? dashboardVersions.taskChanges(userId, v, current.version())
+                : Optional.of(Set.of()));
+        if (dashboard.getUnavailableSections() != null && !dashboard.getUnavailableSections().isEmpty()) {
+            // an incomplete dashboard must not become the base of later deltas or a 304
+            return DashboardDelta.builder().full(true).dashboard(dashboard).build();
+        }
+        if (sinceVersion.isEmpty() || changedTaskIds.isEmpty()) {
+            return DashboardDelta.builder().version(version).full(true).dashboard(dashboard).build();
+        }
+
+        long base = sinceVersion.get();
+        DashboardDelta.DashboardDeltaBuilder delta = DashboardDelta.builder().version(version);
+        if (current.changedSince(DashboardVersions.Section.USER, base)) {
+            delta.userSummary(dashboard.getUserSummary());
+        }
+        if (current.changedSince(DashboardVersions.Section.FITNESS, base)) {
+            delta.fitnessSummary(dashboard.getFitnessSummary());
+        }
+        if (current.changedSince(DashboardVersions.Section.TASKS, base)) {
+            TaskSummary tasks = dashboard.getTaskSummary();
+            Map<Long, TaskItem> itemsById = Stream.concat(tasks.getActiveTasks().stream(), tasks.getCompletedTasks().stream())
+                    .collect(Collectors.toMap(TaskItem::getId, Function.identity(), (a, b) -> a));
+            List<TaskItem> changed = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            for (Long taskId : changedTaskIds.get()) {
+                TaskItem item = itemsById.get(taskId);
+                if (item != null) changed.add(item);
+                else removed.add(taskId);
+            }
+            delta.taskTotals(TaskSummary.builder()
+                            .activeTaskCount(tasks.getActiveTaskCount())
+                            .completedTaskCount(tasks.getCompletedTaskCount())
+                            .totalDeepMinutes(tasks.getTotalDeepMinutes())
+                            .totalShallowMinutes(tasks.getTotalShallowMinutes())
+                            .totalFitnessMinutes(tasks.getTotalFitnessMinutes())
+                            .build())
+                    .changedTasks(changed)
+                    .removedTaskIds(removed);
+        }
+        return delta.build();
+    }
+
+    private DashboardResponse loadDashboard(Long userId) {
+        if (readModel == DashboardReadModel.PROJECTION) {
+            return getDashboardFromProjection(userId);
+        }
+        return executionMode == DashboardExecutionMode.PARALLEL
+                ? getDashboardParallel(userId)
+                : getDashboardSequential(userId);
+    }
+
+    // three statements per view: user + fitness aggregates, the task rows, the task totals
+    private DashboardResponse getDashboardSequential(Long userId) {
+        DashboardHeader header = dashboardReadRepository.findHeader(userId, LocalDate.now())
+                .orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+
+        return DashboardResponse.builder()
+                .userSummary(toUserSummary(header.getHeightCm(), header.getWeightKg(),
+                        header.getGender() == null ? null : Gender.valueOf(header.getGender())))
+                .taskSummary(loadLiveTasks(userId))
+                .fitnessSummary(toFitnessSummary(header))
+                .build();
+    }
+
+    // primary-key lookup of the projection row plus capped active and recently completed lists
+    private DashboardResponse getDashboardFromProjection(Long userId) {
+        ProjectedDashboardHeader header = findProjectedHeader(userId, LocalDate.now());
+
+        List<TaskItem> activeItems = dashboardReadRepository.findActiveTasks(userId, Limit.of(activeLimit))
+                .stream().map(this::toTaskItem).toList();
+        List<TaskItem> completedItems = dashboardReadRepository.findRecentlyCompletedTasks(userId, Limit.of(completedLimit))
+                .stream().map(this::toTaskItem).toList();
+        TaskSummary taskSummary = toTaskTotals(header)
+                .activeTasks(activeItems)
+                .completedTasks(completedItems)
+                .build();
+
+        return DashboardResponse.builder()
+                .userSummary(toUserSummary(header.getHeightCm(), header.getWeightKg(),
+                        header.getGender() == null ? null : Gender.valueOf(header.getGender())))
+                .taskSummary(taskSummary)
+                .fitnessSummary(toFitnessSummary(header))
+                .build();
+    }
+
+    /*
+     * The LIVE read model lists every task still in the task table. Archived tasks are only
+     * counted: the totals come from user_task_stats, so a view never reads task_archive.
+     */
+    private TaskSummary loadLiveTasks(Long userId) {
+        List<DashboardTaskRow> rows = dashboardReadRepository.findTasks(userId);
+        return toTaskSummary(rows, dashboardReadRepository.findTaskTotals(userId));
+    }
+
+    private ProjectedDashboardHeader findProjectedHeader(Long userId, LocalDate today) {
+        ProjectedDashboardHeader header = dashboardReadRepository.findProjectedHeader(userId, today)
+                .orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+        if (header.getProjectionUserId() == null) {
+            projectionReconciler.rebuildUser(userId);
+            header = dashboardReadRepository.findProjectedHeader(userId, today)
+                    .orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+        }
+        return header;
+    }
+
+    /*
+     * Each section runs on its own virtual thread and connection, so the view takes as long
+     * as the slowest section. Deadlines are measured from the start of the request, not from
+     * when we begin waiting on a section. Every fork is cancelled before returning, so none
+     * outlives the request.
+     */
+    private DashboardResponse getDashboardParallel(Long userId) {
+        LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+
+        Future<UserSummary> user = sectionExecutor.submit(() -> {
+            DashboardProfile profile = dashboardReadRepository.findProfile(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+            return toUserSummary(profile.heightCm(), profile.weightKg(), profile.gender());
+        });
+        Future<TaskSummary> tasks = sectionExecutor.submit(() ->
+                loadLiveTasks(userId));
+        Future<FitnessSummary> fitness = sectionExecutor.submit(() ->
+                toFitnessSummary(dashboardReadRepository.findFitnessTotals(userId, today)));
+
+        List<String> unavailable = new ArrayList<>();
+        try {
+            UserSummary userSummary = await("user", user, start + userTimeout.toNanos(), unavailable);
+            TaskSummary taskSummary = await("tasks", tasks, start + tasksTimeout.toNanos(), unavailable);
+            FitnessSummary fitnessSummary = await("fitness", fitness, start + fitnessTimeout.toNanos(), unavailable);
+
+            return DashboardResponse.builder()
+                    .userSummary(userSummary)
+                    .taskSummary(taskSummary)
+                    .fitnessSummary(fitnessSummary)
+                    .unavailableSections(unavailable)
+                    .build();
+        } finally {
+            user.cancel(true);
+            tasks.cancel(true);
+            fitness.cancel(true);
+        }
+    }
+
+    // sections still running at shutdown are interrupted instead of holding connections open
+    @PreDestroy
+    void shutdown() {
+        sectionExecutor.shutdownNow();
+    }
+
+    private <T> T await(String section, Future<T> future, long deadline, List<String> unavailable) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            // a missing user is an answer, not a slow section
+            if (ex.getCause() instanceof ResourceNotFoundException notFound) {
+                throw notFound;
+            }
+            return unavailable(section, ex.getCause(), unavailable);
+        } catch (TimeoutException ex) {
+            return unavailable(section, ex, unavailable);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Dashboard request was interrupted", ex);
+        }
+    }
+
+    private <T> T unavailable(String section, Throwable cause, List<String> unavailable) {
+        if (!partialResults) {
+            throw new ServiceUnavailableException("Dashboard section " + section + " is unavailable", cause);
+        }
+        log.warn("Dashboard section {} left out: {}", section, cause.toString());
+        unavailable.add(section);
+        return null;
+    }
+
+    private UserSummary toUserSummary(Integer heightCm, Integer weightKg, Gender gender){
+        double proteinMin = weightKg*1.6;
+        double proteinMax = weightKg*2.2;
         //calculating calorie targets
-        int maintenance = appUser.getWeightKg()*33;
+        int maintenance = weightKg*33;
         int cut = maintenance-300;
         int bulk = maintenance+300;
-        UserSummary userSummary = UserSummary.builder().heightCm(appUser.getHeightCm())
-                .weightKg(appUser.getWeightKg())
-                .gender(appUser.getGender())
+        return UserSummary.builder().heightCm(heightCm)
+                .weightKg(weightKg)
+                .gender(gender)
                 .caloriesCut(cut)
                 .caloriesBulk(bulk)
                 .proteinMax(proteinMax)
                 .proteinMin(proteinMin)
                 .caloriesMaintenance(maintenance)
                 .build();
-
-        List<Task> active = taskRepository.findByAppUserIdAndCompletedFalse(userId);
-        List<Task> completed = taskRepository.findByAppUserIdAndCompletedTrue(userId);
-        List<TaskItem> activeItems= active.stream().map(task -> toTaskItem(task)
-        ).toList();
-        List<TaskItem> completedItems= completed.stream().map(task -> toTaskItem(task)
-        ).toList();
-        int totalDeepMinutes = completedItems.stream().filter(task -> task.getTaskType() == TaskType.DEEP).mapToInt(TaskItem::getDurationMinutes).sum();
-        int totalShallowMinutes = completedItems.stream().filter(task -> task.getTaskType()== (TaskType.SHALLOW)).mapToInt(TaskItem::getDurationMinutes).sum();
-        int totalFitnessMinutes = completedItems.stream().filter(task -> task.getTaskType()== (TaskType.FITNESS)).mapToInt(TaskItem::getDurationMinutes).sum();
-
-
-        TaskSummary taskSummary = TaskSummary.builder().activeTasks(activeItems).completedTasks(completedItems).totalDeepMinutes(totalDeepMinutes).totalFitnessMinutes(totalFitnessMinutes).totalShallowMinutes(totalShallowMinutes).build();
-        Optional<DailyFitnessLog> todayLog = fitnessService.getTodayLog(userId);
-        boolean didWorkoutToday = todayLog.map(DailyFitnessLog::isDidWorkout).orElse(false);
-        int totalWorkoutDays = fitnessService.getTotalWorkoutDays(userId);
-        int streak = fitnessService.getWorkoutStreak(userId);
-        FitnessSummary fitnessSummary = FitnessSummary.builder().didWorkoutToday(didWorkoutToday).totalWorkoutDays(totalWorkoutDays).workoutStreak(streak).build();
-
-        return
-                DashboardResponse.builder().taskSummary(taskSummary).fitnessSummary(fitnessSummary).userSummary(userSummary).build();
     }
-    private AppUser getUserOrThrow(Long userId){
-        return appUserRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+    private TaskSummary toTaskSummary(List<DashboardTaskRow> rows, DashboardTaskTotals totals){
+        List<TaskItem> activeItems = new ArrayList<>();
+        List<TaskItem> completedItems = new ArrayList<>();
+        for (DashboardTaskRow row : rows) {
+            TaskItem item = toTaskItem(row);
+            if (item.isCompleted()) completedItems.add(item);
+            else activeItems.add(item);
+        }
+        return toTaskTotals(totals).activeTasks(activeItems).completedTasks(completedItems).build();
+    }
+    private TaskSummary.TaskSummaryBuilder toTaskTotals(DashboardTaskTotals totals){
+        return TaskSummary.builder()
+                .activeTaskCount(totals.getActiveCount().intValue())
+                .completedTaskCount(totals.getCompletedCount().intValue())
+                .totalDeepMinutes(totals.getDeepMinutes().intValue())
+                .totalShallowMinutes(totals.getShallowMinutes().intValue())
+                .totalFitnessMinutes(totals.getFitnessMinutes().intValue());
+    }
+    private FitnessSummary toFitnessSummary(DashboardFitnessTotals totals){
+        return FitnessSummary.builder()
+                .didWorkoutToday(totals.getWorkedOutToday().intValue() > 0)
+                .totalWorkoutDays(totals.getTotalWorkoutDays().intValue())
+                .workoutStreak(totals.getWorkoutStreak().intValue())
+                .build();
     }
-    private TaskItem toTaskItem(Task task){
+    private TaskItem toTaskItem(DashboardTaskRow row){
         return TaskItem.builder()
-                .taskType(task.getTaskType())
-                .id(task.getId())
-                .completedAt(task.getCompletedAt())
-                .title(task.getTitle())
-                .durationMinutes(task.getDurationMinutes())
-                .completed(task.isCompleted())
+                .taskType(row.taskType())
+                .id(row.id())
+                .completedAt(row.completedAt())
+                .title(row.title())
+                .durationMinutes(row.durationMinutes())
+                .completed(row.completed())
                 .build();
     }
 }
@@ -0,0 +1,208 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardPatch;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.TaskItem;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.user.UserProfileChangedEvent;
+import org.workshop.momentummosaicapp.utility.exception.TooManyRequestsException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open dashboard streams per user. Each connection is an async SseEmitter (no request thread
+ * is held) with a small bounded queue drained by its own virtual thread, so a slow client
+ * only ever blocks itself. When a queue overflows its backlog is replaced by a single resync
+ * patch: the client then catches up with ?since instead of receiving every missed patch.
+ */
+@Slf4j
+@Component
+public class DashboardStreamRegistry {
+
+    // sentinel for a heartbeat comment, never sent as data
+    private static final DashboardPatch HEARTBEAT = new DashboardPatch("heartbeat", null, null, null, null, null);
+
+    private final DashboardVersions dashboardVersions;
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final int maxConnectionsPerUser;
+    private final int queueCapacity;
+    private final Duration timeout;
+
+    public DashboardStreamRegistry(
+            DashboardVersions dashboardVersions,
+            MeterRegistry meterRegistry,
+            @Value("${dashboard.stream.max-connections-per-user:3}") int maxConnectionsPerUser,
+            @Value("${dashboard.stream.queue-capacity:32}") int queueCapacity,
+            @Value("${dashboard.stream.timeout:30m}") Duration timeout
+    ) {
+        this.dashboardVersions = dashboardVersions;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        Gauge.builder("dashboard.stream.connections", open, AtomicInteger::get)
+                .description("Open dashboard SSE connections")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter open(Long userId) {
+        return register(userId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter register(Long userId, SseEmitter emitter) {
+        Connection connection = new Connection(userId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        connections.compute(userId, (id, list) -> {
+            List<Connection> current = list == null ? new CopyOnWriteArrayList<>() : list;
+            if (current.size() >= maxConnectionsPerUser) {
+                throw new TooManyRequestsException("Too many open dashboard streams");
+            }
+            current.add(connection);
+            return current;
+        });
+        open.incrementAndGet();
+
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(ex -> connection.close());
+        // tells the client which version the stream continues from
+        connection.offer(DashboardPatch.resync(dashboardVersions.token(dashboardVersions.current(userId), LocalDate.now())));
+        connection.start();
+        return emitter;
+    }
+
+    public void publish(Long userId, DashboardPatch patch) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections != null) {
+            userConnections.forEach(connection -> connection.offer(patch));
+        }
+    }
+
+    int connectionCount(Long userId) {
+        List<Connection> userConnections = connections.get(userId);
+        return userConnections == null ? 0 : userConnections.size();
+    }
+
+    // after commit, with the version DashboardVersions bumped in the write's transaction
+    @Order(20)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardChanged(DashboardChangedEvent event) {
+        if (!connections.containsKey(event.userId())) {
+            return;
+        }
+        publish(event.userId(), toPatch(event.change(), dashboardVersions.token(event.version(), LocalDate.now())));
+    }
+
+    // keeps proxies from closing idle streams and detects clients that went away
+    @Scheduled(fixedDelayString = "${dashboard.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        connections.values().forEach(list -> list.forEach(connection -> connection.offer(HEARTBEAT)));
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        connections.values().forEach(list -> list.forEach(connection -> connection.emitter.complete()));
+    }
+
+    // batches, template chunks and imports become one resync, they would overflow the queue as single patches
+    private static DashboardPatch toPatch(Object change, String version) {
+        return switch (change) {
+            case TaskChangedEvent task -> new DashboardPatch(DashboardPatch.TASK, version, task.kind(), TaskItem.builder()
+                    .id(task.taskId())
+                    .title(task.title())
+                    .taskType(task.taskType())
+                    .durationMinutes(task.durationMinutes() == null ? 0 : task.durationMinutes())
+                    .completed(task.completed())
+                    .completedAt(task.completedAt())
+                    .build(), null, null);
+            case WorkoutLoggedEvent workout -> new DashboardPatch(DashboardPatch.FITNESS, version, null, null, workout.date(), workout.didWorkout());
+            case UserProfileChangedEvent profile -> new DashboardPatch(DashboardPatch.PROFILE, version, null, null, null, null);
+            default -> DashboardPatch.resync(version);
+        };
+    }
+
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<DashboardPatch> queue;
+        private volatile boolean closed;
+        private Thread sender;
+
+        Connection(Long userId, SseEmitter emitter, BlockingQueue<DashboardPatch> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("dashboard-stream-" + userId).start(this::drain);
+        }
+
+        void offer(DashboardPatch patch) {
+            if (closed || queue.offer(patch)) {
+                return;
+            }
+            if (patch == HEARTBEAT) {
+                // the client is behind anyway, no need to prove we are alive
+                return;
+            }
+            // the dropped patch was the newest, so its version is the one to catch up to
+            queue.clear();
+            queue.offer(DashboardPatch.resync(patch.version()));
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    DashboardPatch patch = queue.take();
+                    if (patch == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(patch.type()).data(patch, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Dashboard stream of user {} closed: {}", userId, ex.toString());
+                emitter.completeWithError(ex);
+                close();
+            }
+        }
+
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connections.computeIfPresent(userId, (id, list) -> {
+                list.remove(this);
+                return list.isEmpty() ? null : list;
+            });
+            open.decrementAndGet();
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+    }
+}
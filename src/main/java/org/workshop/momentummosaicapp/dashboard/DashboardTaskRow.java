@@ -0,0 +1,14 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.workshop.momentummosaicapp.task.TaskType;
+
+import java.time.Instant;
+
+public record DashboardTaskRow(
+        Long id,
+        String title,
+        TaskType taskType,
+        Integer durationMinutes,
+        Boolean completed,
+        Instant completedAt
+) {}
@@ -0,0 +1,10 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+// counts and minutes of TaskSummary without the task lists; minutes only count completed tasks
+public interface DashboardTaskTotals {
+    Number getActiveCount();
+    Number getCompletedCount();
+    Number getDeepMinutes();
+    Number getShallowMinutes();
+    Number getFitnessMinutes();
+}
@@ -0,0 +1,7 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+// the current version of one of several users, see DashboardVersionRepository.findVersions
+public interface DashboardUserVersion {
+    Number getUserId();
+    Number getVersion();
+}
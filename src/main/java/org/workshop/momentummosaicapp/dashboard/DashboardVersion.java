@@ -0,0 +1,10 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+// one user's row of dashboard_version, read fresh on every call instead of as a managed entity
+public interface DashboardVersion {
+    Number getVersion();
+    Number getUserVersion();
+    Number getTaskVersion();
+    Number getFitnessVersion();
+    Number getTaskChangesAfter();
+}
@@ -0,0 +1,133 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.workshop.momentummosaicapp.user.AppUser;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * Bumps are upserts that take the user's row lock until the write commits, so concurrent
+ * writers of one user get consecutive versions. MySQL assigns the UPDATE columns left to right,
+ * so the section columns and task_changes_after see the version already incremented. The
+ * single-user bumps also leave the new version in LAST_INSERT_ID() of the connection.
+ */
+public interface DashboardVersionRepository extends Repository<AppUser, Long> {
+
+    @Query(value = """
+            SELECT v.version AS version,
+                   v.user_version AS userVersion,
+                   v.task_version AS taskVersion,
+                   v.fitness_version AS fitnessVersion,
+                   v.task_changes_after AS taskChangesAfter
+              FROM dashboard_version v
+             WHERE v.user_id = :userId
+            """, nativeQuery = true)
+    Optional<DashboardVersion> findByUserId(Long userId);
+
+    // section is a DashboardVersions.Section; a TASKS bump also moves the retained window of task changes
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_version (user_id, version, user_version, task_version, fitness_version, task_changes_after)
+            VALUES (:userId, LAST_INSERT_ID(1), :section = 'USER', :section = 'TASKS', :section = 'FITNESS', 0)
+            ON DUPLICATE KEY UPDATE
+                   version = LAST_INSERT_ID(version + 1),
+                   user_version = IF(:section = 'USER', version, user_version),
+                   task_version = IF(:section = 'TASKS', version, task_version),
+                   fitness_version = IF(:section = 'FITNESS', version, fitness_version),
+                   task_changes_after = IF(:section = 'TASKS', GREATEST(task_changes_after, version - :taskChanges), task_changes_after)
+            """, nativeQuery = true)
+    int bump(Long userId, String section, int taskChanges);
+
+    // after bump(TASKS), in the same transaction
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_task_change (user_id, version, task_id)
+            SELECT v.user_id, v.version, :taskId
+              FROM dashboard_version v
+             WHERE v.user_id = :userId
+            """, nativeQuery = true)
+    int addTaskChange(Long userId, Long taskId);
+
+    // after bump(TASKS), in the same transaction; taskIds is a JSON array, so a batch is one multi-row insert
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_task_change (user_id, version, task_id)
+            SELECT v.user_id, v.version, ids.task_id
+              FROM dashboard_version v
+              JOIN JSON_TABLE(:taskIds, '$[*]' COLUMNS (task_id bigint PATH '$')) ids
+             WHERE v.user_id = :userId
+            """, nativeQuery = true)
+    int addTaskChanges(Long userId, String taskIds);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM dashboard_task_change
+             WHERE user_id = :userId
+               AND version <= (SELECT v.task_changes_after FROM dashboard_version v WHERE v.user_id = :userId)
+            """, nativeQuery = true)
+    int pruneTaskChanges(Long userId);
+
+    // too many tasks changed to list them: tasks and fitness move on and earlier ?since tokens get the full dashboard
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_version (user_id, version, user_version, task_version, fitness_version, task_changes_after)
+            VALUES (:userId, LAST_INSERT_ID(1), 0, 1, 1, 1)
+            ON DUPLICATE KEY UPDATE
+                   version = LAST_INSERT_ID(version + 1),
+                   task_version = version,
+                   fitness_version = version,
+                   task_changes_after = version
+            """, nativeQuery = true)
+    int bumpImported(Long userId);
+
+    // bumpTasksOfUsers for one user, so the version is left in LAST_INSERT_ID()
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_version (user_id, version, user_version, task_version, fitness_version, task_changes_after)
+            VALUES (:userId, LAST_INSERT_ID(1), 0, 1, 0, 1)
+            ON DUPLICATE KEY UPDATE
+                   version = LAST_INSERT_ID(version + 1),
+                   task_version = version,
+                   task_changes_after = version
+            """, nativeQuery = true)
+    int bumpUnlistedTasks(Long userId);
+
+    // the version the last single-user bump of this transaction assigned; no table is read
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Number lastBumpedVersion();
+
+    // the tasks section of many users in one statement, rows taken in user id order; the task changes aren't listed
+    @Modifying
+    @Query(value = """
+            INSERT INTO dashboard_version (user_id, version, user_version, task_version, fitness_version, task_changes_after)
+            SELECT u.id, 1, 0, 1, 0, 1
+              FROM app_user u
+             WHERE u.id IN (:userIds)
+             ORDER BY u.id
+            ON DUPLICATE KEY UPDATE
+                   version = dashboard_version.version + 1,
+                   task_version = dashboard_version.version,
+                   task_changes_after = dashboard_version.version
+            """, nativeQuery = true)
+    int bumpTasksOfUsers(Collection<Long> userIds);
+
+    @Query(value = """
+            SELECT v.user_id AS userId,
+                   v.version AS version
+              FROM dashboard_version v
+             WHERE v.user_id IN (:userIds)
+            """, nativeQuery = true)
+    List<DashboardUserVersion> findVersions(Collection<Long> userIds);
+
+    @Query(value = """
+            SELECT c.task_id
+              FROM dashboard_task_change c
+             WHERE c.user_id = :userId AND c.version > :since AND c.version <= :until
+             ORDER BY c.version, c.task_id
+            """, nativeQuery = true)
+    List<Long> findChangedTaskIds(Long userId, long since, long until);
+}
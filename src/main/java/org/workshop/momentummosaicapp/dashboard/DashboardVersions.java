@@ -0,0 +1,181 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.importer.HistoryImportedEvent;
+import org.workshop.momentummosaicapp.task.TaskBatchChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.task.TemplateTasksCreatedEvent;
+import org.workshop.momentummosaicapp.user.UserProfileChangedEvent;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Version counters of each user's dashboard, kept in dashboard_version. They are bumped by
+ * plain listeners inside the transaction of the task, workout or profile write, like
+ * DashboardProjector, so a version is visible to every replica exactly when its change is.
+ * A version token is {@code <version>.<date>}: the date changes at midnight, so a token never
+ * matches a streak or didWorkoutToday it didn't describe. Every bump is followed by a
+ * DashboardChangedEvent carrying the new version.
+ */
+@Component
+public class DashboardVersions {
+
+    public enum Section {
+        USER,
+        TASKS,
+        FITNESS
+    }
+
+    private static final Snapshot INITIAL = new Snapshot(0, 0, 0, 0);
+
+    private final DashboardVersionRepository versionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int taskChangeCapacity;
+
+    public DashboardVersions(
+            DashboardVersionRepository versionRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${dashboard.versions.task-changes:64}") int taskChangeCapacity
+    ) {
+        this.versionRepository = versionRepository;
+        this.eventPublisher = eventPublisher;
+        this.taskChangeCapacity = taskChangeCapacity;
+    }
+
+    // one primary-key read
+    public Snapshot current(Long userId) {
+        return versionRepository.findByUserId(userId)
+                .map(v -> new Snapshot(v.getVersion().longValue(), v.getUserVersion().longValue(),
+                        v.getTaskVersion().longValue(), v.getFitnessVersion().longValue()))
+                .orElse(INITIAL);
+    }
+
+    public String token(Snapshot snapshot, LocalDate day) {
+        return token(snapshot.version(), day);
+    }
+
+    public String token(long version, LocalDate day) {
+        return version + "." + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * @return the version a token was issued at, if it was issued today
+     */
+    public Optional<Long> parse(String token, LocalDate day) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 2 || !parts[1].equals(day.format(DateTimeFormatter.BASIC_ISO_DATE))) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(parts[0]));
+        } catch (NumberFormatException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Ids of tasks changed after {@code since} up to {@code until}, or empty if those changes
+     * are no longer all retained and the client has to fetch everything.
+     */
+    public Optional<Set<Long>> taskChanges(Long userId, long since, long until) {
+        long completeAfter = versionRepository.findByUserId(userId)
+                .map(v -> v.getTaskChangesAfter().longValue())
+                .orElse(0L);
+        if (since < completeAfter) {
+            return Optional.empty();
+        }
+        return Optional.of(new LinkedHashSet<>(versionRepository.findChangedTaskIds(userId, since, until)));
+    }
+
+    @EventListener
+    @Transactional
+    public void onTaskChanged(TaskChangedEvent event) {
+        versionRepository.bump(event.userId(), Section.TASKS.name(), taskChangeCapacity);
+        publishBumped(event.userId(), event);
+        versionRepository.addTaskChange(event.userId(), event.taskId());
+        versionRepository.pruneTaskChanges(event.userId());
+    }
+
+    // one version for the whole batch; a batch bigger than the retained changes isn't listed at all
+    @EventListener
+    @Transactional
+    public void onTaskBatchChanged(TaskBatchChangedEvent event) {
+        List<Long> taskIds = event.taskIds();
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        if (taskIds.size() > taskChangeCapacity) {
+            versionRepository.bumpUnlistedTasks(event.userId());
+            publishBumped(event.userId(), event);
+            return;
+        }
+        versionRepository.bump(event.userId(), Section.TASKS.name(), taskChangeCapacity);
+        publishBumped(event.userId(), event);
+        versionRepository.addTaskChanges(event.userId(), taskIds.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]")));
+        versionRepository.pruneTaskChanges(event.userId());
+    }
+
+    // one statement for the whole chunk and one read of its versions; a ?since from before it gets the full dashboard
+    @EventListener
+    @Transactional
+    public void onTemplateTasksCreated(TemplateTasksCreatedEvent event) {
+        if (event.taskIdsByUser().isEmpty()) {
+            return;
+        }
+        versionRepository.bumpTasksOfUsers(event.taskIdsByUser().keySet());
+        versionRepository.findVersions(event.taskIdsByUser().keySet()).forEach(v -> eventPublisher.publishEvent(
+                new DashboardChangedEvent(v.getUserId().longValue(), v.getVersion().longValue(), event)));
+    }
+
+    @EventListener
+    @Transactional
+    public void onWorkoutLogged(WorkoutLoggedEvent event) {
+        versionRepository.bump(event.userId(), Section.FITNESS.name(), taskChangeCapacity);
+        publishBumped(event.userId(), event);
+    }
+
+    @EventListener
+    @Transactional
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        versionRepository.bump(event.userId(), Section.USER.name(), taskChangeCapacity);
+        publishBumped(event.userId(), event);
+    }
+
+    // published after the import's own transactions, so this bump gets one of its own
+    @EventListener
+    @Transactional
+    public void onHistoryImported(HistoryImportedEvent event) {
+        versionRepository.bumpImported(event.userId());
+        publishBumped(event.userId(), event);
+    }
+
+    // right after a single-user bump, before any other statement of the transaction
+    private void publishBumped(Long userId, Object change) {
+        eventPublisher.publishEvent(new DashboardChangedEvent(userId, versionRepository.lastBumpedVersion().longValue(), change));
+    }
+
+    public record Snapshot(long version, long userVersion, long taskVersion, long fitnessVersion) {
+
+        public boolean changedSince(Section section, long since) {
+            return switch (section) {
+                case USER -> userVersion > since;
+                case TASKS -> taskVersion > since;
+                case FITNESS -> fitnessVersion > since;
+            };
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+/**
+ * Profile columns joined with the user's dashboard_projection row. projectionUserId is null
+ * when the row doesn't exist yet. Today's flag and the streak are already resolved against
+ * the date passed to the query.
+ */
+public interface ProjectedDashboardHeader extends DashboardHeader, DashboardTaskTotals {
+    Long getProjectionUserId();
+}
@@ -0,0 +1,65 @@
+package org.workshop.momentummosaicapp.export;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/*
+ * The exports' own connection pool, the only connections with useCursorFetch=true. Connector/J
+ * prepares every statement on the server once cursor fetch is on, a round trip the rest of the
+ * app shouldn't pay for. The pool holds export.max-concurrent connections and an export has to
+ * take a permit before its response starts, so at most that many run across all users and a
+ * long download never holds a connection of the main pool. Not exposed as a DataSource bean,
+ * which would replace the autoconfigured one.
+ */
+@Component
+public class ExportConnections {
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore permits;
+
+    public ExportConnections(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${export.max-concurrent:3}") int maxConcurrent
+    ) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("export");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.addDataSourceProperty("useCursorFetch", "true");
+        config.setMaximumPoolSize(maxConcurrent);
+        config.setMinimumIdle(0);
+        config.setReadOnly(true);
+        config.setInitializationFailTimeout(-1);
+        this.dataSource = new HikariDataSource(config);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    // false when max-concurrent exports are already running
+    boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    @PreDestroy
+    void close() {
+        dataSource.close();
+    }
+}
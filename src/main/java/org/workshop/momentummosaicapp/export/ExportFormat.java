@@ -0,0 +1,134 @@
+package org.workshop.momentummosaicapp.export;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How an export is written, one row at a time. Numbers and booleans are written as is,
+ * everything else (text, dates, instants) as its string form.
+ */
+public enum ExportFormat {
+
+    // one JSON object per line, no enclosing array
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public void writeHeader(Writer out, List<String> columns) {
+        }
+
+        @Override
+        public void writeRow(Writer out, List<String> columns, Object[] values) throws IOException {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeJsonString(out, columns.get(i));
+                out.write(':');
+                Object value = values[i];
+                if (value == null || value instanceof Number || value instanceof Boolean) {
+                    out.write(String.valueOf(value));
+                } else {
+                    writeJsonString(out, value.toString());
+                }
+            }
+            out.write("}\n");
+        }
+    },
+
+    // RFC 4180: a header line, fields quoted only when they need it, null as an empty field
+    CSV("text/csv", "csv") {
+        @Override
+        public void writeHeader(Writer out, List<String> columns) throws IOException {
+            out.write(String.join(",", columns));
+            out.write("\r\n");
+        }
+
+        @Override
+        public void writeRow(Writer out, List<String> columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (values[i] != null) {
+                    writeCsvField(out, values[i].toString());
+                }
+            }
+            out.write("\r\n");
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public abstract void writeHeader(Writer out, List<String> columns) throws IOException;
+
+    public abstract void writeRow(Writer out, List<String> columns, Object[] values) throws IOException;
+
+    public static ExportFormat parse(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown export format: " + format);
+        }
+    }
+
+    // a download named after what is exported, e.g. tasks.csv
+    public ResponseEntity<StreamingResponseBody> toResponse(String name, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(name + "." + extension).build().toString())
+                .body(body);
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.export;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface ExportService {
+
+    // the user is checked right away, the rows are only read once the body is written
+    StreamingResponseBody exportTasks(Long userId, ExportFormat format);
+
+    StreamingResponseBody exportWorkouts(Long userId, ExportFormat format);
+}
@@ -0,0 +1,154 @@
+package org.workshop.momentummosaicapp.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+import org.workshop.momentummosaicapp.utility.exception.ServiceUnavailableException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/*
+ * Rows go from a forward-only JDBC cursor straight into the response, one at a time. Nothing
+ * passes through Hibernate, so there is no persistence context to grow, and on the cursor-fetch
+ * connections of ExportConnections the driver holds only export.fetch-size rows at once.
+ * Memory stays flat however many rows a user has. The connection is held until the last row
+ * is written.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    /*
+     * Live tasks, then archived ones. Each statement follows an index (idx_task_user_completed_created,
+     * idx_task_archive_user_created), so the database streams without a sort; a UNION would need one.
+     */
+    private static final Export TASKS = new Export(List.of("""
+            SELECT id, title, task_type, duration_minutes, completed, completed_at, created_at
+              FROM task
+             WHERE user_id = ?
+             ORDER BY completed, created_at, id
+            """, """
+            SELECT id, title, task_type, duration_minutes, TRUE, completed_at, created_at
+              FROM task_archive
+             WHERE user_id = ?
+             ORDER BY created_at, id
+            """),
+            List.of("id", "title", "taskType", "durationMinutes", "completed", "completedAt", "createdAt"),
+            (rs, utc) -> new Object[]{
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getInt(4),
+                    rs.getBoolean(5),
+                    instant(rs.getTimestamp(6, utc)),
+                    instant(rs.getTimestamp(7, utc))
+            });
+
+    private static final Export WORKOUTS = new Export(List.of("""
+            SELECT date, did_workout
+              FROM daily_fitness_log
+             WHERE user_id = ?
+             ORDER BY date
+            """),
+            List.of("date", "didWorkout"),
+            (rs, utc) -> new Object[]{
+                    rs.getObject(1, LocalDate.class),
+                    rs.getBoolean(2)
+            });
+
+    private static final int WRITE_BUFFER_CHARS = 16 * 1024;
+
+    private final ExportConnections exportConnections;
+    private final AppUserRepository appUserRepository;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public StreamingResponseBody exportTasks(Long userId, ExportFormat format) {
+        checkUser(userId);
+        return stream(TASKS, userId, format);
+    }
+
+    @Override
+    public StreamingResponseBody exportWorkouts(Long userId, ExportFormat format) {
+        checkUser(userId);
+        return stream(WORKOUTS, userId, format);
+    }
+
+    // the permit is taken before the response starts, so a full pool answers 503 instead of a broken download
+    private StreamingResponseBody stream(Export export, Long userId, ExportFormat format) {
+        if (!exportConnections.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many exports are running, try again later");
+        }
+        return out -> {
+            try {
+                write(export, userId, format, out);
+            } finally {
+                exportConnections.release();
+            }
+        };
+    }
+
+    void write(Export export, Long userId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        // Instants are stored as UTC, read them back the way Hibernate does
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        format.writeHeader(writer, export.columns());
+        try {
+            for (String sql : export.statements()) {
+                exportConnections.jdbcTemplate().query(con -> {
+                    PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    statement.setLong(1, userId);
+                    return statement;
+                }, rs -> {
+                    try {
+                        format.writeRow(writer, export.columns(), export.reader().read(rs, utc));
+                    } catch (IOException ex) {
+                        // the client went away; stop reading and let the cursor close
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+    }
+
+    private void checkUser(Long userId) {
+        if (!appUserRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User Not Found");
+        }
+    }
+
+    private static String instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+
+    // statements run one after the other, their rows written as one export
+    record Export(List<String> statements, List<String> columns, RowReader reader) {}
+
+    @FunctionalInterface
+    interface RowReader {
+        Object[] read(ResultSet rs, Calendar utc) throws SQLException;
+    }
+}
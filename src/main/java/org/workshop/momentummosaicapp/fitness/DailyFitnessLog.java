@@ -17,12 +17,16 @@ import java.time.LocalDate;
 @Setter
 @Getter
 @Table(
-        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "date"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "date"}),
+        indexes = @Index(name = "idx_fitness_user_workout_date", columnList = "user_id, did_workout, date")
 )
 public class DailyFitnessLog {
 
+    // pooled like Task ids, so imported logs can be inserted as JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "fitness_log_ids")
+    @TableGenerator(name = "fitness_log_ids", table = "id_generator", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "daily_fitness_log", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
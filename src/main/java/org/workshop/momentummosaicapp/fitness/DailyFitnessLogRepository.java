@@ -1,9 +1,11 @@
 package org.workshop.momentummosaicapp.fitness;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +13,12 @@ import java.util.Optional;
 public interface DailyFitnessLogRepository extends JpaRepository<DailyFitnessLog,Long> {
     Optional<DailyFitnessLog> findByAppUserIdAndDate(Long userId, LocalDate date);
     List<DailyFitnessLog> findByAppUserId(Long userId);
+
+    // which of these days the user already has a log for, read from the (user_id, date) unique index
+    @Query("select l.date from DailyFitnessLog l where l.appUser.id = :userId and l.date in :dates")
+    List<LocalDate> findLoggedDates(Long userId, Collection<LocalDate> dates);
+
+    // oldest first, an ordered range of idx_fitness_user_workout_date
+    @Query("select l.date from DailyFitnessLog l where l.appUser.id = :userId and l.didWorkout = true order by l.date")
+    List<LocalDate> findWorkoutDates(Long userId);
 }
\ No newline at end of file
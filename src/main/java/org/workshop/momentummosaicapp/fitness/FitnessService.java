@@ -2,14 +2,18 @@ package org.workshop.momentummosaicapp.fitness;
 
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.UserSummary;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface FitnessService {
     public void markWorkoutToday(Long userId,boolean didWorkout);
     public int getTotalWorkoutDays(Long userId);
     public int getWorkoutStreak(Long userId);
+    public int getLongestWorkoutStreak(Long userId);
     Optional<DailyFitnessLog> getTodayLog(Long userId);
     public UserSummary getUserSummary(Long userId);
+    // one error per day (null when it was written); the written days are saved in one transaction
+    List<String> importWorkouts(Long userId, List<WorkoutImport> workouts);
 
 
 }
@@ -2,16 +2,21 @@ package org.workshop.momentummosaicapp.fitness;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.UserSummary;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
 import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -19,12 +24,24 @@ public class FitnessServiceImpl implements FitnessService {
 
     private final DailyFitnessLogRepository fitnessLogRepository;
     private final AppUserRepository appUserRepository;
+    private final WorkoutStreakRepository streakRepository;
+    private final ApplicationEventPublisher eventPublisher;
     @Override
+    @Transactional
     public void markWorkoutToday(Long userId, boolean didWorkout) {
         AppUser appUser = getUserOrThrow(userId);
         DailyFitnessLog todaylog = getOrCreateTodayLog(appUser);
+        boolean previouslyDidWorkout = todaylog.isDidWorkout();
         todaylog.setDidWorkout(didWorkout);
         fitnessLogRepository.save(todaylog);
+        if (didWorkout != previouslyDidWorkout) {
+            WorkoutStreak streak = lockStreak(userId);
+            boolean applied = didWorkout ? streak.addWorkoutDay(todaylog.getDate()) : streak.removeWorkoutDay(todaylog.getDate());
+            if (!applied) {
+                streak.rebuild(fitnessLogRepository.findWorkoutDates(userId));
+            }
+        }
+        eventPublisher.publishEvent(new WorkoutLoggedEvent(userId, todaylog.getDate(), didWorkout, previouslyDidWorkout));
     }
 
     @Override
@@ -35,21 +52,15 @@ public class FitnessServiceImpl implements FitnessService {
         return (int)logs.stream().filter(DailyFitnessLog::isDidWorkout).count();
     }
 
+    // users without a row have never worked out
     @Override
     public int getWorkoutStreak(Long userId) {
-        int streak=0;
-        List<DailyFitnessLog> dailyFitnessLogs = fitnessLogRepository.findByAppUserId(userId);
-        dailyFitnessLogs.sort(Comparator.comparing(DailyFitnessLog::getDate).reversed());
-        LocalDate currentDate = LocalDate.now();
-        for (DailyFitnessLog log: dailyFitnessLogs){
-            if(log.getDate().equals(currentDate) && log.isDidWorkout()){
-                streak++;
-                currentDate = currentDate.minusDays(1);
-            }else {
-                break;
-            }
-        }
-        return streak;
+        return streakRepository.findById(userId).map(streak -> streak.streakOn(LocalDate.now())).orElse(0);
+    }
+
+    @Override
+    public int getLongestWorkoutStreak(Long userId) {
+        return streakRepository.findById(userId).map(WorkoutStreak::getLongestStreak).orElse(0);
     }
 
     @Override
@@ -57,9 +68,61 @@ public class FitnessServiceImpl implements FitnessService {
         getUserOrThrow(userId);
         return fitnessLogRepository.findByAppUserIdAndDate(userId,LocalDate.now());
     }
+    /*
+     * Enforces the (user_id, date) uniqueness per day instead of failing the whole batch on
+     * the constraint: days already logged, or repeated within the batch, are reported back.
+     */
+    @Override
+    @Transactional
+    public List<String> importWorkouts(Long userId, List<WorkoutImport> workouts) {
+        AppUser appUser = getUserOrThrow(userId);
+        LocalDate today = LocalDate.now();
+        List<LocalDate> dates = workouts.stream().map(WorkoutImport::date).filter(Objects::nonNull).toList();
+        Set<LocalDate> taken = dates.isEmpty() ? new HashSet<>() : new HashSet<>(fitnessLogRepository.findLoggedDates(userId, dates));
+        List<String> errors = new ArrayList<>(workouts.size());
+        List<DailyFitnessLog> logs = new ArrayList<>();
+        for (WorkoutImport workout : workouts) {
+            if (workout.date() == null) {
+                errors.add("Date is required");
+            } else if (workout.date().isAfter(today)) {
+                errors.add("Date is in the future");
+            } else if (!taken.add(workout.date())) {
+                errors.add("A log for " + workout.date() + " already exists");
+            } else {
+                DailyFitnessLog log = new DailyFitnessLog();
+                log.setAppUser(appUser);
+                log.setDate(workout.date());
+                log.setDidWorkout(workout.didWorkout());
+                logs.add(log);
+                errors.add(null);
+            }
+        }
+        fitnessLogRepository.saveAll(logs);
+        // imported days are usually older than the newest workout, so the streak is rebuilt once per batch
+        List<LocalDate> workoutDays = logs.stream().filter(DailyFitnessLog::isDidWorkout).map(DailyFitnessLog::getDate).sorted().toList();
+        if (!workoutDays.isEmpty()) {
+            WorkoutStreak streak = lockStreak(userId);
+            if (!workoutDays.stream().allMatch(streak::addWorkoutDay)) {
+                streak.rebuild(fitnessLogRepository.findWorkoutDates(userId));
+            }
+        }
+        return errors;
+    }
+
     private AppUser getUserOrThrow(Long userId){
         return appUserRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
     }
+    // a new row starts from the logs, which may already hold workouts
+    private WorkoutStreak lockStreak(Long userId) {
+        Optional<WorkoutStreak> streak = streakRepository.findByIdForUpdate(userId);
+        if (streak.isPresent()) {
+            return streak.get();
+        }
+        streakRepository.createIfMissing(userId);
+        WorkoutStreak created = streakRepository.findByIdForUpdate(userId).orElseThrow();
+        created.rebuild(fitnessLogRepository.findWorkoutDates(userId));
+        return created;
+    }
     private DailyFitnessLog getOrCreateTodayLog(AppUser appUser){
         Optional<DailyFitnessLog> todayLog = getTodayLog(appUser.getId());
         if (todayLog.isPresent()) return todayLog.get();
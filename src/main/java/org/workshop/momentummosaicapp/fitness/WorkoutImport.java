@@ -0,0 +1,7 @@
+package org.workshop.momentummosaicapp.fitness;
+
+import java.time.LocalDate;
+
+// one day from an imported workout history
+public record WorkoutImport(LocalDate date, boolean didWorkout) {
+}
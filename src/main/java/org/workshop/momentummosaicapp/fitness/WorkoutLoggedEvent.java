@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.fitness;
+
+import java.time.LocalDate;
+
+// published by FitnessServiceImpl.markWorkoutToday after the day's log is saved
+public record WorkoutLoggedEvent(
+        Long userId,
+        LocalDate date,
+        boolean didWorkout,
+        boolean previouslyDidWorkout
+) {}
@@ -0,0 +1,71 @@
+package org.workshop.momentummosaicapp.fitness;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A user's workout streak state. Marking the newest day is applied in place; a day older than
+ * lastWorkoutDate, or an un-mark that may shorten the longest run, can join or split runs
+ * anywhere in the history, so those are rebuilt from the workout days instead.
+ */
+@Entity
+@Table(name = "workout_streak")
+@NoArgsConstructor
+@Getter
+public class WorkoutStreak {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // the run of workout days ending at lastWorkoutDate
+    @Column(nullable = false)
+    private int currentStreak;
+
+    @Column(nullable = false)
+    private int longestStreak;
+
+    private LocalDate lastWorkoutDate;
+
+    public WorkoutStreak(Long userId) {
+        this.userId = userId;
+    }
+
+    // a run that ended before today is broken, the same as getWorkoutStreak always counted it
+    public int streakOn(LocalDate today) {
+        return today.equals(lastWorkoutDate) ? currentStreak : 0;
+    }
+
+    // false when the day is older than the newest workout day and the state has to be rebuilt
+    boolean addWorkoutDay(LocalDate day) {
+        if (lastWorkoutDate != null && !day.isAfter(lastWorkoutDate)) {
+            return day.equals(lastWorkoutDate);
+        }
+        currentStreak = day.minusDays(1).equals(lastWorkoutDate) ? currentStreak + 1 : 1;
+        longestStreak = Math.max(longestStreak, currentStreak);
+        lastWorkoutDate = day;
+        return true;
+    }
+
+    // only the newest day of a run that isn't the longest can be taken off without a rebuild
+    boolean removeWorkoutDay(LocalDate day) {
+        if (!day.equals(lastWorkoutDate) || currentStreak < 2 || currentStreak >= longestStreak) {
+            return false;
+        }
+        currentStreak--;
+        lastWorkoutDate = day.minusDays(1);
+        return true;
+    }
+
+    // workoutDays ascending, so each one takes the addWorkoutDay fast path
+    void rebuild(List<LocalDate> workoutDays) {
+        currentStreak = 0;
+        longestStreak = 0;
+        lastWorkoutDate = null;
+        workoutDays.forEach(this::addWorkoutDay);
+    }
+}
@@ -0,0 +1,25 @@
+package org.workshop.momentummosaicapp.fitness;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface WorkoutStreakRepository extends JpaRepository<WorkoutStreak, Long> {
+
+    // serializes the streak updates of one user, as a read-modify-write of a single row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WorkoutStreak s where s.userId = :userId")
+    Optional<WorkoutStreak> findByIdForUpdate(Long userId);
+
+    // an empty row for a user's first workout; a concurrent first workout finds it already there
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO workout_streak (user_id, current_streak, longest_streak)
+            VALUES (:userId, 0, 0)
+            """, nativeQuery = true)
+    int createIfMissing(Long userId);
+}
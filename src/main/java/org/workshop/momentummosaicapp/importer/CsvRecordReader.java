@@ -0,0 +1,136 @@
+package org.workshop.momentummosaicapp.importer;
+
+import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// RFC 4180 with a header line; quoted fields may contain commas, quotes and line breaks
+final class CsvRecordReader implements RecordReader {
+
+    private final PushbackReader in;
+    private final int maxChars;
+    private List<String> header;
+    // physical line the next character is on
+    private long line = 1;
+
+    CsvRecordReader(Reader in, int maxChars) {
+        this.in = new PushbackReader(new BufferedReader(in));
+        this.maxChars = maxChars;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        while (true) {
+            long start = line;
+            Row row = readRow();
+            if (row == null) {
+                return null;
+            }
+            if (row.blank()) {
+                continue;
+            }
+            if (header == null) {
+                if (row.error() != null) {
+                    // nothing has been written yet, so this is still a plain 400
+                    throw new BadRequestException("Unreadable header: " + row.error());
+                }
+                header = row.fields();
+                continue;
+            }
+            if (row.error() != null) {
+                return ImportRecord.failed(start, row.error());
+            }
+            if (row.fields().size() != header.size()) {
+                return ImportRecord.failed(start, "Expected " + header.size() + " fields, found " + row.fields().size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                fields.put(header.get(i), row.fields().get(i));
+            }
+            return new ImportRecord(start, fields, null);
+        }
+    }
+
+    private Row readRow() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawQuote = false;
+        boolean sawAny = false;
+        String error = null;
+        int chars = 0;
+        while (true) {
+            int c = in.read();
+            if (c == -1) {
+                if (!sawAny) {
+                    return null;
+                }
+                if (quoted && error == null) {
+                    error = "Unterminated quoted field";
+                }
+                break;
+            }
+            sawAny = true;
+            if (++chars > maxChars && error == null) {
+                // keep consuming to the end of the record, but stop holding on to it
+                error = "Record is longer than " + maxChars + " characters";
+                fields.clear();
+                field.setLength(0);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = in.read();
+                    if (next == '"') {
+                        append(field, '"', error);
+                        continue;
+                    }
+                    if (next != -1) {
+                        in.unread(next);
+                    }
+                    quoted = false;
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                append(field, (char) c, error);
+                continue;
+            }
+            if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                sawQuote = true;
+            } else if (c == ',') {
+                if (error == null) {
+                    fields.add(field.toString());
+                }
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r') {
+                append(field, (char) c, error);
+            }
+        }
+        if (error != null) {
+            return new Row(List.of(), error, false);
+        }
+        fields.add(field.toString());
+        boolean blank = fields.size() == 1 && fields.get(0).isEmpty() && !sawQuote;
+        return new Row(fields, null, blank);
+    }
+
+    private static void append(StringBuilder field, char c, String error) {
+        if (error == null) {
+            field.append(c);
+        }
+    }
+
+    private record Row(List<String> fields, String error, boolean blank) {}
+}
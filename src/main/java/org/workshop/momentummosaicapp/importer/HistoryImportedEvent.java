@@ -0,0 +1,5 @@
+package org.workshop.momentummosaicapp.importer;
+
+// published once when an import ends, after its last batch committed, instead of one event per row
+public record HistoryImportedEvent(Long userId) {
+}
@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.importer;
+
+import java.util.Map;
+
+// one record of an import, keyed by column name; line is where it starts, error is set when it couldn't be read
+record ImportRecord(long line, Map<String, String> fields, String error) {
+
+    static ImportRecord failed(long line, String error) {
+        return new ImportRecord(line, null, error);
+    }
+}
@@ -0,0 +1,62 @@
+package org.workshop.momentummosaicapp.importer;
+
+import org.workshop.momentummosaicapp.export.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The ndjson an import answers with while it runs: an error line per rejected record (up to
+ * maxReportedErrors, after that they are only counted), a progress line after each committed
+ * batch and a done line at the end.
+ */
+final class ImportReport {
+
+    private static final List<String> ERROR_COLUMNS = List.of("type", "line", "error");
+    private static final List<String> COUNT_COLUMNS = List.of("type", "records", "imported", "failed");
+
+    private final Writer out;
+    private final int maxReportedErrors;
+    private long imported;
+    private long failed;
+
+    ImportReport(OutputStream out, int maxReportedErrors) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void imported() {
+        imported++;
+    }
+
+    void failed(long line, String error) throws IOException {
+        failed++;
+        if (failed <= maxReportedErrors) {
+            ExportFormat.NDJSON.writeRow(out, ERROR_COLUMNS, new Object[]{"error", line, error});
+        }
+    }
+
+    // flushed, so the client sees it while the rest of the file is still being read
+    void progress() throws IOException {
+        writeCounts("progress");
+        out.flush();
+    }
+
+    void done() throws IOException {
+        writeCounts("done");
+        out.flush();
+    }
+
+    long importedCount() {
+        return imported;
+    }
+
+    private void writeCounts(String type) throws IOException {
+        ExportFormat.NDJSON.writeRow(out, COUNT_COLUMNS, new Object[]{type, imported + failed, imported, failed});
+    }
+}
@@ -0,0 +1,46 @@
+package org.workshop.momentummosaicapp.importer;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The response body of an import. The ndjson content type is only set on the first write, so a
+ * request rejected before the report starts (unknown user, unreadable header) is still answered
+ * with the usual json error.
+ */
+public final class ImportResponseStream extends OutputStream {
+
+    private final HttpServletResponse response;
+    private OutputStream out;
+
+    public ImportResponseStream(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    private OutputStream out() throws IOException {
+        if (out == null) {
+            response.setContentType("application/x-ndjson");
+            out = response.getOutputStream();
+        }
+        return out;
+    }
+}
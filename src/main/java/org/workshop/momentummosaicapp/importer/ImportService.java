@@ -0,0 +1,16 @@
+package org.workshop.momentummosaicapp.importer;
+
+import org.workshop.momentummosaicapp.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ImportService {
+
+    // reads records in the export's column format from in and writes the ndjson report to out as it goes;
+    // tasks aren't de-duplicated, so a retry should send only the lines the report lists as failed
+    void importTasks(Long userId, ExportFormat format, InputStream in, OutputStream out) throws IOException;
+
+    void importWorkouts(Long userId, ExportFormat format, InputStream in, OutputStream out) throws IOException;
+}
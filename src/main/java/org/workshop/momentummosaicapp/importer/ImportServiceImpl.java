@@ -0,0 +1,232 @@
+package org.workshop.momentummosaicapp.importer;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.workshop.momentummosaicapp.export.ExportFormat;
+import org.workshop.momentummosaicapp.fitness.FitnessService;
+import org.workshop.momentummosaicapp.fitness.WorkoutImport;
+import org.workshop.momentummosaicapp.task.BulkTaskResult;
+import org.workshop.momentummosaicapp.task.TaskImport;
+import org.workshop.momentummosaicapp.task.TaskService;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+ * Reads the upload one record at a time and hands them to TaskService / FitnessService in
+ * batches of import.batch-size, each batch in its own transaction. Only the current batch is
+ * held in memory, and the persistence context is cleared after each one so an open-in-view
+ * EntityManager doesn't keep every imported row. A batch that fails as a whole (a concurrent
+ * write hit the unique key, a deadlock) is reported line by line and the import goes on.
+ * Imported tasks have no key to recognize them by, so sending the whole file again would
+ * duplicate every line that did make it; the report says to re-send only the failed lines.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportServiceImpl implements ImportService {
+
+    static final String BATCH_ROLLED_BACK =
+            "Batch rolled back by a conflicting write, nothing in it was saved; re-send only the failed lines";
+
+    private final TaskService taskService;
+    private final FitnessService fitnessService;
+    private final AppUserRepository appUserRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${import.max-record-chars:65536}")
+    private int maxRecordChars;
+
+    @Value("${import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public void importTasks(Long userId, ExportFormat format, InputStream in, OutputStream out) throws IOException {
+        run(userId, format, in, out, ImportServiceImpl::toTask,
+                batch -> taskService.importTasks(userId, batch).stream().map(BulkTaskResult::error).toList());
+    }
+
+    @Override
+    public void importWorkouts(Long userId, ExportFormat format, InputStream in, OutputStream out) throws IOException {
+        run(userId, format, in, out, ImportServiceImpl::toWorkout,
+                batch -> fitnessService.importWorkouts(userId, batch));
+    }
+
+    private <T> void run(Long userId, ExportFormat format, InputStream in, OutputStream out,
+                         Function<Map<String, String>, T> parse, Function<List<T>, List<String>> write) throws IOException {
+        // before anything is written, so a missing user is still a 404
+        if (!appUserRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User Not Found");
+        }
+        RecordReader reader = RecordReader.open(format, new InputStreamReader(in, StandardCharsets.UTF_8), maxRecordChars);
+        ImportReport report = new ImportReport(out, maxReportedErrors);
+        Batch<T> batch = new Batch<>(batchSize);
+        try {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                if (record.error() != null) {
+                    report.failed(record.line(), record.error());
+                    continue;
+                }
+                try {
+                    batch.add(record.line(), parse.apply(record.fields()));
+                } catch (IllegalArgumentException ex) {
+                    report.failed(record.line(), ex.getMessage());
+                    continue;
+                }
+                if (batch.isFull()) {
+                    flush(batch, write, report);
+                }
+            }
+            flush(batch, write, report);
+            report.done();
+        } finally {
+            if (report.importedCount() > 0) {
+                eventPublisher.publishEvent(new HistoryImportedEvent(userId));
+            }
+        }
+    }
+
+    private <T> void flush(Batch<T> batch, Function<List<T>, List<String>> write, ImportReport report) throws IOException {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        List<String> errors;
+        try {
+            errors = write.apply(batch.rows);
+        } catch (DataAccessException ex) {
+            log.warn("Import batch of {} rows rolled back: {}", batch.rows.size(), ex.getMessage());
+            errors = null;
+        } finally {
+            entityManager.clear();
+        }
+        for (int i = 0; i < batch.rows.size(); i++) {
+            String error = errors == null ? BATCH_ROLLED_BACK : errors.get(i);
+            if (error == null) {
+                report.imported();
+            } else {
+                report.failed(batch.lines.get(i), error);
+            }
+        }
+        batch.clear();
+        report.progress();
+    }
+
+    // same columns as the task export; id and createdAt are ignored
+    private static TaskImport toTask(Map<String, String> fields) {
+        boolean completed = parseBoolean(fields, "completed", false);
+        return new TaskImport(
+                fields.get("title"),
+                parseTaskType(fields.get("taskType")),
+                parseInteger(fields, "durationMinutes"),
+                completed,
+                parseInstant(fields, "completedAt")
+        );
+    }
+
+    private static WorkoutImport toWorkout(Map<String, String> fields) {
+        String date = blankToNull(fields.get("date"));
+        try {
+            return new WorkoutImport(date == null ? null : LocalDate.parse(date), parseBoolean(fields, "didWorkout", false));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("date is not an ISO date: " + date);
+        }
+    }
+
+    private static TaskType parseTaskType(String value) {
+        value = blankToNull(value);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return TaskType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown task type: " + value);
+        }
+    }
+
+    private static Integer parseInteger(Map<String, String> fields, String name) {
+        String value = blankToNull(fields.get(name));
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private static boolean parseBoolean(Map<String, String> fields, String name, boolean defaultValue) {
+        String value = blankToNull(fields.get(name));
+        if (value == null) {
+            return defaultValue;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException(name + " must be true or false: " + value);
+        };
+    }
+
+    private static Instant parseInstant(Map<String, String> fields, String name) {
+        String value = blankToNull(fields.get(name));
+        try {
+            return value == null ? null : Instant.parse(value.trim());
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(name + " is not an ISO instant: " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    // the rows of the batch being filled and the line each came from
+    private static final class Batch<T> {
+
+        private final int size;
+        private final List<T> rows;
+        private final List<Long> lines;
+
+        Batch(int size) {
+            this.size = size;
+            this.rows = new ArrayList<>(size);
+            this.lines = new ArrayList<>(size);
+        }
+
+        void add(long line, T row) {
+            rows.add(row);
+            lines.add(line);
+        }
+
+        boolean isFull() {
+            return rows.size() >= size;
+        }
+
+        void clear() {
+            rows.clear();
+            lines.clear();
+        }
+    }
+}
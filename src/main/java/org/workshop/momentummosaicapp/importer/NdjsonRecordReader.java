@@ -0,0 +1,177 @@
+package org.workshop.momentummosaicapp.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * One flat JSON object per line, the shape the export writes. Numbers and booleans are kept
+ * as their text, null as a missing value; nested objects and arrays are rejected.
+ */
+final class NdjsonRecordReader implements RecordReader {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    private final BufferedReader in;
+    private final int maxChars;
+    private final StringBuilder buffer = new StringBuilder();
+    private long line;
+
+    NdjsonRecordReader(Reader in, int maxChars) {
+        this.in = new BufferedReader(in);
+        this.maxChars = maxChars;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        while (true) {
+            buffer.setLength(0);
+            boolean tooLong = false;
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            line++;
+            for (; c != -1 && c != '\n'; c = in.read()) {
+                if (buffer.length() == maxChars) {
+                    tooLong = true;
+                } else if (c != '\r') {
+                    buffer.append((char) c);
+                }
+            }
+            if (tooLong) {
+                return ImportRecord.failed(line, "Record is longer than " + maxChars + " characters");
+            }
+            if (buffer.toString().isBlank()) {
+                continue;
+            }
+            try {
+                return new ImportRecord(line, new FlatObjectParser(buffer).parse(), null);
+            } catch (IllegalArgumentException ex) {
+                return ImportRecord.failed(line, ex.getMessage());
+            }
+        }
+    }
+
+    private static final class FlatObjectParser {
+
+        private final CharSequence text;
+        private int pos;
+
+        FlatObjectParser(CharSequence text) {
+            this.text = text;
+        }
+
+        Map<String, String> parse() {
+            Map<String, String> fields = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    String name = string();
+                    expect(':');
+                    fields.put(name, value());
+                    char next = peek();
+                    pos++;
+                    if (next == '}') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw malformed();
+                    }
+                }
+            }
+            if (peek() != 0) {
+                throw malformed();
+            }
+            return fields;
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested values are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.subSequence(start, pos).toString();
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") || NUMBER.matcher(literal).matches()) {
+                return literal;
+            }
+            throw malformed();
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) {
+                    throw malformed();
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw malformed();
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw malformed();
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.subSequence(pos, pos + 4).toString(), 16));
+                        } catch (NumberFormatException ex) {
+                            throw malformed();
+                        }
+                        pos += 4;
+                    }
+                    default -> throw malformed();
+                }
+            }
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw malformed();
+            }
+            pos++;
+        }
+
+        // the next character after any whitespace, or 0 at the end
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed JSON at column " + (pos + 1));
+        }
+    }
+}
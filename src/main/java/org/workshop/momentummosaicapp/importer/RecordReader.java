@@ -0,0 +1,24 @@
+package org.workshop.momentummosaicapp.importer;
+
+import org.workshop.momentummosaicapp.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads an import one record at a time. A record that can't be read is returned with an
+ * error and the reader moves on to the next one; a record longer than maxChars is skipped
+ * the same way, so a single huge line can't exhaust the heap.
+ */
+interface RecordReader {
+
+    // null once the input is exhausted
+    ImportRecord next() throws IOException;
+
+    static RecordReader open(ExportFormat format, Reader in, int maxChars) {
+        return switch (format) {
+            case CSV -> new CsvRecordReader(in, maxChars);
+            case NDJSON -> new NdjsonRecordReader(in, maxChars);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package org.workshop.momentummosaicapp.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration idleTimeout,
+        Map<String, Group> groups
+) {
+
+    // the groups are configured in application-docker.yml; without any nothing is limited
+    public RateLimitProperties {
+        if (groups == null) {
+            groups = Map.of();
+        }
+    }
+
+    /**
+     * A set of routes sharing one bucket per user. The first group matching a request wins.
+     */
+    public record Group(
+            List<String> methods,
+            List<String> patterns,
+            long capacity,
+            double refillPerSecond
+    ) {}
+}
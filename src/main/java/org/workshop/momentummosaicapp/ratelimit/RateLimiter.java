@@ -0,0 +1,117 @@
+package org.workshop.momentummosaicapp.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user token buckets for each configured route group. Buckets live in a
+ * ConcurrentHashMap, which is striped per bin, and are only ever mutated with a CAS,
+ * so concurrent requests of different users never contend on a lock.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final long idleNanos;
+    private final List<RouteGroup> routeGroups;
+    private final Map<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.idleNanos = properties.idleTimeout().toNanos();
+        this.routeGroups = properties.groups().entrySet().stream()
+                .map(entry -> RouteGroup.of(entry.getKey(), entry.getValue(), meterRegistry))
+                .toList();
+    }
+
+    /**
+     * Takes a token from the user's bucket for the route group the request belongs to.
+     *
+     * @return empty if the request may proceed, otherwise the nanos until the user may retry
+     */
+    public Optional<Throttled> tryAcquire(String method, String path, String userKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        RouteGroup group = match(method, path);
+        if (group == null) {
+            return Optional.empty();
+        }
+
+        long now = System.nanoTime();
+        BucketKey key = new BucketKey(group.name(), userKey);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(group.capacity(), group.refillPerSecond(), now));
+        }
+
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return Optional.empty();
+        }
+        group.throttled().increment();
+        return Optional.of(new Throttled(group.name(), waitNanos));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private RouteGroup match(String method, String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (RouteGroup group : routeGroups) {
+            if (group.methods().contains(method) && group.patterns().stream().anyMatch(p -> p.matches(container))) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    public record Throttled(String group, long retryAfterNanos) {}
+
+    private record BucketKey(String group, String user) {}
+
+    private record RouteGroup(
+            String name,
+            Set<String> methods,
+            List<PathPattern> patterns,
+            long capacity,
+            double refillPerSecond,
+            Counter throttled
+    ) {
+        static RouteGroup of(String name, RateLimitProperties.Group group, MeterRegistry meterRegistry) {
+            return new RouteGroup(
+                    name,
+                    group.methods().stream().map(m -> m.toUpperCase(Locale.ROOT)).collect(Collectors.toSet()),
+                    group.patterns().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                    group.capacity(),
+                    group.refillPerSecond(),
+                    Counter.builder("ratelimit.throttled")
+                            .description("Requests rejected with 429 by the rate limiter")
+                            .tag("group", name)
+                            .register(meterRegistry)
+            );
+        }
+    }
+}
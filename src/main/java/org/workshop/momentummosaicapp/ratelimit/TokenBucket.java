@@ -0,0 +1,45 @@
+package org.workshop.momentummosaicapp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count it stores the time at which the bucket
+ * would be full again (GCRA), so taking a token is a single CAS on one long.
+ */
+final class TokenBucket {
+
+    // nanos to refill one token
+    private final long interval;
+    // nanos of credit a full bucket represents (capacity * interval)
+    private final long burstWindow;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        this.interval = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstWindow = interval * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanos until one will be available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long next = base + interval;
+            long debt = next - nowNanos;
+            if (debt > burstWindow) {
+                return debt - burstWindow;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // a bucket that has been full for a while holds no state worth keeping
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - fullAt.get() > idleNanos;
+    }
+}
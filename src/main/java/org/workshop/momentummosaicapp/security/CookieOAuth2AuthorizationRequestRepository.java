@@ -0,0 +1,106 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.io.*;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Keeps the pending OAuth2 authorization request in a short-lived signed cookie instead of the
+ * HttpSession, so the redirect back from the provider can land on any instance.
+ * The payload is HMAC-checked before it is deserialized.
+ */
+@Component
+@RequiredArgsConstructor
+public class CookieOAuth2AuthorizationRequestRepository
+        implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+    static final String AUTHORIZATION_REQUEST_COOKIE = "MM_OAUTH2_REQUEST";
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    private final JwtService jwtService;
+    private final TokenCookies tokenCookies;
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        return tokenCookies.read(request, AUTHORIZATION_REQUEST_COOKIE)
+                .map(this::decode)
+                .orElse(null);
+    }
+
+    @Override
+    public void saveAuthorizationRequest(
+            OAuth2AuthorizationRequest authorizationRequest,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        if (authorizationRequest == null) {
+            tokenCookies.clear(response, AUTHORIZATION_REQUEST_COOKIE);
+            return;
+        }
+        tokenCookies.write(response, AUTHORIZATION_REQUEST_COOKIE, encode(authorizationRequest), MAX_AGE);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        tokenCookies.clear(response, AUTHORIZATION_REQUEST_COOKIE);
+        return authorizationRequest;
+    }
+
+    private String encode(OAuth2AuthorizationRequest authorizationRequest) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(authorizationRequest);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not serialize authorization request", ex);
+        }
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] payload = bytes.toByteArray();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+    }
+
+    private OAuth2AuthorizationRequest decode(String value) {
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(value.substring(0, dot));
+            byte[] signature = decoder.decode(value.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return null;
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+                return in.readObject() instanceof OAuth2AuthorizationRequest authorizationRequest
+                        ? authorizationRequest
+                        : null;
+            }
+        } catch (IllegalArgumentException | IOException | ClassNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(jwtService.signingKey());
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not sign authorization request", ex);
+        }
+    }
+}
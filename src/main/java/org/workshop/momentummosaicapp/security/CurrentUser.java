@@ -2,11 +2,14 @@ package org.workshop.momentummosaicapp.security;
 
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
 
 import java.util.List;
 
 public class CurrentUser extends org.springframework.security.core.userdetails.User {
 
+    private final Long userId;
+    private final String name;
     private final boolean profileCompleted;
 
     public CurrentUser(AppUser user) {
@@ -19,9 +22,35 @@ public class CurrentUser extends org.springframework.security.core.userdetails.U
                 true,
                 List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
+        this.userId = user.getId();
+        this.name = user.getName();
         this.profileCompleted = user.isProfileCompleted();
     }
 
+    // token-authenticated requests carry no password
+    public CurrentUser(UserSnapshot user) {
+        super(
+                user.email(),
+                "",
+                user.enabled(),
+                true,
+                true,
+                true,
+                List.of(new SimpleGrantedAuthority("ROLE_" + user.role().name()))
+        );
+        this.userId = user.id();
+        this.name = user.name();
+        this.profileCompleted = user.profileCompleted();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
     public boolean isProfileCompleted() {
         return profileCompleted;
     }
@@ -0,0 +1,41 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
+
+/**
+ * We only use the provider to identify the user and never call its APIs afterwards,
+ * so in stateless mode the provider's access token is not kept anywhere.
+ */
+class DiscardingAuthorizedClientRepository implements OAuth2AuthorizedClientRepository {
+
+    @Override
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(
+            String clientRegistrationId,
+            Authentication principal,
+            HttpServletRequest request
+    ) {
+        return null;
+    }
+
+    @Override
+    public void saveAuthorizedClient(
+            OAuth2AuthorizedClient authorizedClient,
+            Authentication principal,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+    }
+
+    @Override
+    public void removeAuthorizedClient(
+            String clientRegistrationId,
+            Authentication principal,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+    }
+}
@@ -1,5 +1,6 @@
 package org.workshop.momentummosaicapp.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,20 +8,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
 
 import java.io.IOException;
+import java.util.Optional;
 
-@Component
+// registered inside the security chain by SecurityConfig, not as a servlet filter
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalResolver principalResolver;
+    private final PrincipalSource principalSource;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenCookies tokenCookies;
 
     @Override
     protected void doFilterInternal(
@@ -31,34 +34,60 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // API clients send a bearer header, browsers in stateless mode send the token cookie
+        String jwt;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+        } else {
+            jwt = tokenCookies.read(request).orElse(null);
+        }
+
+        if (jwt == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String jwt = authHeader.substring(7);
-        String email = jwtService.extractEmail(jwt);
-
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // parsed and verified once, then reused by everything downstream
+        VerifiedToken token;
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException ex) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (tokenRevocationService.isRevoked(token)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, token);
 
-            UserDetails userDetails =
-                    userDetailsService.loadUserByUsername(email);
+        if (token.email() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            if (jwtService.isTokenValid(jwt, email)) {
+            Optional<UserSnapshot> user;
+            if (principalSource == PrincipalSource.TOKEN && token.hasUserClaims()) {
+                user = Optional.of(token.toSnapshot());
+                principalResolver.remember(request, user.get());
+            } else {
+                user = principalResolver.resolve(request, token.email());
+            }
+            if (user.isEmpty() || !user.get().enabled()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            CurrentUser userDetails = new CurrentUser(user.get());
 
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
 
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
@@ -1,16 +1,28 @@
 package org.workshop.momentummosaicapp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.Role;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
@@ -20,43 +32,144 @@ public class JwtService {
 
     private static final long EXPIRATION_MS = 1000 * 60 * 60 * 24;
 
+    static final String NAME_CLAIM = "name";
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String PROFILE_COMPLETED_CLAIM = "pc";
+
+    // key and parser are immutable and thread-safe, so they are built once
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // token digest -> claims of a token we already verified
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtService(
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize,
+            @Value("${jwt.verified-cache.max-ttl:10m}") Duration verifiedCacheMaxTtl
+    ) {
+        this.signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .expireAfter(new TokenExpiry(verifiedCacheMaxTtl))
+                        .build()
+                : null;
+    }
+
     public String generateToken(AppUser user) {
+        return generateToken(UserSnapshot.of(user));
+    }
+
+    // id, role and profile state travel as signed claims so authorization needs no DB lookup
+    public String generateToken(UserSnapshot user) {
         Instant now = Instant.now();
 
         return Jwts.builder()
-                .subject(user.getEmail())
+                .id(UUID.randomUUID().toString())
+                .subject(user.email())
+                .claim(NAME_CLAIM, user.name())
+                .claim(USER_ID_CLAIM, user.id())
+                .claim(ROLE_CLAIM, user.role() == null ? null : user.role().name())
+                .claim(PROFILE_COMPLETED_CLAIM, user.profileCompleted())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusMillis(EXPIRATION_MS)))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     * Tokens verified recently are served from the cache without any HMAC work.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new JwtException("Token is empty");
+        }
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+
+        VerifiedToken verified = parse(token);
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
+    // also signs the stateless OAuth2 authorization request cookie
+    SecretKey signingKey() {
+        return signingKey;
+    }
+
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return verify(token).email();
     }
 
     public boolean isTokenValid(String token, String email) {
-        return email.equals(extractEmail(token)) && !isTokenExpired(token);
+        try {
+            return email.equals(verify(token).email());
+        } catch (JwtException | IllegalArgumentException ex) {
+            return false;
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractAllClaims(token).getExpiration();
-        return expiration.before(new Date());
+    private VerifiedToken parse(String token) {
+        // the parser rejects expired tokens on its own
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        Object userId = claims.get(USER_ID_CLAIM);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(NAME_CLAIM, String.class),
+                userId instanceof Number number ? number.longValue() : null,
+                role == null ? null : Role.valueOf(role),
+                claims.get(PROFILE_COMPLETED_CLAIM, Boolean.class),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(
-                Base64.getEncoder().encodeToString(SECRET_KEY.getBytes())
-        );
-        return Keys.hmacShaKeyFor(keyBytes);
+    // keeps each entry until the token itself expires, capped by maxTtl
+    private record TokenExpiry(Duration maxTtl) implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), value.expiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
-
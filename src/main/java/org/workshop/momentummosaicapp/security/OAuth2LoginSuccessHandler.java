@@ -3,6 +3,7 @@ package org.workshop.momentummosaicapp.security;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -11,12 +12,9 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.stereotype.Component;
-import org.workshop.momentummosaicapp.security.dto.AuthResponse;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserPrincipal;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
-import org.workshop.momentummosaicapp.user.Role;
-import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 
@@ -25,6 +23,11 @@ import java.io.IOException;
 public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
 
     private final AppUserRepository appUserRepository;
+    private final JwtService jwtService;
+    private final TokenCookies tokenCookies;
+
+    @Value("${security.session-mode:stateful}")
+    private SessionMode sessionMode;
 
     @Override
     public void onAuthenticationSuccess(
@@ -48,6 +51,13 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
                     return appUserRepository.save(newUser);
                 });
 
+        if (sessionMode == SessionMode.STATELESS) {
+            // the signed token is the whole login state, nothing is kept server-side
+            tokenCookies.write(response, jwtService.generateToken(user));
+            response.sendRedirect("http://localhost:3000/auth/callback");
+            return;
+        }
+
         AppUserPrincipal principal =
                 new AppUserPrincipal(user, oauthUser.getAttributes());
 
@@ -73,4 +83,3 @@ public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
 
     }
 }
-
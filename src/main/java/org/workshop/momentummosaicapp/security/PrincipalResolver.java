@@ -0,0 +1,38 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
+import org.workshop.momentummosaicapp.user.UserSnapshotCache;
+
+import java.util.Optional;
+
+/**
+ * Resolves the authenticated user once per request. The snapshot is kept as a request
+ * attribute, so every filter after the first one reuses it instead of going back to the cache or DB.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalResolver {
+
+    public static final String REQUEST_ATTRIBUTE = UserSnapshot.class.getName();
+
+    private final UserSnapshotCache userSnapshotCache;
+
+    public Optional<UserSnapshot> resolve(HttpServletRequest request, String email) {
+        Object resolved = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (resolved instanceof UserSnapshot snapshot && snapshot.email().equals(email)) {
+            return Optional.of(snapshot);
+        }
+
+        Optional<UserSnapshot> snapshot = userSnapshotCache.getByEmail(email);
+        snapshot.ifPresent(s -> request.setAttribute(REQUEST_ATTRIBUTE, s));
+        return snapshot;
+    }
+
+    // for principals that were built without a lookup, e.g. from token claims
+    public void remember(HttpServletRequest request, UserSnapshot snapshot) {
+        request.setAttribute(REQUEST_ATTRIBUTE, snapshot);
+    }
+}
@@ -0,0 +1,12 @@
+package org.workshop.momentummosaicapp.security;
+
+/**
+ * Where JWT-authenticated requests get the user's id, role and profile state from.
+ * Configured with {@code security.principal-source}.
+ */
+public enum PrincipalSource {
+    // look the user up through the snapshot cache / database
+    DATABASE,
+    // trust the signed claims of the token, no JDBC on the request path; disabling a user only takes effect at expiry
+    TOKEN
+}
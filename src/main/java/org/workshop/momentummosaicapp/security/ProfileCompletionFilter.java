@@ -5,48 +5,49 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.workshop.momentummosaicapp.user.AppUser;
-import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
 
 import java.io.IOException;
-@Component
+
+// registered inside the security chain by SecurityConfig, not as a servlet filter
 @RequiredArgsConstructor
 public class ProfileCompletionFilter extends OncePerRequestFilter {
 
-    private final AppUserRepository appUserRepository;
+    private final PrincipalResolver principalResolver;
 
     @Override
-    protected void doFilterInternal(
-            HttpServletRequest request,
-            HttpServletResponse response,
-            FilterChain filterChain
-    ) throws ServletException, IOException {
-
+    protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
 
         // ✅ ALWAYS allow these endpoints
-        if (path.startsWith("/swagger-ui")
+        return path.startsWith("/swagger-ui")
                 || path.startsWith("/v3/api-docs")
                 || path.equals("/swagger-ui.html")
+                || path.startsWith("/oauth2/")
+                || path.startsWith("/login/")
+                || path.equals("/error")
                 || path.equals("/api/auth/me")           // 🔴 REQUIRED
-                || path.startsWith("/api/profile/complete")) {
+                || path.equals("/api/auth/logout")
+                || path.startsWith("/api/profile/complete");
+    }
 
-            filterChain.doFilter(request, response);
-            return;
-        }
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
-        if (auth != null && auth.isAuthenticated()) {
-            String email = auth.getName();
-
-            AppUser user = appUserRepository.findByEmail(email).orElse(null);
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            UserSnapshot user = principalResolver.resolve(request, auth.getName()).orElse(null);
 
-            if (user != null && !user.isProfileCompleted()) {
+            if (user != null && !user.profileCompleted()) {
                 response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                 response.setContentType("application/json");
                 response.getWriter().write("""
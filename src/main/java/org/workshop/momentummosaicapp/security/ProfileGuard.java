@@ -1,12 +1,8 @@
 package org.workshop.momentummosaicapp.security;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
-import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserPrincipal;
-import org.workshop.momentummosaicapp.user.AppUserRepository;
 
 @Component
 public class ProfileGuard {
@@ -17,10 +13,32 @@ public class ProfileGuard {
 
         Object principal = authentication.getPrincipal();
 
+        if (principal instanceof CurrentUser user) {
+            return user.isProfileCompleted();
+        }
+
         if (!(principal instanceof AppUserPrincipal user)) {
             return false;
         }
 
         return user.isProfileCompleted();
     }
+
+    // for endpoints that take the user id from the path
+    public boolean isOwner(Authentication authentication, Long userId) {
+
+        if (authentication == null || userId == null) return false;
+
+        Object principal = authentication.getPrincipal();
+
+        if (principal instanceof CurrentUser user) {
+            return userId.equals(user.getUserId());
+        }
+
+        if (!(principal instanceof AppUserPrincipal user)) {
+            return false;
+        }
+
+        return userId.equals(user.getUserId());
+    }
 }
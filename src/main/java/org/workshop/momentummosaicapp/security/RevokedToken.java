@@ -0,0 +1,38 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Table(indexes = {
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    // the jti claim of the revoked JWT
+    @Id
+    @Column(length = 36)
+    private String tokenId;
+
+    // once the token itself has expired the entry is useless and gets purged
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @CreationTimestamp
+    private Instant revokedAt;
+}
@@ -1,18 +1,26 @@
 package org.workshop.momentummosaicapp.security;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.CsrfConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.workshop.momentummosaicapp.ratelimit.RateLimitFilter;
+import org.workshop.momentummosaicapp.ratelimit.RateLimiter;
 
 import java.util.List;
 
@@ -23,17 +31,31 @@ import java.util.List;
 public class SecurityConfig {
 
     private final OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
+    private final JwtService jwtService;
+    private final PrincipalResolver principalResolver;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenCookies tokenCookies;
+    private final CookieOAuth2AuthorizationRequestRepository cookieAuthorizationRequestRepository;
+    private final RateLimiter rateLimiter;
+
+    @Value("${security.principal-source:database}")
+    private PrincipalSource principalSource;
+
+    @Value("${security.session-mode:stateful}")
+    private SessionMode sessionMode;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 
         http
-                .csrf(csrf -> csrf.disable())
+                .csrf(this::configureCsrf)
                 .cors(Customizer.withDefaults())
 
-                // OAuth2 uses HTTP session
+                // OAuth2 uses HTTP session, unless running stateless
                 .sessionManagement(sm ->
-                        sm.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
+                        sm.sessionCreationPolicy(sessionMode == SessionMode.STATELESS
+                                ? SessionCreationPolicy.STATELESS
+                                : SessionCreationPolicy.IF_REQUIRED)
                 )
 
                 .authorizeHttpRequests(auth -> auth
@@ -55,13 +77,58 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
 
-                .oauth2Login(oauth ->
-                        oauth.successHandler(oAuth2LoginSuccessHandler)
+                .oauth2Login(oauth -> {
+                    oauth.successHandler(oAuth2LoginSuccessHandler);
+                    if (sessionMode == SessionMode.STATELESS) {
+                        // the in-flight authorization request rides in a signed cookie instead of the session
+                        oauth.authorizationEndpoint(endpoint ->
+                                endpoint.authorizationRequestRepository(cookieAuthorizationRequestRepository));
+                        oauth.authorizedClientRepository(new DiscardingAuthorizedClientRepository());
+                    }
+                })
+
+                // both share one PrincipalResolver, so the user is loaded at most once per request
+                .addFilterBefore(
+                        new JwtAuthenticationFilter(jwtService, principalResolver, principalSource, tokenRevocationService, tokenCookies),
+                        UsernamePasswordAuthenticationFilter.class
+                )
+                // throttles per authenticated user, before any controller work is done
+                .addFilterBefore(
+                        new RateLimitFilter(rateLimiter),
+                        AuthorizationFilter.class
+                )
+                .addFilterAfter(
+                        new ProfileCompletionFilter(principalResolver),
+                        AuthorizationFilter.class
                 );
 
+        if (sessionMode == SessionMode.STATELESS) {
+            http.requestCache(cache -> cache.requestCache(new NullRequestCache()));
+        }
+
         return http.build();
     }
 
+    /*
+     * In stateless mode the MM_TOKEN cookie rides along on cross-site requests, so writes without
+     * a bearer header must echo the XSRF-TOKEN cookie in X-XSRF-TOKEN. Stateful clients keep
+     * working as before, without a CSRF token.
+     */
+    private void configureCsrf(CsrfConfigurer<HttpSecurity> csrf) {
+        if (sessionMode == SessionMode.STATELESS) {
+            csrf.spa().requireCsrfProtectionMatcher(SecurityConfig::isCookieAuthenticatedWrite);
+        } else {
+            csrf.disable();
+        }
+    }
+
+    // a bearer header is never sent by the browser on its own, only cookies are
+    private static boolean isCookieAuthenticatedWrite(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        return CsrfFilter.DEFAULT_CSRF_MATCHER.matches(request)
+                && (authHeader == null || !authHeader.startsWith("Bearer "));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.security;
+
+/**
+ * How a browser login is remembered between requests. Configured with {@code security.session-mode}.
+ */
+public enum SessionMode {
+    // the SecurityContext lives in the HttpSession (needs sticky sessions or a shared store)
+    STATEFUL,
+    // login ends with a signed token cookie and no HttpSession is ever created
+    STATELESS
+}
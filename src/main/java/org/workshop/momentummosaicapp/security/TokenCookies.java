@@ -0,0 +1,74 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Reads and writes the HttpOnly cookie that carries the JWT for browser clients in stateless mode.
+ * SameSite=Lax keeps it off cross-site form posts; SecurityConfig also requires a CSRF token on
+ * writes it authenticates, since Lax still lets same-site subdomains send it.
+ */
+@Component
+public class TokenCookies {
+
+    public static final String TOKEN_COOKIE = "MM_TOKEN";
+
+    private final boolean secure;
+    private final Duration maxAge;
+
+    public TokenCookies(
+            @Value("${security.stateless.secure-cookie:false}") boolean secure,
+            @Value("${security.stateless.cookie-max-age:24h}") Duration maxAge
+    ) {
+        this.secure = secure;
+        this.maxAge = maxAge;
+    }
+
+    public Optional<String> read(HttpServletRequest request) {
+        return read(request, TOKEN_COOKIE);
+    }
+
+    public Optional<String> read(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return Optional.empty();
+        }
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName()) && !cookie.getValue().isBlank()) {
+                return Optional.of(cookie.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void write(HttpServletResponse response, String token) {
+        write(response, TOKEN_COOKIE, token, maxAge);
+    }
+
+    public void write(HttpServletResponse response, String name, String value, Duration maxAge) {
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(secure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build()
+                .toString());
+    }
+
+    public void clear(HttpServletResponse response) {
+        clear(response, TOKEN_COOKIE);
+    }
+
+    public void clear(HttpServletResponse response, String name) {
+        write(response, name, "", Duration.ZERO);
+    }
+}
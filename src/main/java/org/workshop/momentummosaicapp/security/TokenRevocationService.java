@@ -0,0 +1,104 @@
+package org.workshop.momentummosaicapp.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Denylist of revoked JWTs. The table is the source of truth; an in-memory Bloom filter in
+ * front of it answers the common "not revoked" case with a few hash probes, so only
+ * filter positives (real revocations and rare false positives) reach the database.
+ * Revocations of other instances are added by revoked_at every refresh; the filter is only
+ * rebuilt from the whole table on startup and after a purge.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    // revoked_at comes from the writing instance's clock and commits after it is taken
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter revoked;
+    // when the last read of the table started, null until the first rebuild
+    private Instant refreshedAt;
+
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${security.revocation.expected-insertions:100000}") long expectedInsertions,
+            @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revoked = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            // issued before tokens carried a jti, they can't be revoked individually
+            return false;
+        }
+        if (!revoked.mightContain(token.tokenId())) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(token.tokenId());
+    }
+
+    public synchronized void revoke(VerifiedToken token) {
+        if (token.tokenId() == null || token.isExpired(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(token.tokenId(), token.expiresAt(), null));
+        revoked.put(token.tokenId());
+    }
+
+    // synchronized with revoke() so a revocation can't slip in between the read and the swap
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Instant now = Instant.now();
+        List<String> active = revokedTokenRepository.findActiveTokenIds(now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, active.size() * 2L), falsePositiveRate);
+        active.forEach(rebuilt::put);
+        revoked = rebuilt;
+        refreshedAt = now;
+        log.debug("Token revocation filter rebuilt with {} active entries", active.size());
+    }
+
+    // picks up revocations written by other instances
+    @Scheduled(
+            initialDelayString = "${security.revocation.refresh-interval:PT1M}",
+            fixedDelayString = "${security.revocation.refresh-interval:PT1M}"
+    )
+    public synchronized void refresh() {
+        if (refreshedAt == null) {
+            rebuild();
+            return;
+        }
+        Instant now = Instant.now();
+        // putting an id twice is harmless, so the overlap only costs a few rows
+        List<String> added = revokedTokenRepository.findRevokedSince(refreshedAt.minus(REFRESH_OVERLAP), now);
+        added.forEach(revoked::put);
+        refreshedAt = now;
+    }
+
+    // Bloom filters can't forget, so the filter is rebuilt from what is left after the purge
+    @Scheduled(fixedDelayString = "${security.revocation.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+        rebuild();
+    }
+}
@@ -0,0 +1,38 @@
+package org.workshop.momentummosaicapp.security;
+
+import org.workshop.momentummosaicapp.user.Role;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked.
+ * Parsed once per token and shared for the rest of the request.
+ * tokenId, userId, role and profileCompleted are null for tokens issued before they were added as claims.
+ */
+public record VerifiedToken(
+        String tokenId,
+        String email,
+        String name,
+        Long userId,
+        Role role,
+        Boolean profileCompleted,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public boolean hasUserClaims() {
+        return userId != null && role != null && profileCompleted != null;
+    }
+
+    // tokens are only issued to enabled users; a user disabled later keeps access until the token expires
+    public UserSnapshot toSnapshot() {
+        return new UserSnapshot(userId, email, name, role, true, profileCompleted);
+    }
+}
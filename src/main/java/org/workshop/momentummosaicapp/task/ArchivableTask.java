@@ -0,0 +1,7 @@
+package org.workshop.momentummosaicapp.task;
+
+// a task TaskArchiver is about to move, see TaskRepository.findArchivable
+public interface ArchivableTask {
+    Number getId();
+    Number getUserId();
+}
@@ -0,0 +1,53 @@
+package org.workshop.momentummosaicapp.task;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.workshop.momentummosaicapp.user.AppUser;
+
+import java.time.Instant;
+
+// a completed task moved out of the task table by TaskArchiver; read-only, it keeps the task's id
+@Entity
+@Table(name = "task_archive", indexes = {
+        @Index(name = "idx_task_archive_user_completed_at", columnList = "user_id, completed_at, id"),
+        @Index(name = "idx_task_archive_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_task_archive_user_type_minutes", columnList = "user_id, task_type, duration_minutes")
+})
+@NoArgsConstructor
+@Setter
+@Getter
+public class ArchivedTask {
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private AppUser appUser;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskType taskType;
+
+    @Column(nullable = false)
+    private Integer durationMinutes;
+
+    @Column(nullable = false)
+    private Instant completedAt;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    // the task as it was before it was archived; not attached to any persistence context
+    public Task toTask() {
+        return new Task(id, appUser, title, taskType, durationMinutes, true, completedAt, createdAt, updatedAt, null, null);
+    }
+}
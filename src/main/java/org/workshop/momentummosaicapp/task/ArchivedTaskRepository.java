@@ -0,0 +1,73 @@
+package org.workshop.momentummosaicapp.task;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// the cold side of the completed-task reads in TaskRepository, same shapes and orderings
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    List<ArchivedTask> findByAppUserId(Long userId);
+
+    // deletes lock archived rows like TaskRepository.findByIdForUpdate, a second delete waits and finds nothing
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from ArchivedTask a where a.id = :id")
+    Optional<ArchivedTask> findByIdForUpdate(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from ArchivedTask a where a.id in :ids order by a.id")
+    List<ArchivedTask> findAllByIdForUpdate(Collection<Long> ids);
+
+    @Query("""
+            select a from ArchivedTask a
+             where a.appUser.id = :userId
+             order by a.completedAt desc, a.id desc
+            """)
+    List<ArchivedTask> findCompletedPage(Long userId, Limit limit);
+
+    @Query("""
+            select a from ArchivedTask a
+             where a.appUser.id = :userId
+               and (a.completedAt < :completedAt or (a.completedAt = :completedAt and a.id < :id))
+             order by a.completedAt desc, a.id desc
+            """)
+    List<ArchivedTask> findCompletedPageAfter(Long userId, Instant completedAt, Long id, Limit limit);
+
+    // from and to are optional bounds on completedAt, to is exclusive
+    @Query("""
+            select new org.workshop.momentummosaicapp.task.TaskTypeTotals(a.taskType, count(a), coalesce(sum(a.durationMinutes), 0L))
+              from ArchivedTask a
+             where a.appUser.id = :userId
+               and (:from is null or a.completedAt >= :from)
+               and (:to is null or a.completedAt < :to)
+             group by a.taskType
+             order by a.taskType
+            """)
+    List<TaskTypeTotals> sumByType(Long userId, Instant from, Instant to);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.task.TaskSearchRow(a.id, a.title, a.taskType, true)
+              from ArchivedTask a
+             where a.appUser.id = :userId
+             order by a.id
+            """)
+    List<TaskSearchRow> findSearchRows(Long userId);
+
+    // the rows TaskRepository.findArchivable locked, copied as they are
+    @Modifying
+    @Query(value = """
+            INSERT INTO task_archive (id, completed_at, created_at, duration_minutes, task_type, title, updated_at, archived_at, user_id)
+            SELECT t.id, t.completed_at, t.created_at, t.duration_minutes, t.task_type, t.title, t.updated_at, :archivedAt, t.user_id
+              FROM task t
+             WHERE t.id IN (:ids)
+            """, nativeQuery = true)
+    int copyFromTask(Collection<Long> ids, Instant archivedAt);
+}
@@ -0,0 +1,17 @@
+package org.workshop.momentummosaicapp.task;
+
+// outcome of one item of a bulk call; error is null when it succeeded
+public record BulkTaskResult(int index, Long taskId, Task task, String error) {
+
+    static BulkTaskResult succeeded(int index, Task task) {
+        return new BulkTaskResult(index, task.getId(), task, null);
+    }
+
+    static BulkTaskResult failed(int index, Long taskId, String error) {
+        return new BulkTaskResult(index, taskId, null, error);
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+}
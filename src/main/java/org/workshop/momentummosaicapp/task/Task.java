@@ -10,15 +10,29 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.workshop.momentummosaicapp.user.AppUser;
 import java.time.Instant;
+import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // keyset pages: active tasks by (createdAt, id), completed tasks by (completedAt, id)
+        @Index(name = "idx_task_user_completed_created", columnList = "user_id, completed, created_at, id"),
+        @Index(name = "idx_task_user_completed_completed_at", columnList = "user_id, completed, completed_at, id"),
+        // covers the per-type totals, so they never touch the table rows
+        @Index(name = "idx_task_user_completed_type_minutes", columnList = "user_id, completed, task_type, duration_minutes")
+}, uniqueConstraints = {
+        // one task per template and day, however often TaskTemplateMaterializer runs
+        @UniqueConstraint(name = "uk_task_template_day", columnNames = {"template_id", "scheduled_on"})
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Setter
 @Getter
 public class Task {
+    // ids are handed out from memory 50 at a time, so inserts can go out as JDBC batches (IDENTITY can't)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "task_ids")
+    @TableGenerator(name = "task_ids", table = "id_generator", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "task", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,4 +60,9 @@ public class Task {
 
     @UpdateTimestamp
     private Instant updatedAt;
+
+    // set on tasks created from a TaskTemplate: the template and the day the task is for
+    private Long templateId;
+
+    private LocalDate scheduledOn;
 }
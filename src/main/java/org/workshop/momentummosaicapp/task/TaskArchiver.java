@@ -0,0 +1,111 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves completed tasks older than {@code task-archive.older-than} from task to task_archive,
+ * walking the task ids in ranges of chunk-size, one short transaction each: lock the old rows
+ * of the range, copy them, delete them. A crash rolls back only the chunk in flight, and the
+ * next run starts again from the lowest id still in task, so there is no checkpoint to keep.
+ * Counters are not touched: user_task_stats and dashboard_projection count archived tasks too.
+ * Each chunk publishes one TasksArchivedEvent for the users it moved tasks of.
+ * Moved rows are counted as {@code task.archived}.
+ */
+@Slf4j
+@Component
+public class TaskArchiver {
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final boolean enabled;
+    private final Duration olderThan;
+    private final int chunkSize;
+
+    public TaskArchiver(
+            TaskRepository taskRepository,
+            ArchivedTaskRepository archivedTaskRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${task-archive.enabled:true}") boolean enabled,
+            @Value("${task-archive.older-than:P365D}") Duration olderThan,
+            @Value("${task-archive.chunk-size:500}") int chunkSize
+    ) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = meterRegistry.counter("task.archived");
+        this.enabled = enabled;
+        this.olderThan = olderThan;
+        this.chunkSize = chunkSize;
+    }
+
+    // returns the number of tasks moved
+    @Scheduled(
+            initialDelayString = "${task-archive.initial-delay:PT10M}",
+            fixedDelayString = "${task-archive.interval:PT24H}"
+    )
+    public long archiveAll() {
+        if (!enabled) {
+            return 0;
+        }
+        return archiveCompletedBefore(Instant.now().minus(olderThan));
+    }
+
+    long archiveCompletedBefore(Instant cutoff) {
+        Long minId = taskRepository.findMinId();
+        Long maxId = taskRepository.findMaxId();
+        if (minId == null) {
+            return 0;
+        }
+        long moved = 0;
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, maxId);
+            long chunkFrom = from;
+            Integer chunkMoved = transactionTemplate.execute(status -> archiveChunk(chunkFrom, to, cutoff));
+            moved += chunkMoved == null ? 0 : chunkMoved;
+        }
+        log.info("Archived {} tasks completed before {}", moved, cutoff);
+        return moved;
+    }
+
+    private int archiveChunk(long fromId, long toId, Instant cutoff) {
+        List<ArchivableTask> tasks = taskRepository.findArchivable(fromId, toId, cutoff);
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(tasks.size());
+        Map<Long, List<Long>> taskIdsByUser = new LinkedHashMap<>();
+        for (ArchivableTask task : tasks) {
+            ids.add(task.getId().longValue());
+            if (task.getUserId() != null) {
+                taskIdsByUser.computeIfAbsent(task.getUserId().longValue(), userId -> new ArrayList<>()).add(task.getId().longValue());
+            }
+        }
+        archivedTaskRepository.copyFromTask(ids, Instant.now());
+        taskRepository.deleteArchived(ids);
+        archived.increment(ids.size());
+        // listeners run after this chunk commits
+        eventPublisher.publishEvent(new TasksArchivedEvent(taskIdsByUser));
+        return ids.size();
+    }
+}
@@ -0,0 +1,15 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.util.List;
+
+/**
+ * Published by the bulk calls of TaskServiceImpl once per batch instead of one
+ * TaskChangedEvent per task, so the dashboard listeners write once for the whole batch.
+ * Every change belongs to userId.
+ */
+public record TaskBatchChangedEvent(Long userId, List<TaskChangedEvent> changes) {
+
+    public List<Long> taskIds() {
+        return changes.stream().map(TaskChangedEvent::taskId).distinct().toList();
+    }
+}
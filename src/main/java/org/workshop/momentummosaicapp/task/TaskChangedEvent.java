@@ -0,0 +1,39 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.time.Instant;
+
+/**
+ * Published by TaskServiceImpl after a task is written. Carries the task's state after the
+ * change (for DELETED, the state it had), so listeners don't need to read it back.
+ */
+public record TaskChangedEvent(
+        Kind kind,
+        Long userId,
+        Long taskId,
+        String title,
+        TaskType taskType,
+        Integer durationMinutes,
+        boolean completed,
+        Instant completedAt
+) {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        COMPLETED,
+        DELETED
+    }
+
+    static TaskChangedEvent of(Kind kind, Task task) {
+        return new TaskChangedEvent(
+                kind,
+                task.getAppUser().getId(),
+                task.getId(),
+                task.getTitle(),
+                task.getTaskType(),
+                task.getDurationMinutes(),
+                task.isCompleted(),
+                task.getCompletedAt()
+        );
+    }
+}
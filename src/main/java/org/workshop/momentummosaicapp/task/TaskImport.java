@@ -0,0 +1,13 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.time.Instant;
+
+// one task from an imported history; completedAt is required when completed is true
+public record TaskImport(
+        String title,
+        TaskType taskType,
+        Integer durationMinutes,
+        boolean completed,
+        Instant completedAt
+) {
+}
@@ -0,0 +1,7 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.util.List;
+
+// nextCursor is null on the last page
+public record TaskPage(List<Task> tasks, String nextCursor) {
+}
@@ -1,11 +1,127 @@
 package org.workshop.momentummosaicapp.task;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TaskRepository extends JpaRepository<Task,Long>{
 List<Task> findByAppUserIdAndCompletedFalse(Long userId);
 List<Task> findByAppUserIdAndCompletedTrue(Long userId);
 
+    /*
+     * Keyset pages. Each one seeks straight to its cursor in the matching Task index, so the
+     * last page costs the same as the first. Active tasks oldest first, completed tasks most
+     * recently completed first.
+     */
+    @Query("""
+            select t from Task t
+             where t.appUser.id = :userId and t.completed = false
+             order by t.createdAt, t.id
+            """)
+    List<Task> findActivePage(Long userId, Limit limit);
+
+    @Query("""
+            select t from Task t
+             where t.appUser.id = :userId and t.completed = false
+               and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))
+             order by t.createdAt, t.id
+            """)
+    List<Task> findActivePageAfter(Long userId, Instant createdAt, Long id, Limit limit);
+
+    @Query("""
+            select t from Task t
+             where t.appUser.id = :userId and t.completed = true
+             order by t.completedAt desc, t.id desc
+            """)
+    List<Task> findCompletedPage(Long userId, Limit limit);
+
+    @Query("""
+            select t from Task t
+             where t.appUser.id = :userId and t.completed = true
+               and (t.completedAt < :completedAt or (t.completedAt = :completedAt and t.id < :id))
+             order by t.completedAt desc, t.id desc
+            """)
+    List<Task> findCompletedPageAfter(Long userId, Instant completedAt, Long id, Limit limit);
+
+    // from and to are optional bounds on completedAt, to is exclusive
+    @Query("""
+            select new org.workshop.momentummosaicapp.task.TaskTypeTotals(t.taskType, count(t), coalesce(sum(t.durationMinutes), 0L))
+              from Task t
+             where t.appUser.id = :userId and t.completed = true
+               and (:from is null or t.completedAt >= :from)
+               and (:to is null or t.completedAt < :to)
+             group by t.taskType
+             order by t.taskType
+            """)
+    List<TaskTypeTotals> sumCompletedByType(Long userId, Instant from, Instant to);
+
+    /*
+     * Conditional writes: ownership and state are checked by the WHERE clause under the row
+     * lock, so two concurrent completions can't both succeed. They return the matched row
+     * count (Connector/J reports found rows, not changed rows); 0 means missing, someone
+     * else's, or already completed. @UpdateTimestamp doesn't fire for bulk updates, hence updatedAt.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Task t
+               set t.completed = true, t.completedAt = :at, t.updatedAt = :at
+             where t.id = :id and t.appUser.id = :userId and t.completed = false
+            """)
+    int completeIfActive(Long id, Long userId, Instant at);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Task t
+               set t.title = :title, t.taskType = :taskType, t.durationMinutes = :durationMinutes, t.updatedAt = :at
+             where t.id = :id and t.appUser.id = :userId and t.completed = false
+            """)
+    int updateIfActive(Long id, Long userId, String title, TaskType taskType, Integer durationMinutes, Instant at);
+
+    // SELECT ... FOR UPDATE, so the state a delete adjusts the counters by can't change under it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id = :id")
+    Optional<Task> findByIdForUpdate(Long id);
+
+    // the bulk calls' targets, locked the same way and in id order so two overlapping batches can't deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id in :ids order by t.id")
+    List<Task> findAllByIdForUpdate(Collection<Long> ids);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.task.TaskSearchRow(t.id, t.title, t.taskType, t.completed)
+              from Task t
+             where t.appUser.id = :userId
+             order by t.id
+            """)
+    List<TaskSearchRow> findSearchRows(Long userId);
+
+    @Query("select min(t.id) from Task t")
+    Long findMinId();
+
+    @Query("select max(t.id) from Task t")
+    Long findMaxId();
+
+    /*
+     * Archiving walks the primary key in ranges, so each chunk reads and locks at most that many
+     * rows whatever the table size. FOR UPDATE keeps a concurrent delete from removing a row
+     * between the copy and the delete.
+     */
+    @Query(value = """
+            SELECT t.id AS id, t.user_id AS userId FROM task t
+             WHERE t.id BETWEEN :fromId AND :toId AND t.completed = TRUE AND t.completed_at < :cutoff
+               FOR UPDATE
+            """, nativeQuery = true)
+    List<ArchivableTask> findArchivable(Long fromId, Long toId, Instant cutoff);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteArchived(Collection<Long> ids);
 }
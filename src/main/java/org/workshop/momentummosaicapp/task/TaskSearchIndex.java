@@ -0,0 +1,118 @@
+package org.workshop.momentummosaicapp.task;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.workshop.momentummosaicapp.importer.HistoryImportedEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-user TaskTitleIndex over live and archived tasks. A user's index is built from the
+ * database on their first search and dropped after task.search.idle-timeout without one, or
+ * when more than task.search.max-users are loaded. While loaded it follows task change events
+ * after they commit, so it never needs a rescan. Archiving and imports publish no per-task
+ * events, so they drop the indexes of the users they touched. Hit/miss counters are
+ * published as {@code cache.gets{cache=task_search}}.
+ */
+@Component
+public class TaskSearchIndex {
+
+    static final int MAX_TERMS = 8;
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final Cache<Long, TaskTitleIndex> indexes;
+
+    public TaskSearchIndex(
+            TaskRepository taskRepository,
+            ArchivedTaskRepository archivedTaskRepository,
+            MeterRegistry meterRegistry,
+            @Value("${task.search.max-users:10000}") long maxUsers,
+            @Value("${task.search.idle-timeout:30m}") Duration idleTimeout
+    ) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "task_search");
+    }
+
+    // ids of matching tasks, most recently created or retitled first; terms past MAX_TERMS are ignored
+    public List<Long> search(Long userId, String query, Boolean completed, TaskType taskType, int limit) {
+        List<String> terms = TaskTitleIndex.tokens(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        List<String> prefixes = terms.subList(0, Math.min(terms.size(), MAX_TERMS));
+        TaskTitleIndex index = indexes.get(userId, this::load);
+        synchronized (index) {
+            return index.search(prefixes, completed, taskType, limit);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        apply(event.userId(), List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatchChanged(TaskBatchChangedEvent event) {
+        apply(event.userId(), event.changes());
+    }
+
+    // the event has no titles; affected users with an index loaded rebuild it on their next search
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateTasksCreated(TemplateTasksCreatedEvent event) {
+        indexes.invalidateAll(event.taskIdsByUser().keySet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksArchived(TasksArchivedEvent event) {
+        indexes.invalidateAll(event.taskIdsByUser().keySet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHistoryImported(HistoryImportedEvent event) {
+        indexes.invalidate(event.userId());
+    }
+
+    /*
+     * computeIfPresent waits for a load of the same user that is still running, so a change
+     * that committed while the index was being read from the database is applied on top of it.
+     */
+    private void apply(Long userId, List<TaskChangedEvent> changes) {
+        indexes.asMap().computeIfPresent(userId, (id, index) -> {
+            synchronized (index) {
+                for (TaskChangedEvent change : changes) {
+                    if (change.kind() == TaskChangedEvent.Kind.DELETED) {
+                        index.remove(change.taskId());
+                    } else {
+                        index.put(change.taskId(), change.title(), change.taskType(), change.completed());
+                    }
+                }
+            }
+            return index;
+        });
+    }
+
+    // archived tasks are older, so they take the lower doc numbers
+    private TaskTitleIndex load(Long userId) {
+        TaskTitleIndex index = new TaskTitleIndex();
+        for (TaskSearchRow row : archivedTaskRepository.findSearchRows(userId)) {
+            index.put(row.id(), row.title(), row.taskType(), true);
+        }
+        for (TaskSearchRow row : taskRepository.findSearchRows(userId)) {
+            index.put(row.id(), row.title(), row.taskType(), row.completed());
+        }
+        return index;
+    }
+}
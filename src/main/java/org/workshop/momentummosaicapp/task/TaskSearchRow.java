@@ -0,0 +1,5 @@
+package org.workshop.momentummosaicapp.task;
+
+// what the title index keeps of a task
+public record TaskSearchRow(Long id, String title, TaskType taskType, Boolean completed) {
+}
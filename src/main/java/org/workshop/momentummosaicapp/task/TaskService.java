@@ -1,5 +1,8 @@
 package org.workshop.momentummosaicapp.task;
 
+import org.workshop.momentummosaicapp.task.dto.TaskRequest;
+
+import java.time.Instant;
 import java.util.List;
 
 public interface TaskService {
@@ -11,6 +14,19 @@ public interface TaskService {
     public Task completeTask(Long userId,Long taskId);
     public List<Task> getActiveTasks(Long userId);
     public List<Task> getCompletedTasks(Long userId);
+    // cursor is null for the first page, otherwise the nextCursor of the previous one
+    public TaskPage getActiveTasksPage(Long userId, String cursor, int limit);
+    public TaskPage getCompletedTasksPage(Long userId, String cursor, int limit);
+    // one row per task type with completed tasks; from and to may be null for an open range
+    public List<TaskTypeTotals> getCompletedTotals(Long userId, Instant from, Instant to);
+    // tasks whose title has a word starting with each term of query; completed and taskType may be null
+    public List<Task> searchTasks(Long userId, String query, Boolean completed, TaskType taskType, int limit);
+    // every item succeeds or fails on its own; the successful ones are written in one transaction
+    public List<BulkTaskResult> createTasks(Long userId, List<TaskRequest> requests);
+    public List<BulkTaskResult> completeTasks(Long userId, List<Long> taskIds);
+    public List<BulkTaskResult> deleteTasks(Long userId, List<Long> taskIds);
+    // like createTasks, but tasks may arrive completed and no task event is published; the importer sends one for the whole import
+    public List<BulkTaskResult> importTasks(Long userId, List<TaskImport> tasks);
 
 
 }
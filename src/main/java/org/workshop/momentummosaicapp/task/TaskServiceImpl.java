@@ -2,7 +2,12 @@ package org.workshop.momentummosaicapp.task;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.workshop.momentummosaicapp.task.dto.TaskRequest;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
 import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
@@ -10,16 +15,38 @@ import org.workshop.momentummosaicapp.utility.exception.ForbiddenException;
 import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService{
 
+    static final int MAX_PAGE_SIZE = 200;
+
     private final TaskRepository taskRepository;
     private final AppUserRepository appUserRepository;
+    private final UserTaskStatsRepository taskStatsRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${task.batch.max-items:500}")
+    private int maxBatchItems;
 
     @Override
+    @Transactional
     public Task createTask(String title, Long userId, TaskType taskType, Integer durationMinutes) {
        validateTaskDuration(taskType,durationMinutes);
         AppUser appUser = getUserOrThrow(userId);
@@ -29,37 +56,75 @@ public class TaskServiceImpl implements TaskService{
         task.setAppUser(appUser);
         task.setDurationMinutes(durationMinutes);
         task.setCompleted(false);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.CREATED, saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Task updateTask(Long userId, Long taskId, String title, TaskType taskType, Integer durationMinutes) {
-       Task task = getTaskOrThrow(taskId);
-       validateOwnership(userId,task);
-       if(task.isCompleted()) throw new IllegalArgumentException("Cannot update a completed task");
-       validateTaskDuration(taskType,durationMinutes);
-       task.setTitle(title);
-       task.setTaskType(taskType);
-       task.setDurationMinutes(durationMinutes);
-        return taskRepository.save(task);
+       try {
+           validateTaskDuration(taskType,durationMinutes);
+       } catch (BadRequestException ex) {
+           // a missing or someone else's task is reported as such, whatever the request holds
+           validateOwnership(userId,getTaskOrArchivedOrThrow(taskId));
+           throw ex;
+       }
+       if (taskRepository.updateIfActive(taskId, userId, title, taskType, durationMinutes, Instant.now()) == 0) {
+           // nothing matched, read the task only to report why
+           Task task = getTaskOrArchivedOrThrow(taskId);
+           validateOwnership(userId,task);
+           throw new IllegalArgumentException("Cannot update a completed task");
+       }
+        Task saved = getTaskOrThrow(taskId);
+        eventPublisher.publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.UPDATED, saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteTask(Long userId, Long taskId) {
-        Task task = getTaskOrThrow(taskId);
+        Optional<Task> live = taskRepository.findByIdForUpdate(taskId);
+        if (live.isEmpty()) {
+            deleteArchivedTask(userId, taskId);
+            return;
+        }
+        Task task = live.get();
         validateOwnership(userId,task);
         taskRepository.delete(task);
+        if (task.isCompleted()) {
+            taskStatsRepository.increment(userId, task.getTaskType().name(), -1, -task.getDurationMinutes());
+        }
+        eventPublisher.publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.DELETED, task));
+    }
+
+    // archived tasks are all completed, so deleting one always takes it off the counters
+    private void deleteArchivedTask(Long userId, Long taskId) {
+        ArchivedTask archived = archivedTaskRepository.findByIdForUpdate(taskId).orElseThrow(()-> new ResourceNotFoundException("task doesn't exist"));
+        Task task = archived.toTask();
+        validateOwnership(userId,task);
+        archivedTaskRepository.delete(archived);
+        taskStatsRepository.increment(userId, task.getTaskType().name(), -1, -task.getDurationMinutes());
+        eventPublisher.publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.DELETED, task));
     }
 
     @Override
+    @Transactional
     public Task completeTask(Long userId, Long taskId) {
-        AppUser appUser = getUserOrThrow(userId);
+        if (taskRepository.completeIfActive(taskId, userId, Instant.now()) == 0) {
+            // the same answers as before: 404 for a missing user or task, 403 for someone else's, else already completed
+            getUserOrThrow(userId);
+            Task task = getTaskOrArchivedOrThrow(taskId);
+            validateOwnership(userId,task);
+            return task;
+        }
+        // read back for the response and the event, the counters need its type and duration too
         Task task = getTaskOrThrow(taskId);
-        validateOwnership(userId,task);
-        if (task.isCompleted()) return task;
-        task.setCompleted(true);
-        task.setCompletedAt(Instant.now());
-        return taskRepository.save( task);
+        // same transaction as the task write, so the counters can't drift on rollback
+        taskStatsRepository.increment(userId, task.getTaskType().name(), 1, task.getDurationMinutes());
+        eventPublisher.publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.COMPLETED, task));
+        return task;
     }
 
     @Override
@@ -71,9 +136,335 @@ public class TaskServiceImpl implements TaskService{
     @Override
     public List<Task> getCompletedTasks(Long userId) {
         AppUser appUser = getUserOrThrow(userId);
-        return taskRepository.findByAppUserIdAndCompletedTrue(userId);
+        List<Task> tasks = new ArrayList<>(taskRepository.findByAppUserIdAndCompletedTrue(userId));
+        archivedTaskRepository.findByAppUserId(userId).forEach(archived -> tasks.add(archived.toTask()));
+        return tasks;
+    }
+
+    @Override
+    public TaskPage getActiveTasksPage(Long userId, String cursor, int limit) {
+        getUserOrThrow(userId);
+        // one row past the page tells us whether another page follows
+        Limit probe = Limit.of(validatePageSize(limit) + 1);
+        List<Task> tasks;
+        if (cursor == null) {
+            tasks = taskRepository.findActivePage(userId, probe);
+        } else {
+            TaskCursor after = TaskCursor.decode(cursor);
+            tasks = taskRepository.findActivePageAfter(userId, after.at(), after.id(), probe);
+        }
+        return toPage(tasks, limit, Task::getCreatedAt);
+    }
+
+    @Override
+    public TaskPage getCompletedTasksPage(Long userId, String cursor, int limit) {
+        getUserOrThrow(userId);
+        Limit probe = Limit.of(validatePageSize(limit) + 1);
+        List<Task> tasks;
+        List<ArchivedTask> archived;
+        if (cursor == null) {
+            tasks = taskRepository.findCompletedPage(userId, probe);
+            archived = archivedTaskRepository.findCompletedPage(userId, probe);
+        } else {
+            TaskCursor after = TaskCursor.decode(cursor);
+            tasks = taskRepository.findCompletedPageAfter(userId, after.at(), after.id(), probe);
+            archived = archivedTaskRepository.findCompletedPageAfter(userId, after.at(), after.id(), probe);
+        }
+        return toPage(mergeCompleted(tasks, archived, probe.max()), limit, Task::getCompletedAt);
+    }
+
+    @Override
+    public List<TaskTypeTotals> getCompletedTotals(Long userId, Instant from, Instant to) {
+        getUserOrThrow(userId);
+        if (from == null && to == null) {
+            // lifetime totals are kept as counters, no need to scan the tasks
+            return taskStatsRepository.findTotals(userId);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        return sumByType(taskRepository.sumCompletedByType(userId, from, to),
+                archivedTaskRepository.sumByType(userId, from, to));
+    }
+
+    // the index picks and orders the hits, the rows are read fresh; archived hits are read from the archive
+    @Override
+    public List<Task> searchTasks(Long userId, String query, Boolean completed, TaskType taskType, int limit) {
+        getUserOrThrow(userId);
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("A search query is required");
+        }
+        List<Long> ids = searchIndex.search(userId, query, completed, taskType, validatePageSize(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Task> found = new HashMap<>(loadTasks(ids));
+        if (found.size() < ids.size()) {
+            archivedTaskRepository.findAllById(ids.stream().filter(id -> !found.containsKey(id)).toList())
+                    .forEach(archived -> found.put(archived.getId(), archived.toTask()));
+        }
+        // a hit deleted since the index saw it is skipped
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /*
+     * The bulk calls read every task they touch with one query, and with pooled ids and
+     * hibernate.jdbc.batch_size the inserts and updates leave as JDBC batches. Complete and
+     * delete read their targets FOR UPDATE, like deleteTask, so the completed flag the counters
+     * are adjusted by can't change before the batch commits. Ids not in task are looked up in
+     * task_archive, as the reads do. Counters are incremented once per task type instead of once
+     * per task, and the dashboard listeners get one TaskBatchChangedEvent per batch.
+     */
+    @Override
+    @Transactional
+    public List<BulkTaskResult> createTasks(Long userId, List<TaskRequest> requests) {
+        validateBatchSize(requests);
+        AppUser appUser = getUserOrThrow(userId);
+        BulkTaskResult[] results = new BulkTaskResult[requests.size()];
+        Map<Integer, Task> created = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TaskRequest request = requests.get(i);
+            String error = request == null ? "Title is Required"
+                    : validateTaskFields(request.getTitle(), request.getTaskType(), request.getDurationMinutes());
+            if (error != null) {
+                results[i] = BulkTaskResult.failed(i, null, error);
+                continue;
+            }
+            Task task = new Task();
+            task.setTitle(request.getTitle());
+            task.setTaskType(request.getTaskType());
+            task.setAppUser(appUser);
+            task.setDurationMinutes(request.getDurationMinutes());
+            task.setCompleted(false);
+            created.put(i, task);
+        }
+        taskRepository.saveAll(created.values());
+        created.forEach((i, task) -> results[i] = BulkTaskResult.succeeded(i, task));
+        publishBatch(userId, TaskChangedEvent.Kind.CREATED, created.values());
+        return List.of(results);
+    }
+
+    @Override
+    @Transactional
+    public List<BulkTaskResult> completeTasks(Long userId, List<Long> taskIds) {
+        validateBatchSize(taskIds);
+        getUserOrThrow(userId);
+        Map<Long, Task> tasksById = new HashMap<>(lockTasks(taskIds));
+        // already completed, so they pass through like any completed task
+        archivedTaskRepository.findAllById(missingIds(taskIds, tasksById))
+                .forEach(archived -> tasksById.put(archived.getId(), archived.toTask()));
+        Instant now = Instant.now();
+        List<BulkTaskResult> results = new ArrayList<>();
+        List<Task> completed = new ArrayList<>();
+        for (int i = 0; i < taskIds.size(); i++) {
+            Long taskId = taskIds.get(i);
+            Task task = tasksById.get(taskId);
+            String error = checkBulkTarget(userId, taskId, task);
+            if (error != null) {
+                results.add(BulkTaskResult.failed(i, taskId, error));
+                continue;
+            }
+            // completing twice is not an error, same as completeTask
+            if (!task.isCompleted()) {
+                task.setCompleted(true);
+                task.setCompletedAt(now);
+                completed.add(task);
+            }
+            results.add(BulkTaskResult.succeeded(i, task));
+        }
+        incrementStats(userId, completed, 1);
+        publishBatch(userId, TaskChangedEvent.Kind.COMPLETED, completed);
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BulkTaskResult> deleteTasks(Long userId, List<Long> taskIds) {
+        validateBatchSize(taskIds);
+        getUserOrThrow(userId);
+        Map<Long, Task> tasksById = lockTasks(taskIds);
+        Map<Long, ArchivedTask> archivedById = lockArchivedTasks(missingIds(taskIds, tasksById));
+        List<BulkTaskResult> results = new ArrayList<>();
+        Map<Long, Task> deleted = new LinkedHashMap<>();
+        for (int i = 0; i < taskIds.size(); i++) {
+            Long taskId = taskIds.get(i);
+            ArchivedTask archived = archivedById.get(taskId);
+            Task task = archived != null ? archived.toTask() : tasksById.get(taskId);
+            String error = deleted.containsKey(taskId) ? null : checkBulkTarget(userId, taskId, task);
+            if (error != null) {
+                results.add(BulkTaskResult.failed(i, taskId, error));
+                continue;
+            }
+            deleted.put(taskId, task);
+            results.add(new BulkTaskResult(i, taskId, null, null));
+        }
+        // one DELETE ... WHERE id IN (...) per table for the whole batch
+        taskRepository.deleteAllInBatch(deleted.keySet().stream().filter(tasksById::containsKey).map(tasksById::get).toList());
+        archivedTaskRepository.deleteAllInBatch(deleted.keySet().stream().filter(archivedById::containsKey).map(archivedById::get).toList());
+        incrementStats(userId, deleted.values().stream().filter(Task::isCompleted).toList(), -1);
+        publishBatch(userId, TaskChangedEvent.Kind.DELETED, deleted.values());
+        return results;
+    }
+
+    /*
+     * One batch of an import, in one transaction; its size is set by the importer, not
+     * task.batch.max-items. Dashboard listeners get a single event for the whole import from the
+     * importer instead of one per task, and completed tasks are added to the counters once per type.
+     */
+    @Override
+    @Transactional
+    public List<BulkTaskResult> importTasks(Long userId, List<TaskImport> tasks) {
+        AppUser appUser = getUserOrThrow(userId);
+        BulkTaskResult[] results = new BulkTaskResult[tasks.size()];
+        Map<Integer, Task> created = new LinkedHashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskImport imported = tasks.get(i);
+            String error = validateTaskFields(imported.title(), imported.taskType(), imported.durationMinutes());
+            if (error == null && imported.completed() && imported.completedAt() == null) {
+                error = "completedAt is required for a completed task";
+            }
+            if (error != null) {
+                results[i] = BulkTaskResult.failed(i, null, error);
+                continue;
+            }
+            Task task = new Task();
+            task.setTitle(imported.title());
+            task.setTaskType(imported.taskType());
+            task.setAppUser(appUser);
+            task.setDurationMinutes(imported.durationMinutes());
+            task.setCompleted(imported.completed());
+            task.setCompletedAt(imported.completed() ? imported.completedAt() : null);
+            created.put(i, task);
+        }
+        taskRepository.saveAll(created.values());
+        incrementStats(userId, created.values().stream().filter(Task::isCompleted).toList(), 1);
+        created.forEach((i, task) -> results[i] = BulkTaskResult.succeeded(i, task));
+        return List.of(results);
+    }
+
+    private Map<Long, Task> loadTasks(List<Long> taskIds) {
+        return taskRepository.findAllById(taskIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private Map<Long, Task> lockTasks(List<Long> taskIds) {
+        List<Long> ids = taskIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return taskRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private Map<Long, ArchivedTask> lockArchivedTasks(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return archivedTaskRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(ArchivedTask::getId, Function.identity()));
+    }
+
+    // the distinct ids of a batch that aren't in the task table
+    private List<Long> missingIds(List<Long> taskIds, Map<Long, Task> found) {
+        return taskIds.stream().filter(id -> id != null && !found.containsKey(id)).distinct().toList();
+    }
+
+    private void publishBatch(Long userId, TaskChangedEvent.Kind kind, Collection<Task> tasks) {
+        if (!tasks.isEmpty()) {
+            eventPublisher.publishEvent(new TaskBatchChangedEvent(userId,
+                    tasks.stream().map(task -> TaskChangedEvent.of(kind, task)).toList()));
+        }
+    }
+
+        private String checkBulkTarget(Long userId, Long taskId, Task task) {
+        if (taskId == null || task == null) {
+            return "task doesn't exist";
+        }
+        if (!task.getAppUser().getId().equals(userId)) {
+            return "Task does not belong to this user";
+        }
+        return null;
+    }
+
+    private void incrementStats(Long userId, List<Task> tasks, int sign) {
+        Map<TaskType, long[]> byType = new EnumMap<>(TaskType.class);
+        for (Task task : tasks) {
+            long[] delta = byType.computeIfAbsent(task.getTaskType(), type -> new long[2]);
+            delta[0] += sign;
+            delta[1] += (long) sign * task.getDurationMinutes();
+        }
+        byType.forEach((type, delta) -> taskStatsRepository.increment(userId, type.name(), delta[0], delta[1]));
     }
-    private void validateTaskDuration(TaskType type, int durationMinutes){
+
+    // the same rules as TaskRequest's constraints and validateTaskDuration, reported per item
+    private String validateTaskFields(String title, TaskType taskType, Integer durationMinutes) {
+        if (title == null || title.isBlank()) {
+            return "Title is Required";
+        }
+        if (taskType == null) {
+            return "Task type is required";
+        }
+        if (durationMinutes == null) {
+            return "Duration must be greater than zero.";
+        }
+        try {
+            validateTaskDuration(taskType, durationMinutes);
+            return null;
+        } catch (BadRequestException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private void validateBatchSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > maxBatchItems) {
+            throw new BadRequestException("A batch must have between 1 and " + maxBatchItems + " items");
+        }
+    }
+
+    // both sides are already in page order, so the first probe rows of the two together are the page
+    private List<Task> mergeCompleted(List<Task> tasks, List<ArchivedTask> archived, int probe) {
+        if (archived.isEmpty()) {
+            return tasks;
+        }
+        List<Task> merged = new ArrayList<>(tasks);
+        archived.forEach(task -> merged.add(task.toTask()));
+        merged.sort(Comparator.comparing(Task::getCompletedAt).reversed()
+                .thenComparing(Task::getId, Comparator.reverseOrder()));
+        return merged.subList(0, Math.min(probe, merged.size()));
+    }
+
+    private List<TaskTypeTotals> sumByType(List<TaskTypeTotals> live, List<TaskTypeTotals> archived) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<TaskType, long[]> byType = new EnumMap<>(TaskType.class);
+        for (TaskTypeTotals totals : Stream.concat(live.stream(), archived.stream()).toList()) {
+            long[] sum = byType.computeIfAbsent(totals.taskType(), type -> new long[2]);
+            sum[0] += totals.taskCount();
+            sum[1] += totals.totalMinutes();
+        }
+        return byType.entrySet().stream()
+                .map(entry -> new TaskTypeTotals(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .toList();
+    }
+
+    private TaskPage toPage(List<Task> tasks, int limit, Function<Task, Instant> sortKey) {
+        if (tasks.size() <= limit) {
+            return new TaskPage(tasks, null);
+        }
+        List<Task> page = tasks.subList(0, limit);
+        Task last = page.get(limit - 1);
+        return new TaskPage(page, new TaskCursor(sortKey.apply(last), last.getId()).encode());
+    }
+
+    private int validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+    // also applied to templates by TaskTemplateServiceImpl
+    static void validateTaskDuration(TaskType type, int durationMinutes){
         if(durationMinutes<=0){
             throw new BadRequestException("Duration must be greater than zero.");
         }
@@ -87,6 +478,12 @@ public class TaskServiceImpl implements TaskService{
     private Task getTaskOrThrow(Long taskId){
         return taskRepository.findById(taskId).orElseThrow(()-> new ResourceNotFoundException("task doesn't exist"));
     }
+    // a task moved to task_archive is still there for the user, as a completed task
+    private Task getTaskOrArchivedOrThrow(Long taskId){
+        return taskRepository.findById(taskId)
+                .or(() -> archivedTaskRepository.findById(taskId).map(ArchivedTask::toTask))
+                .orElseThrow(()-> new ResourceNotFoundException("task doesn't exist"));
+    }
     private void validateOwnership(Long userId,Task task){
         if(!task.getAppUser().getId().equals(userId)){
             throw new ForbiddenException("Task does not belong to this user");
@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.task;
+
+// stored counters of one (user, task type) next to the values recomputed from the task table
+public interface TaskStatsMismatch {
+    Long getUserId();
+    String getTaskType();
+    Number getExpectedCount();
+    Number getExpectedMinutes();
+    Number getStoredCount();
+    Number getStoredMinutes();
+}
@@ -0,0 +1,73 @@
+package org.workshop.momentummosaicapp.task;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.workshop.momentummosaicapp.user.AppUser;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+// a task a user wants every day, or on some days of the week; TaskTemplateMaterializer creates the tasks
+@Entity
+@Table(name = "task_template", indexes = {
+        @Index(name = "idx_task_template_user", columnList = "user_id, id")
+})
+@NoArgsConstructor
+@Setter
+@Getter
+public class TaskTemplate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private AppUser appUser;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskType taskType;
+
+    @Column(nullable = false)
+    private Integer durationMinutes;
+
+    // bit 0 is Monday, bit 6 Sunday
+    @Column(nullable = false)
+    private int daysOfWeek;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+    public static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    public static int daysMask(Set<DayOfWeek> days) {
+        if (days == null || days.isEmpty()) {
+            return everyDay();
+        }
+        return days.stream().mapToInt(TaskTemplate::dayBit).reduce(0, (mask, bit) -> mask | bit);
+    }
+
+    public static int everyDay() {
+        return (1 << 7) - 1;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((daysOfWeek & dayBit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,172 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Creates each day's tasks from the task templates. Users are split into id ranges of
+ * partition-size, and up to parallelism ranges run at once, each on its own connection. A
+ * range is worked through in transactions of batch-size templates: read the due templates
+ * that have no task for the day yet, insert their tasks as JDBC batches (pooled ids), publish
+ * one TemplateTasksCreatedEvent. uk_task_template_day makes it idempotent: a rerun only fills
+ * in what is missing, and when two instances race for a range the loser's transaction fails
+ * on the key and rolls back. Created tasks are counted as {@code task.templates.materialized},
+ * runs are timed as {@code task.templates.run}, and a run longer than window is logged.
+ */
+@Slf4j
+@Component
+public class TaskTemplateMaterializer {
+
+    private final TaskTemplateRepository templateRepository;
+    private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter materialized;
+    private final Counter failedPartitions;
+    private final Timer runs;
+    private final boolean enabled;
+    private final int partitionSize;
+    private final int parallelism;
+    private final int batchSize;
+    private final Duration window;
+
+    public TaskTemplateMaterializer(
+            TaskTemplateRepository templateRepository,
+            TaskRepository taskRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${task-templates.enabled:true}") boolean enabled,
+            @Value("${task-templates.partition-size:10000}") int partitionSize,
+            @Value("${task-templates.parallelism:4}") int parallelism,
+            @Value("${task-templates.batch-size:500}") int batchSize,
+            @Value("${task-templates.window:PT30M}") Duration window
+    ) {
+        this.templateRepository = templateRepository;
+        this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.materialized = meterRegistry.counter("task.templates.materialized");
+        this.failedPartitions = meterRegistry.counter("task.templates.failed-partitions");
+        this.runs = meterRegistry.timer("task.templates.run");
+        this.enabled = enabled;
+        this.partitionSize = partitionSize;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.window = window;
+    }
+
+    // returns the number of tasks created
+    @Scheduled(cron = "${task-templates.cron:0 5 0 * * *}")
+    public long materializeToday() {
+        if (!enabled) {
+            return 0;
+        }
+        return materialize(LocalDate.now());
+    }
+
+    long materialize(LocalDate day) {
+        Long minUserId = templateRepository.findMinUserId();
+        Long maxUserId = templateRepository.findMaxUserId();
+        if (minUserId == null) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int dayBit = TaskTemplate.dayBit(day.getDayOfWeek());
+        List<Future<Long>> partitions = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (long from = minUserId; from <= maxUserId; from += partitionSize) {
+                long to = Math.min(from + partitionSize - 1, maxUserId);
+                long partitionFrom = from;
+                partitions.add(executor.submit(() -> materializePartition(partitionFrom, to, day, dayBit)));
+            }
+        }
+        long created = 0;
+        for (Future<Long> partition : partitions) {
+            created += join(partition);
+        }
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        runs.record(took);
+        if (took.compareTo(window) > 0) {
+            log.warn("Materializing the tasks of {} took {}, longer than the {} window", day, took, window);
+        }
+        log.info("Materialized {} tasks from templates for {} in {}", created, day, took);
+        return created;
+    }
+
+    private long materializePartition(long fromUserId, long toUserId, LocalDate day, int dayBit) {
+        long created = 0;
+        try {
+            int chunk;
+            do {
+                Integer inserted = transactionTemplate.execute(status -> materializeChunk(fromUserId, toUserId, day, dayBit));
+                chunk = inserted == null ? 0 : inserted;
+                materialized.increment(chunk);
+                created += chunk;
+            } while (chunk == batchSize);
+        } catch (DataAccessException | TransactionException ex) {
+            // left for the next run, which only creates what is still missing
+            failedPartitions.increment();
+            log.warn("Materializing templates of users {}-{} for {} failed", fromUserId, toUserId, day, ex);
+        }
+        return created;
+    }
+
+    private int materializeChunk(long fromUserId, long toUserId, LocalDate day, int dayBit) {
+        List<TaskTemplate> templates = templateRepository.findDueWithoutTask(fromUserId, toUserId, dayBit, day, batchSize);
+        if (templates.isEmpty()) {
+            return 0;
+        }
+        List<Task> tasks = new ArrayList<>(templates.size());
+        for (TaskTemplate template : templates) {
+            Task task = new Task();
+            task.setAppUser(template.getAppUser());
+            task.setTitle(template.getTitle());
+            task.setTaskType(template.getTaskType());
+            task.setDurationMinutes(template.getDurationMinutes());
+            task.setCompleted(false);
+            task.setTemplateId(template.getId());
+            task.setScheduledOn(day);
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+        Map<Long, List<Long>> taskIdsByUser = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            taskIdsByUser.computeIfAbsent(task.getAppUser().getId(), userId -> new ArrayList<>()).add(task.getId());
+        }
+        eventPublisher.publishEvent(new TemplateTasksCreatedEvent(day, taskIdsByUser));
+        return tasks.size();
+    }
+
+    private long join(Future<Long> partition) {
+        try {
+            return partition.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while materializing templates", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Materializing templates failed", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.workshop.momentummosaicapp.task;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TaskTemplateRepository extends JpaRepository<TaskTemplate, Long> {
+
+    List<TaskTemplate> findByAppUserIdOrderById(Long userId);
+
+    long countByAppUserId(Long userId);
+
+    @Query("select min(t.appUser.id) from TaskTemplate t")
+    Long findMinUserId();
+
+    @Query("select max(t.appUser.id) from TaskTemplate t")
+    Long findMaxUserId();
+
+    /*
+     * Templates of users in [fromUserId, toUserId] due on day that have no task for it yet,
+     * found through uk_task_template_day. A chunk that was inserted drops out of the next call,
+     * so the caller needs no cursor and a rerun starts where the last one stopped.
+     */
+    @Query(value = """
+            SELECT t.*
+              FROM task_template t
+             WHERE t.user_id BETWEEN :fromUserId AND :toUserId
+               AND (t.days_of_week & :dayBit) <> 0
+               AND NOT EXISTS (SELECT 1 FROM task k WHERE k.template_id = t.id AND k.scheduled_on = :day)
+             ORDER BY t.user_id, t.id
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<TaskTemplate> findDueWithoutTask(long fromUserId, long toUserId, int dayBit, LocalDate day, int limit);
+}
@@ -0,0 +1,14 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Set;
+
+public interface TaskTemplateService {
+
+    // no days means every day; the first task is created by the next materializer run
+    public TaskTemplate createTemplate(Long userId, String title, TaskType taskType, Integer durationMinutes, Set<DayOfWeek> days);
+    public List<TaskTemplate> getTemplates(Long userId);
+    // tasks already created from the template are kept
+    public void deleteTemplate(Long userId, Long templateId);
+}
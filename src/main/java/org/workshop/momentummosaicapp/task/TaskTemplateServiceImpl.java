@@ -0,0 +1,64 @@
+package org.workshop.momentummosaicapp.task;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
+import org.workshop.momentummosaicapp.utility.exception.ForbiddenException;
+import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class TaskTemplateServiceImpl implements TaskTemplateService {
+
+    private final TaskTemplateRepository templateRepository;
+    private final AppUserRepository appUserRepository;
+
+    @Value("${task-templates.max-per-user:50}")
+    private int maxPerUser;
+
+    @Override
+    @Transactional
+    public TaskTemplate createTemplate(Long userId, String title, TaskType taskType, Integer durationMinutes, Set<DayOfWeek> days) {
+        TaskServiceImpl.validateTaskDuration(taskType, durationMinutes);
+        AppUser appUser = getUserOrThrow(userId);
+        if (templateRepository.countByAppUserId(userId) >= maxPerUser) {
+            throw new BadRequestException("A user can have at most " + maxPerUser + " templates");
+        }
+        TaskTemplate template = new TaskTemplate();
+        template.setAppUser(appUser);
+        template.setTitle(title);
+        template.setTaskType(taskType);
+        template.setDurationMinutes(durationMinutes);
+        template.setDaysOfWeek(TaskTemplate.daysMask(days));
+        return templateRepository.save(template);
+    }
+
+    @Override
+    public List<TaskTemplate> getTemplates(Long userId) {
+        getUserOrThrow(userId);
+        return templateRepository.findByAppUserIdOrderById(userId);
+    }
+
+    @Override
+    @Transactional
+    public void deleteTemplate(Long userId, Long templateId) {
+        TaskTemplate template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new ResourceNotFoundException("template doesn't exist"));
+        if (!template.getAppUser().getId().equals(userId)) {
+            throw new ForbiddenException("Template does not belong to this user");
+        }
+        templateRepository.delete(template);
+    }
+
+    private AppUser getUserOrThrow(Long userId) {
+        return appUserRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
+    }
+}
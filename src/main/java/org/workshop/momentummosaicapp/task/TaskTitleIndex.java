@@ -0,0 +1,185 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index of one user's task titles. Each task is a doc number; a title token maps to
+ * the ascending int[] of docs containing it. The sorted term map makes a prefix one range of
+ * tokens. A retitled or deleted task leaves its old doc behind as a tombstone, and once those
+ * outnumber the live docs everything is renumbered from the stored titles. Not thread-safe on
+ * its own; TaskSearchIndex serializes access.
+ */
+final class TaskTitleIndex {
+
+    // low bits: TaskType ordinal
+    private static final int TYPE_MASK = 0x0f;
+    private static final int COMPLETED = 0x10;
+    private static final int DELETED = 0x20;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 64;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByTask = new HashMap<>();
+    private long[] taskIds = new long[16];
+    private String[] titles = new String[16];
+    private byte[] flags = new byte[16];
+    private int docCount;
+    private int tombstones;
+
+    void put(long taskId, String title, TaskType taskType, boolean completed) {
+        int state = taskType.ordinal() | (completed ? COMPLETED : 0);
+        Integer doc = docByTask.get(taskId);
+        if (doc != null && titles[doc].equals(title)) {
+            flags[doc] = (byte) state;
+            return;
+        }
+        if (doc != null) {
+            bury(doc);
+        }
+        add(taskId, title, state);
+        compactIfNeeded();
+    }
+
+    void remove(long taskId) {
+        Integer doc = docByTask.remove(taskId);
+        if (doc != null) {
+            bury(doc);
+            compactIfNeeded();
+        }
+    }
+
+    /*
+     * Tasks whose title has, for every term, a token starting with it. Newest docs first, which is
+     * the order tasks were created or last retitled in. completed and taskType are optional filters.
+     */
+    List<Long> search(List<String> prefixes, Boolean completed, TaskType taskType, int limit) {
+        BitSet hits = null;
+        for (String prefix : prefixes) {
+            BitSet matches = new BitSet(docCount);
+            for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                postings.addTo(matches);
+            }
+            if (hits == null) {
+                hits = matches;
+            } else {
+                hits.and(matches);
+            }
+            if (hits.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Long> found = new ArrayList<>();
+        if (hits == null) {
+            return found;
+        }
+        for (int doc = hits.previousSetBit(docCount - 1); doc >= 0 && found.size() < limit; doc = hits.previousSetBit(doc - 1)) {
+            int state = flags[doc];
+            if ((state & DELETED) != 0
+                    || (completed != null && completed != ((state & COMPLETED) != 0))
+                    || (taskType != null && taskType.ordinal() != (state & TYPE_MASK))) {
+                continue;
+            }
+            found.add(taskIds[doc]);
+        }
+        return found;
+    }
+
+    int size() {
+        return docByTask.size();
+    }
+
+    // lower-cased runs of letters and digits; queries are split the same way
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void add(long taskId, String title, int state) {
+        if (docCount == taskIds.length) {
+            int capacity = docCount * 2;
+            taskIds = Arrays.copyOf(taskIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        int doc = docCount++;
+        taskIds[doc] = taskId;
+        titles[doc] = title;
+        flags[doc] = (byte) state;
+        docByTask.put(taskId, doc);
+        String previous = null;
+        for (String token : tokens(title).stream().sorted().toList()) {
+            // a token repeated in one title is posted once
+            if (!token.equals(previous)) {
+                terms.computeIfAbsent(token, t -> new Postings()).add(doc);
+            }
+            previous = token;
+        }
+    }
+
+    private void bury(int doc) {
+        flags[doc] = (byte) DELETED;
+        titles[doc] = null;
+        tombstones++;
+    }
+
+    private void compactIfNeeded() {
+        if (tombstones < MIN_TOMBSTONES_TO_COMPACT || tombstones < docByTask.size()) {
+            return;
+        }
+        long[] oldTaskIds = taskIds;
+        String[] oldTitles = titles;
+        byte[] oldFlags = flags;
+        int oldCount = docCount;
+        terms.clear();
+        docByTask.clear();
+        taskIds = new long[Math.max(16, oldCount - tombstones)];
+        titles = new String[taskIds.length];
+        flags = new byte[taskIds.length];
+        docCount = 0;
+        tombstones = 0;
+        for (int doc = 0; doc < oldCount; doc++) {
+            if ((oldFlags[doc] & DELETED) == 0) {
+                add(oldTaskIds[doc], oldTitles[doc], oldFlags[doc]);
+            }
+        }
+    }
+
+    // docs in ascending order; new docs always get the highest number, so adding is an append
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+        }
+    }
+}
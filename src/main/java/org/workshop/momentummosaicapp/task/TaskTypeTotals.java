@@ -0,0 +1,5 @@
+package org.workshop.momentummosaicapp.task;
+
+// completed tasks of one type: how many and their summed duration
+public record TaskTypeTotals(TaskType taskType, Long taskCount, Long totalMinutes) {
+}
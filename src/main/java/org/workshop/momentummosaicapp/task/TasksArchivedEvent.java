@@ -0,0 +1,11 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by TaskArchiver once per chunk it moved to task_archive. The tasks are unchanged,
+ * only their table is; ids are grouped by user.
+ */
+public record TasksArchivedEvent(Map<Long, List<Long>> taskIdsByUser) {
+}
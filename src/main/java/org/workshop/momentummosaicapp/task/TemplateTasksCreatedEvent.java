@@ -0,0 +1,16 @@
+package org.workshop.momentummosaicapp.task;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by TaskTemplateMaterializer once per insert transaction instead of one
+ * TaskChangedEvent per task. The tasks are new and active; ids are grouped by user.
+ */
+public record TemplateTasksCreatedEvent(LocalDate day, Map<Long, List<Long>> taskIdsByUser) {
+
+    public List<Long> taskIds() {
+        return taskIdsByUser.values().stream().flatMap(List::stream).toList();
+    }
+}
@@ -0,0 +1,30 @@
+package org.workshop.momentummosaicapp.task;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lifetime completed count and minutes of one user and task type. Only ever changed through
+ * the atomic increments in UserTaskStatsRepository, in the same transaction as the task
+ * write, and checked against the task rows by UserTaskStatsVerifier.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Table(name = "user_task_stats")
+public class UserTaskStats {
+
+    @EmbeddedId
+    private UserTaskStatsId id;
+
+    @Column(nullable = false)
+    private long completedCount;
+
+    @Column(nullable = false)
+    private long completedMinutes;
+}
@@ -0,0 +1,73 @@
+package org.workshop.momentummosaicapp.task;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/*
+ * Counters change only by increments applied inside MySQL, so concurrent completions of one
+ * user never overwrite each other. The first completion of a type creates its row.
+ */
+public interface UserTaskStatsRepository extends JpaRepository<UserTaskStats, UserTaskStatsId> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_task_stats (user_id, task_type, completed_count, completed_minutes)
+            VALUES (:userId, :taskType, :countDelta, :minutesDelta) AS delta
+            ON DUPLICATE KEY UPDATE
+                   completed_count = user_task_stats.completed_count + delta.completed_count,
+                   completed_minutes = user_task_stats.completed_minutes + delta.completed_minutes
+            """, nativeQuery = true)
+    int increment(Long userId, String taskType, long countDelta, long minutesDelta);
+
+    @Query("""
+            select new org.workshop.momentummosaicapp.task.TaskTypeTotals(s.id.taskType, s.completedCount, s.completedMinutes)
+              from UserTaskStats s
+             where s.id.userId = :userId and s.completedCount > 0
+             order by s.id.taskType
+            """)
+    List<TaskTypeTotals> findTotals(Long userId);
+
+    /*
+     * Counters of users in [fromUserId, toUserId] that differ from the completed tasks, live and
+     * archived: first the (user, type) pairs that have completed tasks, then stored rows whose
+     * tasks are all gone.
+     */
+    @Query(value = """
+            SELECT src.user_id AS userId, src.task_type AS taskType,
+                   src.completed_count AS expectedCount, src.completed_minutes AS expectedMinutes,
+                   s.completed_count AS storedCount, s.completed_minutes AS storedMinutes
+              FROM (
+                    SELECT c.user_id, c.task_type, COUNT(*) AS completed_count, SUM(c.duration_minutes) AS completed_minutes
+                      FROM (
+                            SELECT t.user_id, t.task_type, t.duration_minutes
+                              FROM task t
+                             WHERE t.user_id BETWEEN :fromUserId AND :toUserId AND t.completed = TRUE
+                            UNION ALL
+                            SELECT a.user_id, a.task_type, a.duration_minutes
+                              FROM task_archive a
+                             WHERE a.user_id BETWEEN :fromUserId AND :toUserId
+                      ) c
+                     GROUP BY c.user_id, c.task_type
+              ) src
+              LEFT JOIN user_task_stats s ON s.user_id = src.user_id AND s.task_type = src.task_type
+             WHERE s.user_id IS NULL
+                OR s.completed_count <> src.completed_count
+                OR s.completed_minutes <> src.completed_minutes
+            UNION ALL
+            SELECT s.user_id, s.task_type, 0, 0, s.completed_count, s.completed_minutes
+              FROM user_task_stats s
+             WHERE s.user_id BETWEEN :fromUserId AND :toUserId
+               AND (s.completed_count <> 0 OR s.completed_minutes <> 0)
+               AND NOT EXISTS (SELECT 1 FROM task t
+                                WHERE t.user_id = s.user_id AND t.task_type = s.task_type AND t.completed = TRUE)
+               AND NOT EXISTS (SELECT 1 FROM task_archive a
+                                WHERE a.user_id = s.user_id AND a.task_type = s.task_type)
+            """, nativeQuery = true)
+    List<TaskStatsMismatch> findMismatches(Long fromUserId, Long toUserId);
+
+    @Query("select max(u.id) from AppUser u")
+    Long findMaxUserId();
+}
@@ -0,0 +1,75 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Compares user_task_stats with the completed tasks, live and archived, over all users in
+ * id-range chunks, one short transaction each. Mismatches are logged and counted as
+ * {@code task.stats.mismatches} but never rewritten: every replica runs this on its own
+ * schedule, so it only reads. The counters were filled by the V9 migration and are kept by
+ * the increments in the task writes.
+ */
+@Slf4j
+@Component
+public class UserTaskStatsVerifier {
+
+    private final UserTaskStatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter mismatches;
+    private final int chunkSize;
+
+    public UserTaskStatsVerifier(
+            UserTaskStatsRepository statsRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${task-stats.verifier.chunk-size:500}") int chunkSize
+    ) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.mismatches = meterRegistry.counter("task.stats.mismatches");
+        this.chunkSize = chunkSize;
+    }
+
+    // returns the number of mismatched counters found
+    @Scheduled(
+            initialDelayString = "${task-stats.verifier.initial-delay:PT5M}",
+            fixedDelayString = "${task-stats.verifier.interval:PT24H}"
+    )
+    public long verifyAll() {
+        Long maxUserId = statsRepository.findMaxUserId();
+        if (maxUserId == null) {
+            return 0;
+        }
+        long found = 0;
+        for (long from = 1; from <= maxUserId; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, maxUserId);
+            long chunkFrom = from;
+            Integer chunkMismatches = transactionTemplate.execute(status -> verifyChunk(chunkFrom, to));
+            found += chunkMismatches == null ? 0 : chunkMismatches;
+        }
+        log.info("Verified task stats up to user {}: {} mismatches", maxUserId, found);
+        return found;
+    }
+
+    private int verifyChunk(long fromUserId, long toUserId) {
+        List<TaskStatsMismatch> chunk = statsRepository.findMismatches(fromUserId, toUserId);
+        for (TaskStatsMismatch mismatch : chunk) {
+            log.warn("Task stats of user {} type {} are {}/{}min, tasks say {}/{}min",
+                    mismatch.getUserId(), mismatch.getTaskType(),
+                    mismatch.getStoredCount(), mismatch.getStoredMinutes(),
+                    mismatch.getExpectedCount(), mismatch.getExpectedMinutes());
+        }
+        mismatches.increment(chunk.size());
+        return chunk.size();
+    }
+}
@@ -0,0 +1,22 @@
+package org.workshop.momentummosaicapp.task.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkTaskItemResponse {
+    // position of the item in the request
+    private int index;
+    private Long taskId;
+    private boolean succeeded;
+    // the task after the change, not set for deletes and failures
+    private TaskResponse task;
+    private String error;
+}
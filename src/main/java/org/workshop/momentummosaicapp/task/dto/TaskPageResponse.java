@@ -0,0 +1,19 @@
+package org.workshop.momentummosaicapp.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskPageResponse {
+    private List<TaskResponse> tasks;
+
+    // pass back as ?cursor= for the next page, null on the last one
+    private String nextCursor;
+}
@@ -0,0 +1,34 @@
+package org.workshop.momentummosaicapp.task.dto;
+
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.workshop.momentummosaicapp.task.TaskType;
+
+import java.time.DayOfWeek;
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskTemplateRequest {
+
+    @NotBlank(message = "Title is Required")
+    private String title;
+
+    @NotNull(message = "Task type is required")
+    private TaskType taskType;
+
+    @NotNull(message = "Duration is required")
+    @Positive(message = "Duration must be positive")
+    private Integer durationMinutes;
+
+    // empty or missing for every day
+    private Set<DayOfWeek> days;
+}
@@ -0,0 +1,22 @@
+package org.workshop.momentummosaicapp.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.workshop.momentummosaicapp.task.TaskType;
+
+import java.time.DayOfWeek;
+import java.util.Set;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskTemplateResponse {
+    private Long id;
+    private String title;
+    private TaskType taskType;
+    private Integer durationMinutes;
+    private Set<DayOfWeek> days;
+}
@@ -5,29 +5,34 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class AppUserPrincipal implements OAuth2User {
 
-    private final AppUser user;
+    // a detached snapshot and a trimmed attribute map keep the per-session footprint small
+    private final UserSnapshot user;
     private final Map<String, Object> attributes;
 
     public AppUserPrincipal(AppUser user, Map<String, Object> attributes) {
-        this.user = user;
-        this.attributes = attributes;
+        this.user = UserSnapshot.of(user);
+        Map<String, Object> kept = new HashMap<>();
+        if (attributes.get("name") != null) kept.put("name", attributes.get("name"));
+        if (attributes.get("email") != null) kept.put("email", attributes.get("email"));
+        this.attributes = Map.copyOf(kept);
     }
 
     public Long getUserId() {
-        return user.getId();
+        return user.id();
     }
 
     public boolean isProfileCompleted() {
-        return user.isProfileCompleted();
+        return user.profileCompleted();
     }
 
     public String getEmail() {
-        return user.getEmail();
+        return user.email();
     }
 
     @Override
@@ -42,7 +47,6 @@ public class AppUserPrincipal implements OAuth2User {
 
     @Override
     public String getName() {
-        return user.getEmail();
+        return user.email();
     }
 }
-
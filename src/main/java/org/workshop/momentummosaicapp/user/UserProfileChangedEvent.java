@@ -0,0 +1,4 @@
+package org.workshop.momentummosaicapp.user;
+
+// published whenever height, weight, gender or profile completion of a user changes
+public record UserProfileChangedEvent(Long userId) {}
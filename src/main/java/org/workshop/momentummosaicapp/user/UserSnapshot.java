@@ -0,0 +1,27 @@
+package org.workshop.momentummosaicapp.user;
+
+import java.io.Serializable;
+
+/**
+ * Immutable, detached view of an {@link AppUser} that is safe to cache and share between threads.
+ */
+public record UserSnapshot(
+        Long id,
+        String email,
+        String name,
+        Role role,
+        boolean enabled,
+        boolean profileCompleted
+) implements Serializable {
+
+    public static UserSnapshot of(AppUser user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getName(),
+                user.getRole(),
+                user.isEnabled(),
+                user.isProfileCompleted()
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package org.workshop.momentummosaicapp.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded TTL cache of {@link UserSnapshot}s keyed by email, used by the security filters
+ * so an authenticated request doesn't have to read the user from the database.
+ * Hit/miss counters are published as {@code cache.gets{cache=userSnapshots}}.
+ */
+@Component
+public class UserSnapshotCache {
+
+    private final AppUserRepository appUserRepository;
+    private final Cache<String, UserSnapshot> snapshotsByEmail;
+    // userId -> email so callers that only know the id can invalidate
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+
+    public UserSnapshotCache(
+            AppUserRepository appUserRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl:5m}") Duration ttl
+    ) {
+        this.appUserRepository = appUserRepository;
+        this.snapshotsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((String email, UserSnapshot snapshot, RemovalCause cause) -> {
+                    if (snapshot != null) {
+                        emailsById.remove(snapshot.id(), email);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshotsByEmail, "userSnapshots");
+    }
+
+    public Optional<UserSnapshot> getByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        // unknown emails are not cached, so a user created later is found right away
+        UserSnapshot snapshot = snapshotsByEmail.get(email, key ->
+                appUserRepository.findByEmail(key)
+                        .map(UserSnapshot::of)
+                        .orElse(null)
+        );
+        if (snapshot != null) {
+            emailsById.put(snapshot.id(), snapshot.email());
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    public void evict(AppUser user) {
+        if (user.getEmail() != null) {
+            snapshotsByEmail.invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            evictById(user.getId());
+        }
+    }
+
+    public void evictById(Long userId) {
+        String email = emailsById.remove(userId);
+        if (email != null) {
+            snapshotsByEmail.invalidate(email);
+        }
+    }
+
+    public CacheStats stats() {
+        return snapshotsByEmail.stats();
+    }
+}
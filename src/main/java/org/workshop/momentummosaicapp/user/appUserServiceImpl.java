@@ -2,6 +2,7 @@ package org.workshop.momentummosaicapp.user;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -13,6 +14,8 @@ import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundExceptio
 public class appUserServiceImpl implements appUserService {
 
     private final AppUserRepository appUserRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public AppUser createUser(String name, Gender gender, Integer heightCm, Integer weightKg) {
@@ -41,7 +44,10 @@ public class appUserServiceImpl implements appUserService {
         if(weightKg <=0) throw new BadRequestException("weight must be Positive");
         appUser.setWeightKg(weightKg);
         appUser.setHeightCm(heightCm);
-        return appUserRepository.save(appUser);
+        AppUser saved = appUserRepository.save(appUser);
+        userSnapshotCache.evict(saved);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(saved.getId()));
+        return saved;
 
     }
     @Override
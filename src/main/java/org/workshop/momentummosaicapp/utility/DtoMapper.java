@@ -5,7 +5,9 @@ import org.springframework.stereotype.Component;
 import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
 import org.workshop.momentummosaicapp.fitness.dto.FitnessLogResponse;
 import org.workshop.momentummosaicapp.task.Task;
+import org.workshop.momentummosaicapp.task.TaskTemplate;
 import org.workshop.momentummosaicapp.task.dto.TaskResponse;
+import org.workshop.momentummosaicapp.task.dto.TaskTemplateResponse;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.dto.UserResponse;
 
@@ -21,6 +23,15 @@ public class DtoMapper {
         taskResponse.setCompletedAt(task.getCompletedAt());
         return taskResponse;
     }
+    public TaskTemplateResponse templateToTemplateResponse(TaskTemplate template){
+        TaskTemplateResponse templateResponse = new TaskTemplateResponse();
+        templateResponse.setId(template.getId());
+        templateResponse.setTitle(template.getTitle());
+        templateResponse.setTaskType(template.getTaskType());
+        templateResponse.setDurationMinutes(template.getDurationMinutes());
+        templateResponse.setDays(template.getDays());
+        return templateResponse;
+    }
     public UserResponse userToUserResponse(AppUser appUser){
         UserResponse userResponse = new UserResponse();
         userResponse.setGender(appUser.getGender());
@@ -0,0 +1,12 @@
+package org.workshop.momentummosaicapp.utility.exception;
+
+
+public class ServiceUnavailableException extends RuntimeException{
+    public ServiceUnavailableException(){super();}
+    public ServiceUnavailableException(String message){
+        super(message);
+    }
+    public ServiceUnavailableException(String message,Throwable cause){
+        super(message,cause);
+    }
+}
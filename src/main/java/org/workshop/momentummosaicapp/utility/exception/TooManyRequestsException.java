@@ -0,0 +1,12 @@
+package org.workshop.momentummosaicapp.utility.exception;
+
+
+public class TooManyRequestsException extends RuntimeException{
+    public TooManyRequestsException(){super();}
+    public TooManyRequestsException(String message){
+        super(message);
+    }
+    public TooManyRequestsException(String message,Throwable cause){
+        super(message,cause);
+    }
+}
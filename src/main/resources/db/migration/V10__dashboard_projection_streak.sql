@@ -0,0 +1,5 @@
+-- The projected dashboard reads the streak from workout_streak (V7), which FitnessServiceImpl
+-- keeps correct for back-dated imports as well; the copy kept here only handled the newest day.
+ALTER TABLE dashboard_projection
+    DROP COLUMN workout_streak,
+    DROP COLUMN streak_end_date;
@@ -0,0 +1,4 @@
+-- A bulk task call bumps the version once and records every task it changed at that version.
+ALTER TABLE dashboard_task_change
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (user_id, version, task_id);
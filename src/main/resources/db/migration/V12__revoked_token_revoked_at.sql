@@ -0,0 +1,2 @@
+-- TokenRevocationService refreshes by revoked_at instead of re-reading the whole table.
+CREATE INDEX idx_revoked_token_revoked_at ON revoked_token (revoked_at);
@@ -0,0 +1,5 @@
+-- The task pages seek on (user_id, completed, created_at / completed_at, id) instead of
+-- OFFSET, and the per-type totals are read from the index without touching the rows.
+CREATE INDEX idx_task_user_completed_created ON task (user_id, completed, created_at, id);
+CREATE INDEX idx_task_user_completed_completed_at ON task (user_id, completed, completed_at, id);
+CREATE INDEX idx_task_user_completed_type_minutes ON task (user_id, completed, task_type, duration_minutes);
@@ -0,0 +1,8 @@
+-- JWT ids revoked before they expire. Rows are purged once the token would have expired anyway.
+CREATE TABLE revoked_token (
+    token_id   varchar(36) NOT NULL,
+    expires_at datetime(6) NOT NULL,
+    revoked_at datetime(6),
+    PRIMARY KEY (token_id),
+    INDEX idx_revoked_token_expires_at (expires_at)
+) ENGINE = InnoDB;
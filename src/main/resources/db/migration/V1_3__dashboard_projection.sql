@@ -0,0 +1,14 @@
+-- Denormalized dashboard totals per user, kept by DashboardProjector and rebuilt by
+-- DashboardProjectionReconciler; users without a row get one on their next read.
+CREATE TABLE dashboard_projection (
+    user_id            bigint  NOT NULL,
+    active_count       integer NOT NULL,
+    completed_count    integer NOT NULL,
+    deep_minutes       integer NOT NULL,
+    shallow_minutes    integer NOT NULL,
+    fitness_minutes    integer NOT NULL,
+    total_workout_days integer NOT NULL,
+    workout_streak     integer NOT NULL,
+    streak_end_date    date,
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
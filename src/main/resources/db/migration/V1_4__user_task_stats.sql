@@ -0,0 +1,9 @@
+-- Completed task counts and minutes per user and type, incremented by the task writes so the
+-- totals are one primary-key range read. Filled from the existing tasks by V9.
+CREATE TABLE user_task_stats (
+    user_id           bigint NOT NULL,
+    task_type         enum ('DEEP','SHALLOW','FITNESS','OTHER') NOT NULL,
+    completed_count   bigint NOT NULL,
+    completed_minutes bigint NOT NULL,
+    PRIMARY KEY (user_id, task_type)
+) ENGINE = InnoDB;
@@ -0,0 +1,44 @@
+-- Schema as Hibernate ddl-auto=update left it before the migrations took over: users, tasks
+-- and fitness logs only. Existing databases are baselined at this version and skip it; new
+-- databases start here. Everything added since lives in the later migrations.
+
+CREATE TABLE app_user (
+    id                bigint       NOT NULL AUTO_INCREMENT,
+    created_at        datetime(6),
+    email             varchar(255) NOT NULL,
+    enabled           bit          NOT NULL,
+    gender            enum ('MALE','FEMALE'),
+    height_cm         integer,
+    name              varchar(255),
+    password_hash     varchar(255),
+    profile_completed bit          NOT NULL,
+    role              enum ('USER') NOT NULL,
+    weight_kg         integer,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_app_user_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE task (
+    id               bigint       NOT NULL AUTO_INCREMENT,
+    completed        bit          NOT NULL,
+    completed_at     datetime(6),
+    created_at       datetime(6),
+    duration_minutes integer      NOT NULL,
+    task_type        enum ('DEEP','SHALLOW','FITNESS','OTHER') NOT NULL,
+    title            varchar(255) NOT NULL,
+    updated_at       datetime(6),
+    user_id          bigint,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_task_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE daily_fitness_log (
+    id          bigint NOT NULL AUTO_INCREMENT,
+    created_at  datetime(6),
+    date        date   NOT NULL,
+    did_workout bit    NOT NULL,
+    user_id     bigint,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_daily_fitness_log_user_date UNIQUE (user_id, date),
+    CONSTRAINT fk_daily_fitness_log_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- Workout days are always read as "did_workout = TRUE up to a date" per user. With the flag
+-- ahead of the date, the streak and total-days queries are one ordered range scan of this
+-- index and never read the table rows.
+CREATE INDEX idx_fitness_user_workout_date ON daily_fitness_log (user_id, did_workout, date);
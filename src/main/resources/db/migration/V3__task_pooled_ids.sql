@@ -0,0 +1,11 @@
+-- Task ids come from this table in blocks of 50 (Hibernate's pooled optimizer) so that task
+-- inserts can be batched. The stored value is the top of the next block, so the first block
+-- starts past every id AUTO_INCREMENT has handed out.
+CREATE TABLE id_generator (
+    name     varchar(255) NOT NULL,
+    next_val bigint,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_generator (name, next_val)
+SELECT 'task', COALESCE(MAX(id), 0) + 51 FROM task;
@@ -0,0 +1,4 @@
+-- Daily fitness log ids come from id_generator like task ids, so imported logs can be
+-- inserted in JDBC batches. The first block starts past every id AUTO_INCREMENT has handed out.
+INSERT INTO id_generator (name, next_val)
+SELECT 'daily_fitness_log', COALESCE(MAX(id), 0) + 51 FROM daily_fitness_log;
@@ -0,0 +1,19 @@
+-- Completed tasks older than task-archive.older-than are moved here by TaskArchiver, so the
+-- task table and its indexes only hold what the hot path reads. Rows keep their task id.
+-- Every archived task is completed, so there is no completed column.
+CREATE TABLE task_archive (
+    id               bigint       NOT NULL,
+    completed_at     datetime(6)  NOT NULL,
+    created_at       datetime(6),
+    duration_minutes integer      NOT NULL,
+    task_type        enum ('DEEP','SHALLOW','FITNESS','OTHER') NOT NULL,
+    title            varchar(255) NOT NULL,
+    updated_at       datetime(6),
+    archived_at      datetime(6)  NOT NULL,
+    user_id          bigint,
+    PRIMARY KEY (id),
+    INDEX idx_task_archive_user_completed_at (user_id, completed_at, id),
+    INDEX idx_task_archive_user_created (user_id, created_at, id),
+    INDEX idx_task_archive_user_type_minutes (user_id, task_type, duration_minutes),
+    CONSTRAINT fk_task_archive_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,22 @@
+-- Recurring tasks. TaskTemplateMaterializer creates each day's task from every template due
+-- that day and records where it came from on the task. The unique key allows one task per
+-- template and day, so a rerun, or two instances running at once, can't create duplicates.
+-- Tasks without a template have NULLs there, which the key doesn't compare.
+CREATE TABLE task_template (
+    id               bigint       NOT NULL AUTO_INCREMENT,
+    created_at       datetime(6),
+    days_of_week     integer      NOT NULL,
+    duration_minutes integer      NOT NULL,
+    task_type        enum ('DEEP','SHALLOW','FITNESS','OTHER') NOT NULL,
+    title            varchar(255) NOT NULL,
+    user_id          bigint       NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_task_template_user (user_id, id),
+    CONSTRAINT fk_task_template_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
+
+ALTER TABLE task
+    ADD COLUMN template_id  bigint,
+    ADD COLUMN scheduled_on date,
+    ADD CONSTRAINT uk_task_template_day UNIQUE (template_id, scheduled_on),
+    ADD CONSTRAINT fk_task_template FOREIGN KEY (template_id) REFERENCES task_template (id) ON DELETE SET NULL;
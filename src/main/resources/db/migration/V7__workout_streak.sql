@@ -0,0 +1,32 @@
+-- Streak state per user, kept by FitnessServiceImpl as workouts are logged, so reading a
+-- streak is a primary-key lookup instead of a walk over every log. current_streak is the run
+-- of workout days ending at last_workout_date; whether that run still reaches today is decided
+-- when it is read. Filled here from the existing logs: consecutive workout days share
+-- date - (row number) days, which groups each run.
+CREATE TABLE workout_streak (
+    user_id           bigint  NOT NULL,
+    current_streak    integer NOT NULL,
+    longest_streak    integer NOT NULL,
+    last_workout_date date,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_workout_streak_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
+
+INSERT INTO workout_streak (user_id, current_streak, longest_streak, last_workout_date)
+WITH workout_days AS (
+    SELECT f.user_id, f.date, ROW_NUMBER() OVER (PARTITION BY f.user_id ORDER BY f.date) AS rn
+      FROM daily_fitness_log f
+     WHERE f.did_workout = TRUE
+), runs AS (
+    SELECT user_id, MAX(date) AS run_end, COUNT(*) AS run_length
+      FROM workout_days
+     GROUP BY user_id, DATE_SUB(date, INTERVAL rn DAY)
+), ranked AS (
+    SELECT user_id, run_end, run_length,
+           ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY run_end DESC) AS newest,
+           MAX(run_length) OVER (PARTITION BY user_id) AS longest
+      FROM runs
+)
+SELECT user_id, run_length, longest, run_end
+  FROM ranked
+ WHERE newest = 1;
@@ -0,0 +1,24 @@
+-- Dashboard version counters, bumped by DashboardVersions in the transaction of each task,
+-- workout and profile write, so every replica answers ETags and ?since deltas from the same
+-- numbers. Versions count up per user; a section's column holds the version of its last
+-- change. A user without a row is at version 0.
+CREATE TABLE dashboard_version (
+    user_id            bigint NOT NULL,
+    version            bigint NOT NULL,
+    user_version       bigint NOT NULL,
+    task_version       bigint NOT NULL,
+    fitness_version    bigint NOT NULL,
+    -- every task change after this version is still in dashboard_task_change
+    task_changes_after bigint NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_dashboard_version_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
+
+-- the task ids behind the recent task versions, trimmed to dashboard.versions.task-changes
+CREATE TABLE dashboard_task_change (
+    user_id bigint NOT NULL,
+    version bigint NOT NULL,
+    task_id bigint NOT NULL,
+    PRIMARY KEY (user_id, version),
+    CONSTRAINT fk_dashboard_task_change_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+) ENGINE = InnoDB;
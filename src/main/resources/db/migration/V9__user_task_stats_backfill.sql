@@ -0,0 +1,16 @@
+-- user_task_stats only counted completions made after it was added. Fill it from the completed
+-- tasks, live and archived, so the counters are lifetime totals from here on; the increments in
+-- the task writes keep them there. Rows whose tasks are all gone are dropped first.
+DELETE FROM user_task_stats;
+
+INSERT INTO user_task_stats (user_id, task_type, completed_count, completed_minutes)
+SELECT c.user_id, c.task_type, COUNT(*), SUM(c.duration_minutes)
+  FROM (
+        SELECT t.user_id, t.task_type, t.duration_minutes
+          FROM task t
+         WHERE t.completed = TRUE
+        UNION ALL
+        SELECT a.user_id, a.task_type, a.duration_minutes
+          FROM task_archive a
+  ) c
+ GROUP BY c.user_id, c.task_type;
@@ -0,0 +1,79 @@
+package org.workshop.momentummosaicapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts from a database the old ddl-auto=update code created (only the V1 tables, no schema
+ * history), as docker deployments have it: Flyway baselines it at V1 and applies the rest, and
+ * the context only comes up if Hibernate validates the result.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "spring.security.oauth2.client.registration.google.client-id=test-client",
+        "spring.security.oauth2.client.registration.google.client-secret=test-secret"
+})
+@Testcontainers
+class BaselineMigrationTest {
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test")
+                    .withInitScript("db/migration/V1__baseline.sql");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldBaselineAtV1AndApplyEverythingAfterIt() {
+        List<String> baselined = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class);
+        assertEquals(List.of("1"), baselined);
+
+        List<String> applied = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE type = 'SQL' AND success = TRUE ORDER BY installed_rank", String.class);
+        assertEquals("1.1", applied.getFirst());
+        assertFalse(applied.contains("1"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE success = FALSE", Integer.class));
+    }
+
+    @Test
+    void shouldCreateTheTablesAndIndexesAddedAfterTheBaseline() {
+        for (String table : List.of("revoked_token", "dashboard_projection", "user_task_stats", "workout_streak", "dashboard_version")) {
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                    Integer.class, table), table);
+        }
+        List<String> taskIndexes = jdbcTemplate.queryForList("""
+                SELECT DISTINCT index_name FROM information_schema.statistics
+                 WHERE table_schema = DATABASE() AND table_name = 'task'
+                """, String.class);
+        assertTrue(taskIndexes.containsAll(List.of(
+                "idx_task_user_completed_created",
+                "idx_task_user_completed_completed_at",
+                "idx_task_user_completed_type_minutes")), taskIndexes.toString());
+    }
+}
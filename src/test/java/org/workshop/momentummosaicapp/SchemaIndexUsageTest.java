@@ -0,0 +1,216 @@
+package org.workshop.momentummosaicapp;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.dashboard.DashboardReadRepository;
+import org.workshop.momentummosaicapp.security.RevokedTokenRepository;
+import org.workshop.momentummosaicapp.task.TaskRepository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots against a schema built only by the migrations (Hibernate validates it), then checks
+ * with EXPLAIN that the hot repository queries are served by their indexes. Each test calls the
+ * repository method and explains the statement Hibernate actually sent, recorded by a
+ * StatementInspector.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.security.oauth2.client.registration.google.client-id=test-client",
+        "spring.security.oauth2.client.registration.google.client-secret=test-secret"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Testcontainers
+class SchemaIndexUsageTest {
+
+    static final int USERS = 20;
+    static final int TASKS_PER_USER = 200;
+    static final int DAYS_PER_USER = 120;
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    DashboardReadRepository dashboardReadRepository;
+    @Autowired
+    RevokedTokenRepository revokedTokenRepository;
+    @Autowired
+    StatementRecorder statementRecorder;
+
+    // enough rows per user that the optimizer's choice reflects the indexes, not table size
+    @BeforeAll
+    void seed() {
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.now();
+        for (int u = 1; u <= USERS; u++) {
+            jdbcTemplate.update("INSERT INTO app_user (id, email, enabled, role, profile_completed) VALUES (?, ?, TRUE, 'USER', TRUE)",
+                    u, "user" + u + "@example.com");
+            List<Object[]> tasks = new ArrayList<>();
+            List<Object[]> days = new ArrayList<>();
+            for (int i = 0; i < TASKS_PER_USER; i++) {
+                boolean completed = i % 3 != 0;
+                tasks.add(new Object[]{u, "task " + i, List.of("DEEP", "SHALLOW", "FITNESS", "OTHER").get(i % 4), 120,
+                        completed, completed ? Timestamp.from(now.minusSeconds(i)) : null, Timestamp.from(now.minusSeconds(i))});
+            }
+            for (int d = 0; d < DAYS_PER_USER; d++) {
+                days.add(new Object[]{u, today.minusDays(d), d % 5 != 0});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO task (user_id, title, task_type, duration_minutes, completed, completed_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", tasks);
+            jdbcTemplate.batchUpdate("INSERT INTO daily_fitness_log (user_id, date, did_workout) VALUES (?, ?, ?)", days);
+        }
+        List<Object[]> tokens = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // a handful already expired, the rest still live; revoked over the last few hours
+            tokens.add(new Object[]{"token-" + i, Timestamp.from(i < 10 ? now.minusSeconds(60) : now.plusSeconds(3600 + i)),
+                    Timestamp.from(now.minusSeconds(30L * (500 - i)))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO revoked_token (token_id, expires_at, revoked_at) VALUES (?, ?, ?)", tokens);
+        jdbcTemplate.execute("ANALYZE TABLE task, daily_fitness_log, revoked_token");
+    }
+
+    @Test
+    void completedPageShouldSeekTheCompletedAtIndex() {
+        Timestamp now = Timestamp.from(Instant.now());
+        Map<String, Object> plan = onlyRow(explain(
+                () -> taskRepository.findCompletedPageAfter(3L, now.toInstant(), 1_000_000L, Limit.of(51)),
+                3L, now, now, 1_000_000L, 51));
+
+        assertEquals("idx_task_user_completed_completed_at", plan.get("key"));
+        assertNoFilesort(plan);
+    }
+
+    @Test
+    void activePageShouldSeekTheCreatedAtIndex() {
+        Timestamp since = Timestamp.from(Instant.parse("2000-01-01T00:00:00Z"));
+        Map<String, Object> plan = onlyRow(explain(
+                () -> taskRepository.findActivePageAfter(3L, since.toInstant(), 0L, Limit.of(51)),
+                3L, since, since, 0L, 51));
+
+        assertEquals("idx_task_user_completed_created", plan.get("key"));
+        assertNoFilesort(plan);
+    }
+
+    @Test
+    void totalsByTypeShouldBeIndexOnly() {
+        // without a range, the from/to bounds are null
+        Map<String, Object> plan = onlyRow(explain(
+                () -> taskRepository.sumCompletedByType(3L, null, null),
+                3L, null, null, null, null));
+
+        assertEquals("idx_task_user_completed_type_minutes", plan.get("key"));
+        assertTrue(String.valueOf(plan.get("Extra")).contains("Using index"), String.valueOf(plan.get("Extra")));
+    }
+
+    @Test
+    void workoutDaysShouldBeIndexOnlyRangeScan() {
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> plan = explain(
+                () -> dashboardReadRepository.findFitnessTotals(3L, today),
+                3L, 3L, today, 3L, today, today);
+
+        // the total and the workout_days derived table both scan the workout index without rows
+        assertTrue(plan.stream().anyMatch(row -> "idx_fitness_user_workout_date".equals(row.get("key"))
+                && String.valueOf(row.get("Extra")).contains("Using index")), plan.toString());
+        plan.stream().filter(row -> "f".equals(row.get("table"))).forEach(SchemaIndexUsageTest::assertNoFilesort);
+    }
+
+    @Test
+    void revocationPurgeShouldUseTheExpiryIndex() {
+        // nothing expired before the epoch, so the seeded rows stay
+        Timestamp epoch = Timestamp.from(Instant.EPOCH);
+        Map<String, Object> plan = onlyRow(explain(() -> revokedTokenRepository.deleteExpired(epoch.toInstant()), epoch));
+
+        assertEquals("idx_revoked_token_expires_at", plan.get("key"));
+    }
+
+    @Test
+    void revocationRefreshShouldUseTheRevokedAtIndex() {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp since = Timestamp.from(now.toInstant().minusSeconds(120));
+        Map<String, Object> plan = onlyRow(explain(
+                () -> revokedTokenRepository.findRevokedSince(since.toInstant(), now.toInstant()), since, now));
+
+        assertEquals("idx_revoked_token_revoked_at", plan.get("key"));
+    }
+
+    // runs the repository call, then explains the SQL Hibernate sent for it with values bound in parameter order
+    List<Map<String, Object>> explain(Runnable call, Object... parameters) {
+        statementRecorder.statements.clear();
+        call.run();
+        String sql = statementRecorder.statements.getLast();
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, parameters);
+    }
+
+    static Map<String, Object> onlyRow(List<Map<String, Object>> plan) {
+        assertEquals(1, plan.size(), plan.toString());
+        return plan.getFirst();
+    }
+
+    static void assertNoFilesort(Map<String, Object> plan) {
+        assertFalse(String.valueOf(plan.get("Extra")).contains("Using filesort"), String.valueOf(plan.get("Extra")));
+        assertNotEquals("ALL", plan.get("type"));
+    }
+
+    static class StatementRecorder implements StatementInspector {
+
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecording {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(StatementRecorder recorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, recorder);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.workshop.momentummosaicapp.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.security.autoconfigure.SecurityAutoConfiguration;
+import org.springframework.boot.security.oauth2.client.autoconfigure.OAuth2ClientAutoConfiguration;
+import org.springframework.boot.security.oauth2.client.autoconfigure.servlet.OAuth2ClientWebSecurityAutoConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.workshop.momentummosaicapp.dashboard.DashboardFields;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardDelta;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.FitnessSummary;
+import org.workshop.momentummosaicapp.dashboard.DashboardService;
+import org.workshop.momentummosaicapp.dashboard.DashboardStreamRegistry;
+import org.workshop.momentummosaicapp.dashboard.DashboardVersion;
+import org.workshop.momentummosaicapp.dashboard.DashboardVersionRepository;
+import org.workshop.momentummosaicapp.dashboard.DashboardVersions;
+import org.workshop.momentummosaicapp.security.JwtAuthenticationFilter;
+import org.workshop.momentummosaicapp.security.ProfileCompletionFilter;
+import org.workshop.momentummosaicapp.security.ProfileGuard;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(
+        controllers = DashboardController.class,
+        excludeAutoConfiguration = {
+                SecurityAutoConfiguration.class,
+                OAuth2ClientAutoConfiguration.class,
+                OAuth2ClientWebSecurityAutoConfiguration.class
+        },
+        excludeFilters = {
+                @ComponentScan.Filter(
+                        type = FilterType.ASSIGNABLE_TYPE,
+                        classes = JwtAuthenticationFilter.class
+                ),
+                @ComponentScan.Filter(
+                        type = FilterType.ASSIGNABLE_TYPE,
+                        classes = ProfileCompletionFilter.class
+                )
+        }
+)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(DashboardVersions.class)
+class DashboardControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    DashboardVersions dashboardVersions;
+    @MockitoBean
+    DashboardVersionRepository versionRepository;
+    @MockitoBean
+    DashboardService dashboardService;
+    @MockitoBean
+    DashboardStreamRegistry dashboardStreamRegistry;
+    @MockitoBean
+    ProfileGuard profileGuard;
+
+    @Test
+    void shouldAnswerNotModifiedWithoutLoadingTheDashboard() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+        when(dashboardService.getDashboardDelta(eq(1L), isNull())).thenAnswer(inv -> DashboardDelta.builder()
+                .version(dashboardVersions.token(dashboardVersions.current(1L), LocalDate.now()))
+                .full(true)
+                .dashboard(DashboardResponse.builder().build())
+                .build());
+
+        String etag = mockMvc.perform(get("/api/dashboard/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/dashboard/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(dashboardService, times(1)).getDashboardDelta(eq(1L), isNull());
+
+        // a task was created, possibly on another instance
+        DashboardVersion version = mock(DashboardVersion.class);
+        when(version.getVersion()).thenReturn(1L);
+        when(version.getUserVersion()).thenReturn(0L);
+        when(version.getTaskVersion()).thenReturn(1L);
+        when(version.getFitnessVersion()).thenReturn(0L);
+        when(versionRepository.findByUserId(1L)).thenReturn(Optional.of(version));
+
+        String changed = mockMvc.perform(get("/api/dashboard/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void shouldServeSelectedSectionsUnderTheirOwnTag() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+        DashboardFields fitnessOnly = DashboardFields.parse("fitnessSummary");
+        when(dashboardService.getDashboard(1L, fitnessOnly)).thenReturn(DashboardResponse.builder()
+                .fitnessSummary(FitnessSummary.builder().workoutStreak(3).build())
+                .build());
+
+        String etag = mockMvc.perform(get("/api/dashboard/1").param("fields", "fitnessSummary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fitnessSummary.workoutStreak").value(3))
+                .andExpect(jsonPath("$.userSummary").doesNotExist())
+                .andExpect(jsonPath("$.taskSummary").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.contains("fitnessSummary"));
+
+        mockMvc.perform(get("/api/dashboard/1").param("include", "fitnessSummary").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(dashboardService, never()).getDashboardDelta(any(), any());
+    }
+
+    @Test
+    void shouldRejectUnknownFields() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+
+        mockMvc.perform(get("/api/dashboard/1").param("fields", "everything"))
+                .andExpect(status().isBadRequest());
+    }
+}
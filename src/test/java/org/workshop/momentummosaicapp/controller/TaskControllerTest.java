@@ -12,6 +12,10 @@ import org.springframework.context.annotation.FilterType;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.workshop.momentummosaicapp.export.ExportFormat;
+import org.workshop.momentummosaicapp.export.ExportService;
+import org.workshop.momentummosaicapp.importer.ImportService;
 import org.workshop.momentummosaicapp.security.JwtAuthenticationFilter;
 import org.workshop.momentummosaicapp.security.ProfileCompletionFilter;
 import org.workshop.momentummosaicapp.security.ProfileGuard;
@@ -22,13 +26,25 @@ import org.workshop.momentummosaicapp.task.dto.TaskResponse;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.Gender;
 import org.workshop.momentummosaicapp.utility.DtoMapper;
+import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(
@@ -58,6 +74,10 @@ class TaskControllerTest {
     TaskService taskService;
     @MockitoBean
     DtoMapper dtoMapper;
+    @MockitoBean
+    ExportService exportService;
+    @MockitoBean
+    ImportService importService;
 
     @MockitoBean
     ProfileGuard profileGuard;
@@ -108,4 +128,60 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.completedAt").doesNotExist());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportShouldStreamAsAnAttachment() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+        when(profileGuard.isOwner(any(), eq(1L))).thenReturn(true);
+        when(exportService.exportTasks(1L, ExportFormat.CSV))
+                .thenReturn(out -> out.write("id,title\r\n1,Study\r\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks/1/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.csv\""))
+                .andExpect(content().string("id,title\r\n1,Study\r\n"));
+    }
+
+    @Test
+    void exportShouldRejectUnknownFormat() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+        when(profileGuard.isOwner(any(), eq(1L))).thenReturn(true);
+
+        mockMvc.perform(get("/api/tasks/1/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void importShouldAnswerWithTheNdjsonReport() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("{\"type\":\"done\",\"records\":1,\"imported\":1,\"failed\":0}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(importService).importTasks(eq(1L), eq(ExportFormat.CSV), any(), any());
+
+        mockMvc.perform(post("/api/tasks/1/import").param("format", "csv")
+                        .contentType("text/csv")
+                        .content("title,taskType,durationMinutes\r\nStudy,DEEP,60\r\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string("{\"type\":\"done\",\"records\":1,\"imported\":1,\"failed\":0}\n"));
+    }
+
+    @Test
+    void importForUnknownUserShouldStillBeAJsonError() throws Exception {
+        when(profileGuard.isCompleted(any())).thenReturn(true);
+        doThrow(new ResourceNotFoundException("User Not Found"))
+                .when(importService).importTasks(eq(1L), eq(ExportFormat.NDJSON), any(), any());
+
+        mockMvc.perform(post("/api/tasks/1/import").content("{}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,123 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.task.TasksArchivedEvent;
+import org.workshop.momentummosaicapp.user.UserProfileChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardCacheTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    DashboardCache cache = new DashboardCache(registry, 100, Duration.ofMinutes(10));
+    AtomicInteger loads = new AtomicInteger();
+    Function<Long, DashboardResponse> loader = userId -> {
+        loads.incrementAndGet();
+        return DashboardResponse.builder().build();
+    };
+
+    @Test
+    void shouldServeRepeatViewsWithoutLoading() {
+        DashboardResponse first = cache.get(1L, 0, loader);
+        DashboardResponse second = cache.get(1L, 0, loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "dashboards").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldReloadForAVersionNewerThanTheEntry() {
+        cache.get(1L, 3, loader);
+        cache.get(1L, 3, loader);
+        // another replica committed a change
+        cache.get(1L, 4, loader);
+
+        assertEquals(2, loads.get());
+        assertNull(cache.getIfPresent(1L, () -> 5));
+        assertNotNull(cache.getIfPresent(1L, () -> 4));
+    }
+
+    @Test
+    void shouldEvictOnlyTheUserWhoseDataChanged() {
+        cache.get(1L, 0, loader);
+        cache.get(2L, 0, loader);
+
+        cache.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Kind.COMPLETED, 1L, 10L, "t", TaskType.DEEP, 120, true, null));
+        cache.get(1L, 0, loader);
+        cache.get(2L, 0, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void shouldEvictOnWorkoutAndProfileChanges() {
+        cache.get(1L, 0, loader);
+        cache.onWorkoutLogged(new WorkoutLoggedEvent(1L, LocalDate.now(), true, false));
+        cache.get(1L, 0, loader);
+        cache.onUserProfileChanged(new UserProfileChangedEvent(1L));
+        cache.get(1L, 0, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void shouldEvictTheUsersOfAnArchivedChunk() {
+        cache.get(1L, 0, loader);
+        cache.get(2L, 0, loader);
+
+        cache.onTasksArchived(new TasksArchivedEvent(Map.of(1L, List.of(10L, 11L))));
+        cache.get(1L, 0, loader);
+        cache.get(2L, 0, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void shouldDropEverythingOnDayRollover() {
+        cache.get(1L, 0, loader);
+        cache.get(2L, 0, loader);
+
+        cache.onDayRollover();
+        cache.get(1L, 0, loader);
+        cache.get(2L, 0, loader);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void shouldNotKeepPartialResponses() {
+        Function<Long, DashboardResponse> partial = userId -> {
+            loads.incrementAndGet();
+            return DashboardResponse.builder().unavailableSections(List.of("tasks")).build();
+        };
+
+        cache.get(1L, 0, partial);
+        cache.get(1L, 0, partial);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        DashboardCache disabled = new DashboardCache(registry, 0, Duration.ofMinutes(10));
+
+        disabled.get(1L, 0, loader);
+        disabled.get(1L, 0, loader);
+
+        assertEquals(2, loads.get());
+    }
+}
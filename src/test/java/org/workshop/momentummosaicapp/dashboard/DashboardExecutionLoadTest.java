@@ -0,0 +1,184 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
+import org.workshop.momentummosaicapp.fitness.DailyFitnessLogRepository;
+import org.workshop.momentummosaicapp.task.Task;
+import org.workshop.momentummosaicapp.task.TaskRepository;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.user.Gender;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same dashboard under concurrent load in both execution modes and checks the
+ * p99 latency of each against the section deadline.
+ */
+@Tag("perf")
+@DataJpaTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=30",
+        // every call should reach the database
+        "dashboard.cache.max-size=0"
+})
+@Import({DashboardServiceImpl.class, DashboardCache.class, DashboardProjectionReconciler.class, DashboardVersions.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class DashboardExecutionLoadTest {
+
+    static final int CALLERS = 16;
+    static final int CALLS_PER_CALLER = 25;
+    static final int TASKS = 300;
+    static final int WORKOUT_DAYS = 90;
+    // the default deadline of the slowest section; a parallel view past it would come back partial
+    static final Duration P99_LIMIT = Duration.ofSeconds(1);
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    DashboardService dashboardService;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    DailyFitnessLogRepository dailyFitnessLogRepository;
+
+    void runLoad(String mode) throws Exception {
+        Long userId = seedUser();
+
+        // warm up connections, parsers and JIT
+        for (int i = 0; i < 50; i++) {
+            dashboardService.getDashboard(userId);
+        }
+
+        List<Future<long[]>> callers = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(CALLERS)) {
+            for (int c = 0; c < CALLERS; c++) {
+                callers.add(pool.submit(() -> {
+                    long[] latencies = new long[CALLS_PER_CALLER];
+                    for (int i = 0; i < CALLS_PER_CALLER; i++) {
+                        long start = System.nanoTime();
+                        DashboardResponse response = dashboardService.getDashboard(userId);
+                        latencies[i] = System.nanoTime() - start;
+
+                        assertEquals(WORKOUT_DAYS, response.getFitnessSummary().getWorkoutStreak());
+                        assertEquals(TASKS / 2, response.getTaskSummary().getCompletedTasks().size());
+                    }
+                    return latencies;
+                }));
+            }
+        }
+
+        long[] all = new long[CALLERS * CALLS_PER_CALLER];
+        int n = 0;
+        for (Future<long[]> caller : callers) {
+            for (long latency : caller.get()) {
+                all[n++] = latency;
+            }
+        }
+        Arrays.sort(all);
+        long p99 = all[(int) (all.length * 0.99)];
+        assertTrue(p99 < P99_LIMIT.toNanos(), String.format("dashboard.execution=%s: p50=%.2fms p99=%.2fms over %d calls",
+                mode, millis(all[all.length / 2]), millis(p99), all.length));
+    }
+
+    Long seedUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        user.setGender(Gender.MALE);
+        user.setHeightCm(180);
+        user.setWeightKg(80);
+        user = appUserRepository.save(user);
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setAppUser(user);
+            task.setTitle("task " + i);
+            task.setTaskType(TaskType.values()[i % TaskType.values().length]);
+            task.setDurationMinutes(30);
+            task.setCompleted(i % 2 == 0);
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+
+        List<DailyFitnessLog> logs = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < WORKOUT_DAYS; i++) {
+            DailyFitnessLog log = new DailyFitnessLog();
+            log.setAppUser(user);
+            log.setDate(today.minusDays(i));
+            log.setDidWorkout(true);
+            logs.add(log);
+        }
+        dailyFitnessLogRepository.saveAll(logs);
+        return user.getId();
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Nested
+    @TestPropertySource(properties = "dashboard.execution=sequential")
+    class Sequential {
+        @Test
+        void underConcurrentLoad() throws Exception {
+            runLoad("sequential");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "dashboard.execution=parallel",
+            "dashboard.partial-results=false",
+            "dashboard.sections.user.timeout=5s",
+            "dashboard.sections.tasks.timeout=5s",
+            "dashboard.sections.fitness.timeout=5s"
+    })
+    class Parallel {
+        @Test
+        void underConcurrentLoad() throws Exception {
+            runLoad("parallel");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
+import org.workshop.momentummosaicapp.fitness.DailyFitnessLogRepository;
+import org.workshop.momentummosaicapp.fitness.FitnessService;
+import org.workshop.momentummosaicapp.fitness.FitnessServiceImpl;
+import org.workshop.momentummosaicapp.task.Task;
+import org.workshop.momentummosaicapp.task.TaskService;
+import org.workshop.momentummosaicapp.task.TaskSearchIndex;
+import org.workshop.momentummosaicapp.task.TaskServiceImpl;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "dashboard.read-model.mode=projection")
+@Import({TaskServiceImpl.class, TaskSearchIndex.class, FitnessServiceImpl.class, DashboardProjector.class, DashboardProjectionReconciler.class, SimpleMeterRegistry.class})
+@Testcontainers
+class DashboardProjectionTest {
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    FitnessService fitnessService;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    DailyFitnessLogRepository dailyFitnessLogRepository;
+    @Autowired
+    DashboardProjectionRepository projectionRepository;
+    @Autowired
+    DashboardProjectionReconciler reconciler;
+    @Autowired
+    DashboardReadRepository readRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void shouldTrackTaskChangesIncrementally() {
+        Long userId = saveUser();
+
+        Task deep = taskService.createTask("Deep", userId, TaskType.DEEP, 120);
+        Task shallow = taskService.createTask("Shallow", userId, TaskType.SHALLOW, 30);
+        Task fitness = taskService.createTask("Run", userId, TaskType.FITNESS, 45);
+        taskService.completeTask(userId, deep.getId());
+        taskService.completeTask(userId, shallow.getId());
+        taskService.deleteTask(userId, shallow.getId());
+        taskService.deleteTask(userId, fitness.getId());
+
+        DashboardProjection projection = load(userId);
+        assertEquals(0, projection.getActiveCount());
+        assertEquals(1, projection.getCompletedCount());
+        assertEquals(120, projection.getDeepMinutes());
+        assertEquals(0, projection.getShallowMinutes());
+        assertEquals(0, projection.getFitnessMinutes());
+    }
+
+    @Test
+    void shouldReadStreakFromWorkoutStreak() {
+        Long userId = saveUser();
+        LocalDate today = LocalDate.now();
+        saveLog(userId, today.minusDays(1), true);
+        saveLog(userId, today.minusDays(2), true);
+        saveLog(userId, today.minusDays(4), true);
+        reconciler.rebuildUser(userId);
+
+        fitnessService.markWorkoutToday(userId, true);
+        ProjectedDashboardHeader marked = header(userId, today);
+        assertEquals(3, marked.getWorkoutStreak().intValue());
+        assertEquals(1, marked.getWorkedOutToday().intValue());
+        assertEquals(4, marked.getTotalWorkoutDays().intValue());
+
+        fitnessService.markWorkoutToday(userId, false);
+        ProjectedDashboardHeader unmarked = header(userId, today);
+        assertEquals(0, unmarked.getWorkoutStreak().intValue());
+        assertEquals(0, unmarked.getWorkedOutToday().intValue());
+        assertEquals(3, unmarked.getTotalWorkoutDays().intValue());
+        assertEquals(2, header(userId, today.minusDays(1)).getWorkoutStreak().intValue());
+    }
+
+    @Test
+    void incrementalUpdatesShouldMatchRebuild() {
+        Long userId = saveUser();
+        Random random = new Random(42);
+        List<Task> active = new ArrayList<>();
+        List<Task> completed = new ArrayList<>();
+        TaskType[] types = TaskType.values();
+
+        for (int i = 0; i < 200; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || active.isEmpty()) {
+                TaskType type = types[random.nextInt(types.length)];
+                int minutes = type == TaskType.DEEP ? 120 + random.nextInt(60) : 1 + random.nextInt(90);
+                active.add(taskService.createTask("t" + i, userId, type, minutes));
+            } else if (op == 1) {
+                Task task = active.remove(random.nextInt(active.size()));
+                completed.add(taskService.completeTask(userId, task.getId()));
+            } else if (op == 2 && !completed.isEmpty()) {
+                taskService.deleteTask(userId, completed.remove(random.nextInt(completed.size())).getId());
+            } else {
+                taskService.deleteTask(userId, active.remove(random.nextInt(active.size())).getId());
+            }
+            if (i % 50 == 0) {
+                fitnessService.markWorkoutToday(userId, random.nextBoolean());
+            }
+        }
+
+        DashboardProjection incremental = load(userId);
+        reconciler.rebuildUser(userId);
+        DashboardProjection rebuilt = load(userId);
+
+        assertEquals(rebuilt.getActiveCount(), incremental.getActiveCount());
+        assertEquals(rebuilt.getCompletedCount(), incremental.getCompletedCount());
+        assertEquals(rebuilt.getDeepMinutes(), incremental.getDeepMinutes());
+        assertEquals(rebuilt.getShallowMinutes(), incremental.getShallowMinutes());
+        assertEquals(rebuilt.getFitnessMinutes(), incremental.getFitnessMinutes());
+        assertEquals(rebuilt.getTotalWorkoutDays(), incremental.getTotalWorkoutDays());
+        assertEquals(active.size(), rebuilt.getActiveCount());
+        assertEquals(completed.size(), rebuilt.getCompletedCount());
+    }
+
+    @Test
+    void reconcilerShouldRepairDrift() {
+        Long userId = saveUser();
+        taskService.createTask("Deep", userId, TaskType.DEEP, 120);
+        projectionRepository.applyTaskDelta(userId, 5, 5, 500, 0, 0);
+
+        reconciler.reconcileAll();
+
+        DashboardProjection projection = load(userId);
+        assertEquals(1, projection.getActiveCount());
+        assertEquals(0, projection.getCompletedCount());
+        assertEquals(0, projection.getDeepMinutes());
+    }
+
+    // bulk updates bypass the persistence context, so always read the row fresh
+    DashboardProjection load(Long userId) {
+        entityManager.flush();
+        entityManager.clear();
+        DashboardProjection projection = projectionRepository.findById(userId).orElseThrow();
+        entityManager.detach(projection);
+        return projection;
+    }
+
+    ProjectedDashboardHeader header(Long userId, LocalDate today) {
+        entityManager.flush();
+        entityManager.clear();
+        return readRepository.findProjectedHeader(userId, today).orElseThrow();
+    }
+
+    Long saveUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        return appUserRepository.save(user).getId();
+    }
+
+    void saveLog(Long userId, LocalDate date, boolean didWorkout) {
+        DailyFitnessLog log = new DailyFitnessLog();
+        log.setAppUser(appUserRepository.getReferenceById(userId));
+        log.setDate(date);
+        log.setDidWorkout(didWorkout);
+        dailyFitnessLogRepository.save(log);
+    }
+}
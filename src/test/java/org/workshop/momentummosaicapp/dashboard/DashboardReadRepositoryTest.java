@@ -0,0 +1,187 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
+import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
+import org.workshop.momentummosaicapp.fitness.DailyFitnessLogRepository;
+import org.workshop.momentummosaicapp.task.Task;
+import org.workshop.momentummosaicapp.task.TaskRepository;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.task.UserTaskStatsRepository;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.user.Gender;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({DashboardServiceImpl.class, DashboardCache.class, DashboardProjectionReconciler.class, DashboardVersions.class, SimpleMeterRegistry.class})
+@Testcontainers
+class DashboardReadRepositoryTest {
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+    @Autowired
+    DashboardReadRepository dashboardReadRepository;
+    @Autowired
+    DashboardService dashboardService;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    UserTaskStatsRepository taskStatsRepository;
+    @Autowired
+    DailyFitnessLogRepository dailyFitnessLogRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldBuildDashboardInThreeStatements() {
+        AppUser user = saveUser();
+        saveTask(user, TaskType.DEEP, 120, true);
+        saveTask(user, TaskType.SHALLOW, 30, true);
+        saveTask(user, TaskType.FITNESS, 45, false);
+        LocalDate today = LocalDate.now();
+        saveLog(user, today, true);
+        saveLog(user, today.minusDays(1), true);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DashboardResponse response = dashboardService.getDashboard(user.getId());
+
+        // the version lookup for the cache, then header, task rows and task totals
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, response.getTaskSummary().getActiveTasks().size());
+        assertEquals(120, response.getTaskSummary().getTotalDeepMinutes());
+        assertEquals(30, response.getTaskSummary().getTotalShallowMinutes());
+        assertTrue(response.getFitnessSummary().isDidWorkoutToday());
+        assertEquals(2, response.getFitnessSummary().getWorkoutStreak());
+        assertEquals(Gender.FEMALE, response.getUserSummary().getGender());
+    }
+
+    @Test
+    void fitnessOnlyDashboardShouldRunOneStatement() {
+        AppUser user = saveUser();
+        saveTask(user, TaskType.DEEP, 120, true);
+        saveLog(user, LocalDate.now(), true);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DashboardResponse response = dashboardService.getDashboard(user.getId(), DashboardFields.parse("fitnessSummary"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, response.getFitnessSummary().getWorkoutStreak());
+        assertNull(response.getTaskSummary());
+    }
+
+    @Test
+    void taskTotalsShouldCountActiveRowsAndCompletedStats() {
+        AppUser user = saveUser();
+        saveTask(user, TaskType.DEEP, 120, true);
+        saveTask(user, TaskType.DEEP, 60, true);
+        saveTask(user, TaskType.SHALLOW, 30, true);
+        saveTask(user, TaskType.FITNESS, 45, false);
+        taskRepository.flush();
+
+        DashboardTaskTotals totals = dashboardReadRepository.findTaskTotals(user.getId());
+
+        assertEquals(1, totals.getActiveCount().intValue());
+        assertEquals(3, totals.getCompletedCount().intValue());
+        assertEquals(180, totals.getDeepMinutes().intValue());
+        assertEquals(30, totals.getShallowMinutes().intValue());
+        assertEquals(0, totals.getFitnessMinutes().intValue());
+        assertEquals(0, dashboardReadRepository.findTaskTotals(-1L).getCompletedCount().intValue());
+    }
+
+    @Test
+    void streakShouldStopAtFirstMissedDay() {
+        AppUser user = saveUser();
+        LocalDate today = LocalDate.now();
+        saveLog(user, today, true);
+        saveLog(user, today.minusDays(1), true);
+        saveLog(user, today.minusDays(2), false);
+        saveLog(user, today.minusDays(3), true);
+        saveLog(user, today.minusDays(5), true);
+
+        DashboardHeader header = dashboardReadRepository.findHeader(user.getId(), today).orElseThrow();
+
+        assertEquals(2, header.getWorkoutStreak().intValue());
+        assertEquals(4, header.getTotalWorkoutDays().intValue());
+        assertEquals(1, header.getWorkedOutToday().intValue());
+    }
+
+    @Test
+    void streakShouldBeZeroWithoutWorkoutToday() {
+        AppUser user = saveUser();
+        LocalDate today = LocalDate.now();
+        saveLog(user, today.minusDays(1), true);
+        saveLog(user, today.minusDays(2), true);
+
+        DashboardHeader header = dashboardReadRepository.findHeader(user.getId(), today).orElseThrow();
+
+        assertEquals(0, header.getWorkoutStreak().intValue());
+        assertEquals(0, header.getWorkedOutToday().intValue());
+        assertEquals(2, header.getTotalWorkoutDays().intValue());
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownUser() {
+        assertTrue(dashboardReadRepository.findHeader(-1L, LocalDate.now()).isEmpty());
+    }
+
+    AppUser saveUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        user.setGender(Gender.FEMALE);
+        user.setHeightCm(170);
+        user.setWeightKg(60);
+        return appUserRepository.save(user);
+    }
+
+    void saveTask(AppUser user, TaskType type, int minutes, boolean completed) {
+        Task task = new Task();
+        task.setAppUser(user);
+        task.setTitle(type.name());
+        task.setTaskType(type);
+        task.setDurationMinutes(minutes);
+        task.setCompleted(completed);
+        taskRepository.save(task);
+        if (completed) {
+            taskStatsRepository.increment(user.getId(), type.name(), 1, minutes);
+        }
+    }
+
+    void saveLog(AppUser user, LocalDate date, boolean didWorkout) {
+        DailyFitnessLog log = new DailyFitnessLog();
+        log.setAppUser(user);
+        log.setDate(date);
+        log.setDidWorkout(didWorkout);
+        dailyFitnessLogRepository.saveAndFlush(log);
+    }
+}
@@ -1,96 +1,86 @@
 package org.workshop.momentummosaicapp.dashboard;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardDelta;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardResponse;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.FitnessSummary;
 import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.TaskSummary;
-import org.workshop.momentummosaicapp.fitness.DailyFitnessLog;
-import org.workshop.momentummosaicapp.fitness.DailyFitnessLogRepository;
-import org.workshop.momentummosaicapp.fitness.FitnessService;
-import org.workshop.momentummosaicapp.task.Task;
-import org.workshop.momentummosaicapp.task.TaskRepository;
-import org.workshop.momentummosaicapp.task.TaskService;
 import org.workshop.momentummosaicapp.task.TaskType;
-import org.workshop.momentummosaicapp.user.AppUser;
-import org.workshop.momentummosaicapp.user.AppUserRepository;
 import org.workshop.momentummosaicapp.user.Gender;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+import org.workshop.momentummosaicapp.utility.exception.ServiceUnavailableException;
+
+import java.time.Duration;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DashboardServiceImplTest {
     @Mock
-    AppUserRepository appUserRepository;
-    @Mock
-    TaskRepository taskRepository;
+    DashboardReadRepository dashboardReadRepository;
     @Mock
-    TaskService taskService;
+    DashboardProjectionReconciler projectionReconciler;
+    // caching is covered by DashboardCacheTest, here every call goes to the repository
+    @Spy
+    DashboardCache dashboardCache = new DashboardCache(new SimpleMeterRegistry(), 0, Duration.ofMinutes(10));
     @Mock
-    FitnessService fitnessService;
+    DashboardVersionRepository versionRepository;
     @InjectMocks
     DashboardServiceImpl dashboardService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dashboardService, "dashboardVersions", new DashboardVersions(versionRepository, mock(ApplicationEventPublisher.class), 64));
+    }
+
 
     @Test
     void getDashboard() {
         Long userId =1L;
-        AppUser appUser = new AppUser();
-        appUser.setEnabled(true);
-        appUser.setId(userId);
-        appUser.setWeightKg(80);
-        appUser.setHeightCm(180);
-        appUser.setGender(Gender.MALE);
-        when(appUserRepository.findById(userId)).thenReturn(Optional.of(appUser));
-
-        Task deepCompleted = new Task();
-        deepCompleted.setId(1L);
-        deepCompleted.setTitle("Deep Work");
-        deepCompleted.setTaskType(TaskType.DEEP);
-        deepCompleted.setDurationMinutes(120);
-        deepCompleted.setCompleted(true);
-
-        Task shallowCompleted = new Task();
-        shallowCompleted.setId(2L);
-        shallowCompleted.setTitle("Email");
-        shallowCompleted.setTaskType(TaskType.SHALLOW);
-        shallowCompleted.setDurationMinutes(30);
-        shallowCompleted.setCompleted(true);
-
-        Task activeTask = new Task();
-        activeTask.setId(3L);
-        activeTask.setTitle("Reading");
-        activeTask.setTaskType(TaskType.FITNESS);
-        activeTask.setDurationMinutes(45);
-        activeTask.setCompleted(false);
-
-        when(taskRepository.findByAppUserIdAndCompletedFalse(userId)).thenReturn(new ArrayList<>(List.of(activeTask)));
-        when(taskRepository.findByAppUserIdAndCompletedTrue(userId)).thenReturn(new ArrayList<>(List.of(shallowCompleted,deepCompleted)));
-        when(fitnessService.getTodayLog(userId)).thenReturn(Optional.of(new DailyFitnessLog()));
-        when(fitnessService.getTotalWorkoutDays(userId)).thenReturn(10);
-        when(fitnessService.getWorkoutStreak(userId)).thenReturn(3);
+        when(dashboardReadRepository.findHeader(eq(userId), any())).thenReturn(Optional.of(header(180, 80, "MALE", 10, 0, 3)));
+
+        DashboardTaskRow deepCompleted = new DashboardTaskRow(1L, "Deep Work", TaskType.DEEP, 120, true, null);
+        DashboardTaskRow shallowCompleted = new DashboardTaskRow(2L, "Email", TaskType.SHALLOW, 30, true, null);
+        DashboardTaskRow activeTask = new DashboardTaskRow(3L, "Reading", TaskType.FITNESS, 45, false, null);
+
+        when(dashboardReadRepository.findTasks(userId)).thenReturn(List.of(deepCompleted, shallowCompleted, activeTask));
+        // a second deep task is archived: counted in the totals, not listed
+        when(dashboardReadRepository.findTaskTotals(userId)).thenReturn(totals(1, 3, 240, 30, 0));
         //act
         DashboardResponse response = dashboardService.getDashboard(userId);
         // User summary
         assertEquals(80 * 33, response.getUserSummary().getCaloriesMaintenance());
         assertEquals(80 * 33 - 300, response.getUserSummary().getCaloriesCut());
         assertEquals(80 * 33 + 300, response.getUserSummary().getCaloriesBulk());
+        assertEquals(Gender.MALE, response.getUserSummary().getGender());
 
         // Task summary
         TaskSummary taskSummary = response.getTaskSummary();
         assertEquals(1, taskSummary.getActiveTasks().size());
         assertEquals(2, taskSummary.getCompletedTasks().size());
-        assertEquals(120, taskSummary.getTotalDeepMinutes());
+        assertEquals(3, taskSummary.getCompletedTaskCount());
+        assertEquals(240, taskSummary.getTotalDeepMinutes());
         assertEquals(30, taskSummary.getTotalShallowMinutes());
         assertEquals(0, taskSummary.getTotalFitnessMinutes());
 
@@ -104,15 +94,262 @@ class DashboardServiceImplTest {
     }
     @Test
     void shouldThrowIfUserNotFound() {
-        when(appUserRepository.findById(1L))
+        when(dashboardReadRepository.findHeader(eq(1L), any()))
                 .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () ->
                 dashboardService.getDashboard(1L)
         );
 
-        verifyNoInteractions(taskRepository);
-        verifyNoInteractions(fitnessService);
+        verify(dashboardReadRepository, never()).findTasks(any());
+    }
+
+    @Test
+    void parallelModeShouldAssembleAllSections() {
+        parallel(true);
+        when(dashboardReadRepository.findProfile(1L)).thenReturn(Optional.of(new DashboardProfile(180, 80, Gender.MALE)));
+        when(dashboardReadRepository.findTasks(1L)).thenReturn(List.of(new DashboardTaskRow(1L, "Deep Work", TaskType.DEEP, 120, true, null)));
+        when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(totals(0, 1, 120, 0, 0));
+        when(dashboardReadRepository.findFitnessTotals(eq(1L), any())).thenReturn(header(180, 80, "MALE", 10, 1, 3));
+
+        DashboardResponse response = dashboardService.getDashboard(1L);
+
+        assertEquals(80 * 33, response.getUserSummary().getCaloriesMaintenance());
+        assertEquals(120, response.getTaskSummary().getTotalDeepMinutes());
+        assertTrue(response.getFitnessSummary().isDidWorkoutToday());
+        assertEquals(3, response.getFitnessSummary().getWorkoutStreak());
+        assertTrue(response.getUnavailableSections().isEmpty());
+    }
+
+    @Test
+    void parallelModeShouldLeaveOutSectionsThatMissTheirDeadline() {
+        parallel(true);
+        when(dashboardReadRepository.findProfile(1L)).thenReturn(Optional.of(new DashboardProfile(180, 80, Gender.MALE)));
+        when(dashboardReadRepository.findTasks(1L)).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        when(dashboardReadRepository.findFitnessTotals(eq(1L), any())).thenThrow(new IllegalStateException("db down"));
+
+        long start = System.nanoTime();
+        DashboardResponse response = dashboardService.getDashboard(1L);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertNotNull(response.getUserSummary());
+        assertNull(response.getTaskSummary());
+        assertNull(response.getFitnessSummary());
+        assertEquals(List.of("tasks", "fitness"), response.getUnavailableSections());
+        assertTrue(elapsedMillis < 2_000, "waited " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void parallelModeShouldFailWhenPartialResultsAreDisabled() {
+        parallel(false);
+        when(dashboardReadRepository.findProfile(1L)).thenReturn(Optional.of(new DashboardProfile(180, 80, Gender.MALE)));
+        when(dashboardReadRepository.findTasks(1L)).thenReturn(List.of());
+        when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(totals(0, 0, 0, 0, 0));
+        when(dashboardReadRepository.findFitnessTotals(eq(1L), any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(ServiceUnavailableException.class, () -> dashboardService.getDashboard(1L));
+    }
+
+    @Test
+    void parallelModeShouldStillReportMissingUser() {
+        parallel(true);
+        when(dashboardReadRepository.findProfile(1L)).thenReturn(Optional.empty());
+        // the other sections may be cancelled before they run
+        lenient().when(dashboardReadRepository.findTasks(1L)).thenReturn(List.of());
+        lenient().when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(totals(0, 0, 0, 0, 0));
+        lenient().when(dashboardReadRepository.findFitnessTotals(eq(1L), any())).thenReturn(header(0, 0, null, 0, 0, 0));
+
+        assertThrows(ResourceNotFoundException.class, () -> dashboardService.getDashboard(1L));
+    }
+
+    @Test
+    void projectionModeShouldReadTotalsFromProjection() {
+        projection();
+        when(dashboardReadRepository.findProjectedHeader(eq(1L), any())).thenReturn(Optional.of(projectedHeader(1L)));
+        when(dashboardReadRepository.findActiveTasks(eq(1L), any())).thenReturn(List.of(new DashboardTaskRow(3L, "Reading", TaskType.FITNESS, 45, false, null)));
+        when(dashboardReadRepository.findRecentlyCompletedTasks(eq(1L), any())).thenReturn(List.of(new DashboardTaskRow(1L, "Deep Work", TaskType.DEEP, 120, true, null)));
+
+        DashboardResponse response = dashboardService.getDashboard(1L);
+
+        TaskSummary taskSummary = response.getTaskSummary();
+        assertEquals(1, taskSummary.getActiveTasks().size());
+        assertEquals(1, taskSummary.getCompletedTasks().size());
+        // counts and minutes cover tasks beyond the capped lists
+        assertEquals(4, taskSummary.getActiveTaskCount());
+        assertEquals(7, taskSummary.getCompletedTaskCount());
+        assertEquals(600, taskSummary.getTotalDeepMinutes());
+        assertEquals(5, response.getFitnessSummary().getWorkoutStreak());
+        assertTrue(response.getFitnessSummary().isDidWorkoutToday());
+        verify(projectionReconciler, never()).rebuildUser(any());
+    }
+
+    @Test
+    void projectionModeShouldBuildMissingRow() {
+        projection();
+        when(dashboardReadRepository.findProjectedHeader(eq(1L), any()))
+                .thenReturn(Optional.of(projectedHeader(null)))
+                .thenReturn(Optional.of(projectedHeader(1L)));
+        when(dashboardReadRepository.findActiveTasks(eq(1L), any())).thenReturn(List.of());
+        when(dashboardReadRepository.findRecentlyCompletedTasks(eq(1L), any())).thenReturn(List.of());
+
+        DashboardResponse response = dashboardService.getDashboard(1L);
+
+        verify(projectionReconciler).rebuildUser(1L);
+        assertEquals(7, response.getTaskSummary().getCompletedTaskCount());
+    }
+
+    @Test
+    void deltaShouldContainOnlyChangedSectionsAndTasks() {
+        when(dashboardReadRepository.findHeader(eq(1L), any())).thenReturn(Optional.of(header(180, 80, "MALE", 10, 0, 3)));
+        when(dashboardReadRepository.findTasks(1L)).thenReturn(List.of(
+                new DashboardTaskRow(1L, "Deep Work", TaskType.DEEP, 120, true, null),
+                new DashboardTaskRow(2L, "Email", TaskType.SHALLOW, 30, false, null)));
+        when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(totals(1, 1, 120, 0, 0));
+
+        DashboardDelta first = dashboardService.getDashboardDelta(1L, null);
+        assertTrue(first.isFull());
+        assertNotNull(first.getDashboard());
+
+        // task 1 completed and task 99 deleted since
+        DashboardVersion version = mock(DashboardVersion.class);
+        when(version.getVersion()).thenReturn(2L);
+        when(version.getUserVersion()).thenReturn(0L);
+        when(version.getTaskVersion()).thenReturn(2L);
+        when(version.getFitnessVersion()).thenReturn(0L);
+        when(version.getTaskChangesAfter()).thenReturn(0L);
+        when(versionRepository.findByUserId(1L)).thenReturn(Optional.of(version));
+        when(versionRepository.findChangedTaskIds(1L, 0L, 2L)).thenReturn(List.of(1L, 99L));
+
+        DashboardDelta delta = dashboardService.getDashboardDelta(1L, first.getVersion());
+
+        assertFalse(delta.isFull());
+        assertNotEquals(first.getVersion(), delta.getVersion());
+        assertNull(delta.getUserSummary());
+        assertNull(delta.getFitnessSummary());
+        assertEquals(List.of(1L), delta.getChangedTasks().stream().map(t -> t.getId()).toList());
+        assertEquals(List.of(99L), delta.getRemovedTaskIds());
+        assertEquals(120, delta.getTaskTotals().getTotalDeepMinutes());
+        assertNull(delta.getTaskTotals().getActiveTasks());
+
+        DashboardDelta unchanged = dashboardService.getDashboardDelta(1L, delta.getVersion());
+        assertFalse(unchanged.isFull());
+        assertNull(unchanged.getTaskTotals());
+    }
+
+    @Test
+    void deltaShouldFallBackToFullForUnknownVersion() {
+        when(dashboardReadRepository.findHeader(eq(1L), any())).thenReturn(Optional.of(header(180, 80, "MALE", 10, 0, 3)));
+        when(dashboardReadRepository.findTasks(1L)).thenReturn(List.of());
+        when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(totals(0, 0, 0, 0, 0));
+
+        DashboardDelta delta = dashboardService.getDashboardDelta(1L, "otherepoch.5.20200101");
+
+        assertTrue(delta.isFull());
+        assertNotNull(delta.getDashboard());
+    }
+
+    @Test
+    void fitnessOnlyShouldQueryOnlyTheFitnessLog() {
+        when(dashboardReadRepository.findFitnessTotals(eq(1L), any())).thenReturn(header(0, 0, null, 10, 1, 3));
+
+        DashboardResponse response = dashboardService.getDashboard(1L, DashboardFields.parse("fitnessSummary"));
+
+        assertEquals(3, response.getFitnessSummary().getWorkoutStreak());
+        assertNull(response.getUserSummary());
+        assertNull(response.getTaskSummary());
+        verify(dashboardReadRepository).findFitnessTotals(eq(1L), any());
+        verifyNoMoreInteractions(dashboardReadRepository);
+    }
+
+    @Test
+    void taskTotalsShouldNotLoadTaskRows() {
+        when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(projectedHeader(1L));
+        when(dashboardReadRepository.findActiveTasks(eq(1L), any())).thenReturn(List.of(new DashboardTaskRow(3L, "Reading", TaskType.FITNESS, 45, false, null)));
+
+        DashboardResponse response = dashboardService.getDashboard(1L, DashboardFields.parse("taskSummary.totals,taskSummary.activeTasks"));
+
+        TaskSummary taskSummary = response.getTaskSummary();
+        assertEquals(7, taskSummary.getCompletedTaskCount());
+        assertEquals(600, taskSummary.getTotalDeepMinutes());
+        assertEquals(1, taskSummary.getActiveTasks().size());
+        assertNull(taskSummary.getCompletedTasks());
+        verify(dashboardReadRepository, never()).findTasks(any());
+        verify(dashboardReadRepository, never()).findRecentlyCompletedTasks(any(), any());
+    }
+
+    @Test
+    void selectionShouldBeServedFromCachedDashboard() {
+        DashboardCache cache = new DashboardCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(dashboardService, "dashboardCache", cache);
+        when(dashboardReadRepository.findHeader(eq(1L), any())).thenReturn(Optional.of(header(180, 80, "MALE", 10, 0, 3)));
+        when(dashboardReadRepository.findTasks(1L)).thenReturn(List.of(new DashboardTaskRow(1L, "Deep Work", TaskType.DEEP, 120, true, null)));
+        when(dashboardReadRepository.findTaskTotals(1L)).thenReturn(totals(0, 1, 120, 0, 0));
+        dashboardService.getDashboard(1L);
+
+        DashboardResponse response = dashboardService.getDashboard(1L, DashboardFields.parse("userSummary,taskSummary.totals"));
+
+        assertEquals(80 * 33, response.getUserSummary().getCaloriesMaintenance());
+        assertEquals(120, response.getTaskSummary().getTotalDeepMinutes());
+        assertNull(response.getTaskSummary().getCompletedTasks());
+        assertNull(response.getFitnessSummary());
+        verify(dashboardReadRepository, never()).findProfile(any());
+        // only the full load read them
+        verify(dashboardReadRepository, times(1)).findTaskTotals(1L);
+    }
+
+    void projection() {
+        ReflectionTestUtils.setField(dashboardService, "readModel", DashboardReadModel.PROJECTION);
+        ReflectionTestUtils.setField(dashboardService, "activeLimit", 200);
+        ReflectionTestUtils.setField(dashboardService, "completedLimit", 50);
+    }
+
+    static ProjectedDashboardHeader projectedHeader(Long projectionUserId) {
+        return new ProjectedDashboardHeader() {
+            public Long getProjectionUserId() { return projectionUserId; }
+            public Number getActiveCount() { return 4; }
+            public Number getCompletedCount() { return 7; }
+            public Number getDeepMinutes() { return 600; }
+            public Number getShallowMinutes() { return 90; }
+            public Number getFitnessMinutes() { return 0; }
+            public Integer getHeightCm() { return 180; }
+            public Integer getWeightKg() { return 80; }
+            public String getGender() { return "MALE"; }
+            public Number getTotalWorkoutDays() { return 12; }
+            public Number getWorkedOutToday() { return 1; }
+            public Number getWorkoutStreak() { return 5; }
+        };
+    }
+
+    void parallel(boolean partialResults) {
+        ReflectionTestUtils.setField(dashboardService, "executionMode", DashboardExecutionMode.PARALLEL);
+        ReflectionTestUtils.setField(dashboardService, "partialResults", partialResults);
+        ReflectionTestUtils.setField(dashboardService, "userTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(dashboardService, "tasksTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(dashboardService, "fitnessTimeout", Duration.ofMillis(500));
+    }
+
+    static DashboardTaskTotals totals(long active, long completed, long deep, long shallow, long fitness) {
+        return new DashboardTaskTotals() {
+            public Number getActiveCount() { return active; }
+            public Number getCompletedCount() { return completed; }
+            public Number getDeepMinutes() { return deep; }
+            public Number getShallowMinutes() { return shallow; }
+            public Number getFitnessMinutes() { return fitness; }
+        };
+    }
+
+    static DashboardHeader header(int heightCm, int weightKg, String gender, long totalDays, long today, long streak) {
+        return new DashboardHeader() {
+            public Integer getHeightCm() { return heightCm; }
+            public Integer getWeightKg() { return weightKg; }
+            public String getGender() { return gender; }
+            public Number getTotalWorkoutDays() { return totalDays; }
+            public Number getWorkedOutToday() { return today; }
+            public Number getWorkoutStreak() { return streak; }
+        };
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.workshop.momentummosaicapp.dashboard.DashboardResponsePackage.DashboardPatch;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.importer.HistoryImportedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.utility.exception.TooManyRequestsException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DashboardStreamRegistryTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    DashboardStreamRegistry registry = new DashboardStreamRegistry(
+            new DashboardVersions(mock(DashboardVersionRepository.class), mock(ApplicationEventPublisher.class), 64), meterRegistry, 2, 4, Duration.ofMinutes(1));
+
+    @Test
+    void shouldPushPatchesOnlyToTheUsersStreams() throws Exception {
+        RecordingEmitter mine = new RecordingEmitter();
+        RecordingEmitter theirs = new RecordingEmitter();
+        registry.register(1L, mine);
+        registry.register(2L, theirs);
+
+        registry.onDashboardChanged(new DashboardChangedEvent(1L, 1,
+                new TaskChangedEvent(TaskChangedEvent.Kind.COMPLETED, 1L, 7L, "Deep", TaskType.DEEP, 120, true, null)));
+        registry.onDashboardChanged(new DashboardChangedEvent(1L, 2, new WorkoutLoggedEvent(1L, LocalDate.now(), true, false)));
+        registry.onDashboardChanged(new DashboardChangedEvent(1L, 3, new HistoryImportedEvent(1L)));
+
+        // resync on connect, then the patches; the import is one resync
+        mine.awaitSends(4);
+        theirs.awaitSends(1);
+        assertEquals(List.of(DashboardPatch.RESYNC, DashboardPatch.TASK, DashboardPatch.FITNESS, DashboardPatch.RESYNC), mine.names());
+        assertEquals(List.of(DashboardPatch.RESYNC), theirs.names());
+        assertEquals(2.0, meterRegistry.get("dashboard.stream.connections").gauge().value());
+    }
+
+    @Test
+    void shouldCapConnectionsPerUser() {
+        registry.register(1L, new RecordingEmitter());
+        registry.register(1L, new RecordingEmitter());
+
+        assertThrows(TooManyRequestsException.class, () -> registry.register(1L, new RecordingEmitter()));
+        assertEquals(2, registry.connectionCount(1L));
+    }
+
+    @Test
+    void slowConsumerShouldGetResyncInsteadOfBacklog() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.block();
+        registry.register(1L, slow);
+        // the sender is now stuck on the connect resync
+        slow.awaitFirstAttempt();
+
+        for (int i = 0; i < 20; i++) {
+            registry.publish(1L, new DashboardPatch(DashboardPatch.PROFILE, "v" + i, null, null, null, null));
+        }
+        slow.unblock();
+
+        // never more than the queue capacity behind: the backlog collapsed into a resync
+        slow.awaitSends(5);
+        Thread.sleep(100);
+        List<String> names = slow.names();
+        assertEquals(5, names.size());
+        assertEquals(DashboardPatch.RESYNC, names.get(1));
+        assertEquals(3, names.stream().filter(DashboardPatch.PROFILE::equals).count());
+    }
+
+    @Test
+    void brokenStreamShouldBeRemoved() throws Exception {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.fail = true;
+        registry.register(1L, broken);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.connectionCount(1L) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, registry.connectionCount(1L));
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch attempted = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile boolean fail;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempted.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            if (fail) {
+                throw new IOException("client went away");
+            }
+            // the first part of a named event is "event:<name>\ndata:"
+            String head = builder.build().iterator().next().getData().toString();
+            sent.add(head.startsWith("event:") ? head.substring(6, head.indexOf('\n')) : head.trim());
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            gate.countDown();
+        }
+
+        void awaitFirstAttempt() throws InterruptedException {
+            assertTrue(attempted.await(5, TimeUnit.SECONDS));
+        }
+
+        void awaitSends(int n) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < n && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(sent.size() >= n, "sent " + sent);
+        }
+
+        List<String> names() {
+            return List.copyOf(sent);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.workshop.momentummosaicapp.dashboard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.fitness.WorkoutLoggedEvent;
+import org.workshop.momentummosaicapp.importer.HistoryImportedEvent;
+import org.workshop.momentummosaicapp.task.TaskBatchChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskChangedEvent;
+import org.workshop.momentummosaicapp.task.TaskType;
+import org.workshop.momentummosaicapp.task.TemplateTasksCreatedEvent;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.user.UserProfileChangedEvent;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "dashboard.versions.task-changes=3")
+@Import(DashboardVersions.class)
+@RecordApplicationEvents
+@Testcontainers
+class DashboardVersionsTest {
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+    @Autowired
+    DashboardVersions versions;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    ApplicationEvents events;
+
+    LocalDate today = LocalDate.now();
+
+    @Test
+    void tokenShouldOnlyParseForSameDay() {
+        Long userId = saveUser();
+        versions.onTaskChanged(taskEvent(userId, 10L));
+        DashboardVersions.Snapshot snapshot = versions.current(userId);
+        String token = versions.token(snapshot, today);
+
+        assertEquals(Optional.of(snapshot.version()), versions.parse(token, today));
+        assertTrue(versions.parse(token, today.plusDays(1)).isEmpty());
+        assertTrue(versions.parse("garbage", today).isEmpty());
+        assertTrue(versions.parse(null, today).isEmpty());
+    }
+
+    @Test
+    void shouldBumpOnlyTheChangedSection() {
+        Long userId = saveUser();
+        Long otherUserId = saveUser();
+        DashboardVersions.Snapshot before = versions.current(userId);
+
+        versions.onWorkoutLogged(new WorkoutLoggedEvent(userId, today, true, false));
+        DashboardVersions.Snapshot after = versions.current(userId);
+
+        assertTrue(after.version() > before.version());
+        assertTrue(after.changedSince(DashboardVersions.Section.FITNESS, before.version()));
+        assertFalse(after.changedSince(DashboardVersions.Section.TASKS, before.version()));
+        assertFalse(after.changedSince(DashboardVersions.Section.USER, before.version()));
+
+        versions.onUserProfileChanged(new UserProfileChangedEvent(userId));
+        assertTrue(versions.current(userId).changedSince(DashboardVersions.Section.USER, after.version()));
+        // other users are untouched
+        assertEquals(0, versions.current(otherUserId).version());
+    }
+
+    @Test
+    void shouldReportTaskChangesUntilTheyArePruned() {
+        Long userId = saveUser();
+        long base = versions.current(userId).version();
+        versions.onTaskChanged(taskEvent(userId, 10L));
+        versions.onTaskChanged(taskEvent(userId, 11L));
+        long current = versions.current(userId).version();
+
+        assertEquals(Optional.of(Set.of(10L, 11L)), versions.taskChanges(userId, base, current));
+
+        versions.onTaskChanged(taskEvent(userId, 12L));
+        versions.onTaskChanged(taskEvent(userId, 13L));
+        long latest = versions.current(userId).version();
+
+        // capacity 3: the change to task 10 is gone, so base can no longer be answered
+        assertTrue(versions.taskChanges(userId, base, latest).isEmpty());
+        assertEquals(Optional.of(Set.of(12L, 13L)), versions.taskChanges(userId, current, latest));
+    }
+
+    @Test
+    void aBatchShouldTakeOneVersion() {
+        Long userId = saveUser();
+        long base = versions.current(userId).version();
+
+        versions.onTaskBatchChanged(new TaskBatchChangedEvent(userId, List.of(taskEvent(userId, 10L), taskEvent(userId, 11L))));
+        long afterBatch = versions.current(userId).version();
+
+        assertEquals(base + 1, afterBatch);
+        assertEquals(Optional.of(Set.of(10L, 11L)), versions.taskChanges(userId, base, afterBatch));
+
+        // capacity 3: a bigger batch isn't listed, earlier tokens get the full dashboard
+        versions.onTaskBatchChanged(new TaskBatchChangedEvent(userId,
+                List.of(taskEvent(userId, 20L), taskEvent(userId, 21L), taskEvent(userId, 22L), taskEvent(userId, 23L))));
+        DashboardVersions.Snapshot afterBigBatch = versions.current(userId);
+        assertEquals(afterBatch + 1, afterBigBatch.version());
+        assertTrue(afterBigBatch.changedSince(DashboardVersions.Section.TASKS, afterBatch));
+        assertTrue(versions.taskChanges(userId, afterBatch, afterBigBatch.version()).isEmpty());
+    }
+
+    @Test
+    void bulkBumpsShouldForceAFullDashboard() {
+        Long userId = saveUser();
+        Long otherUserId = saveUser();
+        versions.onTaskChanged(taskEvent(userId, 10L));
+        long before = versions.current(userId).version();
+
+        versions.onTemplateTasksCreated(new TemplateTasksCreatedEvent(today, Map.of(userId, List.of(20L), otherUserId, List.of(21L))));
+        DashboardVersions.Snapshot afterTemplates = versions.current(userId);
+
+        assertTrue(afterTemplates.changedSince(DashboardVersions.Section.TASKS, before));
+        assertTrue(versions.taskChanges(userId, before, afterTemplates.version()).isEmpty());
+        assertEquals(1, versions.current(otherUserId).version());
+
+        versions.onHistoryImported(new HistoryImportedEvent(userId));
+        DashboardVersions.Snapshot afterImport = versions.current(userId);
+        assertTrue(afterImport.changedSince(DashboardVersions.Section.FITNESS, afterTemplates.version()));
+        assertTrue(versions.taskChanges(userId, afterTemplates.version(), afterImport.version()).isEmpty());
+    }
+
+    @Test
+    void everyBumpShouldPublishTheVersionItAssigned() {
+        Long userId = saveUser();
+        Long otherUserId = saveUser();
+
+        versions.onTaskChanged(taskEvent(userId, 10L));
+        assertEquals(List.of(versions.current(userId).version()), changedVersions(userId));
+        versions.onWorkoutLogged(new WorkoutLoggedEvent(userId, today, true, false));
+        versions.onTaskBatchChanged(new TaskBatchChangedEvent(userId,
+                List.of(taskEvent(userId, 20L), taskEvent(userId, 21L), taskEvent(userId, 22L), taskEvent(userId, 23L))));
+        versions.onHistoryImported(new HistoryImportedEvent(userId));
+        assertEquals(List.of(1L, 2L, 3L, 4L), changedVersions(userId));
+
+        versions.onTaskChanged(taskEvent(otherUserId, 30L));
+        versions.onTemplateTasksCreated(new TemplateTasksCreatedEvent(today, Map.of(userId, List.of(40L), otherUserId, List.of(41L))));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), changedVersions(userId));
+        assertEquals(List.of(1L, 2L), changedVersions(otherUserId));
+    }
+
+    List<Long> changedVersions(Long userId) {
+        return events.stream(DashboardChangedEvent.class)
+                .filter(event -> event.userId().equals(userId))
+                .map(DashboardChangedEvent::version)
+                .toList();
+    }
+
+    Long saveUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        return appUserRepository.save(user).getId();
+    }
+
+    static TaskChangedEvent taskEvent(Long userId, Long taskId) {
+        return new TaskChangedEvent(TaskChangedEvent.Kind.UPDATED, userId, taskId, "t", TaskType.SHALLOW, 30, false, null);
+    }
+}
@@ -0,0 +1,179 @@
+package org.workshop.momentummosaicapp.export;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports 100 and 1,000,000 tasks and samples the live heap (after a GC) while each export is
+ * being written. Streaming should retain the same few MB either way.
+ */
+@Tag("perf")
+@DataJpaTest(properties = "export.fetch-size=1000")
+@Import({ExportServiceImpl.class, ExportConnections.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class ExportHeapTest {
+
+    static final int SMALL = 100;
+    static final int LARGE = 1_000_000;
+    static final long MAX_GROWTH = 32L << 20;
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    ExportService exportService;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void heapShouldStayFlatRegardlessOfRowCount() throws IOException {
+        Long small = seedUser(SMALL);
+        Long large = seedUser(LARGE);
+
+        HeapSampler smallExport = export(small);
+        HeapSampler largeExport = export(large);
+
+        assertEquals(SMALL, smallExport.lines);
+        assertEquals(LARGE, largeExport.lines);
+        // a million hydrated rows would hold hundreds of MB
+        assertTrue(largeExport.growth() < MAX_GROWTH, "grew " + largeExport.growth() + " bytes");
+        assertTrue(largeExport.growth() - smallExport.growth() < MAX_GROWTH / 2,
+                "small " + smallExport.growth() + " vs large " + largeExport.growth());
+    }
+
+    @Test
+    void csvShouldQuoteAndKeepUtcInstants() throws IOException {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        Long userId = appUserRepository.save(user).getId();
+        jdbcTemplate.update("""
+                INSERT INTO task (user_id, title, task_type, duration_minutes, completed, completed_at, created_at)
+                VALUES (?, 'Read "Deep Work", ch. 1', 'DEEP', 120, TRUE, '2024-03-01 08:30:00', '2024-03-01 06:00:00')
+                """, userId);
+        List<Object[]> days = new ArrayList<>();
+        for (int d = 0; d < 3; d++) {
+            days.add(new Object[]{userId, LocalDate.of(2024, 3, 1).plusDays(d), d != 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO daily_fitness_log (user_id, date, did_workout) VALUES (?, ?, ?)", days);
+
+        ByteArrayOutputStream tasks = new ByteArrayOutputStream();
+        exportService.exportTasks(userId, ExportFormat.CSV).writeTo(tasks);
+        ByteArrayOutputStream workouts = new ByteArrayOutputStream();
+        exportService.exportWorkouts(userId, ExportFormat.NDJSON).writeTo(workouts);
+
+        String[] lines = tasks.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,title,taskType,durationMinutes,completed,completedAt,createdAt", lines[0]);
+        assertTrue(lines[1].endsWith(",\"Read \"\"Deep Work\"\", ch. 1\",DEEP,120,true,2024-03-01T08:30:00Z,2024-03-01T06:00:00Z"),
+                lines[1]);
+        assertEquals("""
+                {"date":"2024-03-01","didWorkout":true}
+                {"date":"2024-03-02","didWorkout":false}
+                {"date":"2024-03-03","didWorkout":true}
+                """, workouts.toString(StandardCharsets.UTF_8));
+    }
+
+    HeapSampler export(Long userId) throws IOException {
+        HeapSampler sampler = new HeapSampler();
+        exportService.exportTasks(userId, ExportFormat.NDJSON).writeTo(sampler);
+        return sampler;
+    }
+
+    // one INSERT ... SELECT over a generated 0..999999 sequence
+    Long seedUser(int tasks) {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        Long userId = appUserRepository.save(user).getId();
+        String digits = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4"
+                + " UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+        jdbcTemplate.update("""
+                INSERT INTO task (user_id, title, task_type, duration_minutes, completed, completed_at, created_at)
+                SELECT ?, CONCAT('task ', seq.n), ELT(MOD(seq.n, 4) + 1, 'DEEP', 'SHALLOW', 'FITNESS', 'OTHER'),
+                       120, MOD(seq.n, 2) = 0, IF(MOD(seq.n, 2) = 0, NOW(6), NULL), TIMESTAMPADD(SECOND, -seq.n, NOW(6))
+                  FROM (SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d + 100000 * g.d AS n
+                          FROM %1$s a CROSS JOIN %1$s b CROSS JOIN %1$s c CROSS JOIN %1$s e CROSS JOIN %1$s f CROSS JOIN %1$s g) seq
+                 WHERE seq.n < ?
+                """.formatted(digits), userId, tasks);
+        return userId;
+    }
+
+    // counts the rows written and records the live heap every few MB of output
+    static final class HeapSampler extends OutputStream {
+
+        static final long SAMPLE_EVERY = 8L << 20;
+
+        final long baseline = usedAfterGc();
+        long bytes;
+        long lines;
+        long nextSample;
+        long peak;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+            bytes += len;
+            // the first write is sampled too, so an export smaller than the buffers still gets one sample
+            if (bytes >= nextSample) {
+                nextSample = bytes + SAMPLE_EVERY;
+                peak = Math.max(peak, usedAfterGc());
+            }
+        }
+
+        long growth() {
+            return Math.max(0, peak - baseline);
+        }
+
+        static long usedAfterGc() {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+}
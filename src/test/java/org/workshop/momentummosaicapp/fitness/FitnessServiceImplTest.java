@@ -6,12 +6,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
 
 import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +25,10 @@ class FitnessServiceImplTest {
     DailyFitnessLogRepository dailyFitnessLogRepository;
     @Mock
     AppUserRepository appUserRepository;
+    @Mock
+    WorkoutStreakRepository streakRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
     @InjectMocks
     FitnessServiceImpl fitnessService;
 
@@ -37,6 +41,9 @@ class FitnessServiceImplTest {
         when(appUserRepository.findById(userId)).thenReturn(Optional.of(appUser));
         when(dailyFitnessLogRepository.findByAppUserIdAndDate(eq(userId),any(LocalDate.class))).thenReturn(Optional.empty());
         when(dailyFitnessLogRepository.save(any(DailyFitnessLog.class))).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        WorkoutStreak streak = new WorkoutStreak(userId);
+        streak.addWorkoutDay(LocalDate.now().minusDays(1));
+        when(streakRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(streak));
         fitnessService.markWorkoutToday(userId,true);
         ArgumentCaptor<DailyFitnessLog> captor =
                 ArgumentCaptor.forClass(DailyFitnessLog.class);
@@ -46,6 +53,33 @@ class FitnessServiceImplTest {
 
         DailyFitnessLog saved = captor.getValue();
         assertTrue(saved.isDidWorkout());
+        verify(eventPublisher).publishEvent(new WorkoutLoggedEvent(userId, LocalDate.now(), true, false));
+        // continued from yesterday without reading the history
+        assertEquals(2, streak.streakOn(LocalDate.now()));
+        verify(dailyFitnessLogRepository, never()).findWorkoutDates(userId);
+    }
+
+    @Test
+    void unmarkingTodayShouldRebuildTheStreakWhenItWasTheLongest() {
+        Long userId = 1L;
+        AppUser appUser = new AppUser();
+        appUser.setId(userId);
+        LocalDate today = LocalDate.now();
+        when(appUserRepository.findById(userId)).thenReturn(Optional.of(appUser));
+        when(dailyFitnessLogRepository.findByAppUserIdAndDate(userId, today))
+                .thenReturn(Optional.of(new DailyFitnessLog(1L, appUser, today, true, Instant.now())));
+        when(dailyFitnessLogRepository.save(any(DailyFitnessLog.class))).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        WorkoutStreak streak = new WorkoutStreak(userId);
+        streak.addWorkoutDay(today.minusDays(1));
+        streak.addWorkoutDay(today);
+        when(streakRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(streak));
+        when(dailyFitnessLogRepository.findWorkoutDates(userId)).thenReturn(List.of(today.minusDays(1)));
+
+        fitnessService.markWorkoutToday(userId, false);
+
+        assertEquals(0, streak.streakOn(today));
+        assertEquals(1, streak.streakOn(today.minusDays(1)));
+        assertEquals(1, streak.getLongestStreak());
     }
 
     @Test
@@ -69,11 +103,12 @@ class FitnessServiceImplTest {
         appUser.setEnabled(true);
         appUser.setId(userId);
         LocalDate  today =LocalDate.now();
-        when(dailyFitnessLogRepository.findByAppUserId(userId)).thenReturn(
-                new ArrayList<>(  List.of(new DailyFitnessLog(1L,appUser,today,true, Instant.now())
-                        ,new DailyFitnessLog(2L,appUser,today.minusDays(1),true, Instant.now()),new DailyFitnessLog(3L,appUser,today.minusDays(2),true, Instant.now()))));
+        WorkoutStreak state = new WorkoutStreak(userId);
+        state.rebuild(List.of(today.minusDays(2), today.minusDays(1), today));
+        when(streakRepository.findById(userId)).thenReturn(Optional.of(state));
         int streak = fitnessService.getWorkoutStreak(userId);
         assertEquals(3,streak);
+        verifyNoInteractions(dailyFitnessLogRepository);
 
     }
     @Test
@@ -82,10 +117,9 @@ class FitnessServiceImplTest {
         AppUser user = new AppUser();
         user.setId(userId);
 
-        when(dailyFitnessLogRepository.findByAppUserId(userId))
-                .thenReturn(new ArrayList<>(List.of(
-                        new DailyFitnessLog(1L, user, LocalDate.now().minusDays(1), true, Instant.now())
-                )));
+        WorkoutStreak state = new WorkoutStreak(userId);
+        state.addWorkoutDay(LocalDate.now().minusDays(1));
+        when(streakRepository.findById(userId)).thenReturn(Optional.of(state));
 
         int streak = fitnessService.getWorkoutStreak(userId);
 
@@ -0,0 +1,127 @@
+package org.workshop.momentummosaicapp.fitness;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives WorkoutStreak through random marks and un-marks of today, back-dated imports and day
+ * rollovers, applied the way FitnessServiceImpl applies them, and after every step compares it
+ * with a full scan of the logs: the walk back from today that getWorkoutStreak used to do, and
+ * the longest run and newest workout day counted from scratch.
+ */
+class WorkoutStreakTest {
+
+    @Test
+    void stateShouldMatchAFullScanOfTheLogs() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            Map<LocalDate, Boolean> logs = new TreeMap<>();
+            WorkoutStreak streak = new WorkoutStreak(1L);
+            LocalDate today = LocalDate.of(2026, 1, 1);
+
+            for (int step = 0; step < 500; step++) {
+                int op = random.nextInt(10);
+                if (op < 4) {
+                    markToday(streak, logs, today, random.nextInt(4) > 0);
+                } else if (op < 6) {
+                    markToday(streak, logs, today, false);
+                } else if (op < 8) {
+                    importDay(streak, logs, today.minusDays(1 + random.nextInt(20)), random.nextBoolean());
+                } else {
+                    today = today.plusDays(1 + random.nextInt(random.nextInt(10) == 0 ? 4 : 1));
+                }
+                String context = "seed " + seed + " step " + step;
+                assertEquals(fullScanStreak(logs, today), streak.streakOn(today), context);
+                assertEquals(longestRun(logs), streak.getLongestStreak(), context);
+                assertEquals(newestWorkout(logs), streak.getLastWorkoutDate(), context);
+            }
+        }
+    }
+
+    @Test
+    void unmarkingTheNewestDayOfAShorterRunShouldNotNeedTheLogs() {
+        WorkoutStreak streak = new WorkoutStreak(1L);
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        streak.rebuild(List.of(today.minusDays(9), today.minusDays(8), today.minusDays(7),
+                today.minusDays(1), today));
+
+        assertTrue(streak.removeWorkoutDay(today));
+        assertEquals(0, streak.streakOn(today));
+        assertEquals(1, streak.streakOn(today.minusDays(1)));
+        assertEquals(3, streak.getLongestStreak());
+        // the last day of a run can't be taken off without finding the run before it
+        assertFalse(streak.removeWorkoutDay(today.minusDays(1)));
+    }
+
+    // markWorkoutToday: the day's log is written, the streak changes only if the flag did
+    static void markToday(WorkoutStreak streak, Map<LocalDate, Boolean> logs, LocalDate today, boolean didWorkout) {
+        Boolean previous = logs.put(today, didWorkout);
+        if (previous != null && previous == didWorkout || previous == null && !didWorkout) {
+            return;
+        }
+        boolean applied = didWorkout ? streak.addWorkoutDay(today) : streak.removeWorkoutDay(today);
+        if (!applied) {
+            streak.rebuild(workoutDays(logs));
+        }
+    }
+
+    // importWorkouts: a day that already has a log is skipped
+    static void importDay(WorkoutStreak streak, Map<LocalDate, Boolean> logs, LocalDate day, boolean didWorkout) {
+        if (logs.putIfAbsent(day, didWorkout) != null || !didWorkout) {
+            return;
+        }
+        if (!streak.addWorkoutDay(day)) {
+            streak.rebuild(workoutDays(logs));
+        }
+    }
+
+    static List<LocalDate> workoutDays(Map<LocalDate, Boolean> logs) {
+        return logs.entrySet().stream().filter(Map.Entry::getValue).map(Map.Entry::getKey).sorted().toList();
+    }
+
+    // the algorithm getWorkoutStreak ran over every log before the state existed
+    static int fullScanStreak(Map<LocalDate, Boolean> logs, LocalDate today) {
+        List<Map.Entry<LocalDate, Boolean>> sorted = new ArrayList<>(logs.entrySet());
+        sorted.sort(Map.Entry.<LocalDate, Boolean>comparingByKey(Comparator.reverseOrder()));
+        int streak = 0;
+        LocalDate currentDate = today;
+        for (Map.Entry<LocalDate, Boolean> log : sorted) {
+            if (log.getKey().isAfter(today)) {
+                continue;
+            }
+            if (log.getKey().equals(currentDate) && log.getValue()) {
+                streak++;
+                currentDate = currentDate.minusDays(1);
+            } else {
+                break;
+            }
+        }
+        return streak;
+    }
+
+    static int longestRun(Map<LocalDate, Boolean> logs) {
+        int longest = 0;
+        int run = 0;
+        LocalDate previous = null;
+        for (LocalDate day : workoutDays(logs)) {
+            run = day.minusDays(1).equals(previous) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = day;
+        }
+        return longest;
+    }
+
+    static LocalDate newestWorkout(Map<LocalDate, Boolean> logs) {
+        List<LocalDate> days = workoutDays(logs);
+        return days.isEmpty() ? null : days.getLast();
+    }
+}
@@ -0,0 +1,151 @@
+package org.workshop.momentummosaicapp.importer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.export.ExportFormat;
+import org.workshop.momentummosaicapp.fitness.FitnessServiceImpl;
+import org.workshop.momentummosaicapp.task.TaskSearchIndex;
+import org.workshop.momentummosaicapp.task.TaskServiceImpl;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs both imports with a batch size of two, so every file spans several transactions, and
+ * checks the report line by line against what ended up in the database.
+ */
+@DataJpaTest(properties = "import.batch-size=2")
+@Import({ImportServiceImpl.class, TaskServiceImpl.class, TaskSearchIndex.class, FitnessServiceImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class ImportServiceImplTest {
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    ImportService importService;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void taskImportShouldKeepValidLinesAndReportTheRest() throws IOException {
+        Long userId = seedUser();
+
+        String report = importTasks(userId, """
+                title,taskType,durationMinutes,completed,completedAt
+                Read,DEEP,120,true,2024-03-01T08:30:00Z
+                Short deep,DEEP,30,false,
+                "Multi
+                line",SHALLOW,15,false,
+                Bad,SHALLOW,abc,false,
+                Walk,FITNESS,45,true,2024-03-02T07:00:00Z
+                Done,OTHER,10,true,
+                """);
+
+        assertEquals("""
+                {"type":"error","line":3,"error":"Deep Task should be at least 2 hours"}
+                {"type":"progress","records":2,"imported":1,"failed":1}
+                {"type":"error","line":6,"error":"durationMinutes is not a whole number: abc"}
+                {"type":"progress","records":5,"imported":3,"failed":2}
+                {"type":"error","line":8,"error":"completedAt is required for a completed task"}
+                {"type":"progress","records":6,"imported":3,"failed":3}
+                {"type":"done","records":6,"imported":3,"failed":3}
+                """, report);
+        assertEquals(List.of("Multi\nline", "Read", "Walk"), jdbcTemplate.queryForList(
+                "SELECT title FROM task WHERE user_id = ? ORDER BY title", String.class, userId));
+        assertEquals(List.of("DEEP 1 120", "FITNESS 1 45"), jdbcTemplate.queryForList("""
+                SELECT CONCAT(task_type, ' ', completed_count, ' ', completed_minutes) FROM user_task_stats
+                 WHERE user_id = ? AND completed_count > 0 ORDER BY task_type
+                """, String.class, userId));
+    }
+
+    @Test
+    void workoutImportShouldRejectDuplicateDaysInTheFileAndInTheDatabase() throws IOException {
+        Long userId = seedUser();
+        String file = """
+                {"date":"2024-03-01","didWorkout":true}
+                {"date":"2024-03-01","didWorkout":false}
+                not json
+                {"date":"2024-03-02","didWorkout":[1]}
+                {"date":"2999-01-01","didWorkout":true}
+                {"date":"2024-03-02","didWorkout":false}
+                """;
+
+        String first = importWorkouts(userId, file);
+        String second = importWorkouts(userId, file);
+
+        assertEquals("""
+                {"type":"error","line":2,"error":"A log for 2024-03-01 already exists"}
+                {"type":"progress","records":2,"imported":1,"failed":1}
+                {"type":"error","line":3,"error":"Malformed JSON at column 1"}
+                {"type":"error","line":4,"error":"Nested values are not supported"}
+                {"type":"error","line":5,"error":"Date is in the future"}
+                {"type":"progress","records":6,"imported":2,"failed":4}
+                {"type":"done","records":6,"imported":2,"failed":4}
+                """, first);
+        assertTrue(second.endsWith("{\"type\":\"done\",\"records\":6,\"imported\":0,\"failed\":6}\n"), second);
+        assertEquals(List.of(true, false), jdbcTemplate.queryForList(
+                "SELECT did_workout FROM daily_fitness_log WHERE user_id = ? ORDER BY date", Boolean.class, userId));
+    }
+
+    @Test
+    void unknownUserShouldFailBeforeAnythingIsWritten() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(ResourceNotFoundException.class, () -> importService.importTasks(
+                Long.MAX_VALUE, ExportFormat.NDJSON, new ByteArrayInputStream(new byte[0]), out));
+        assertEquals(0, out.size());
+    }
+
+    String importTasks(Long userId, String csv) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importTasks(userId, ExportFormat.CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    String importWorkouts(Long userId, String ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importWorkouts(userId, ExportFormat.NDJSON, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    Long seedUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        return appUserRepository.save(user).getId();
+    }
+}
@@ -0,0 +1,92 @@
+package org.workshop.momentummosaicapp.importer;
+
+import org.junit.jupiter.api.Test;
+import org.workshop.momentummosaicapp.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    @Test
+    void csvShouldReadQuotedFieldsAcrossLines() throws IOException {
+        RecordReader reader = open(ExportFormat.CSV, 1000,
+                "title,taskType\r\n\"a, \"\"b\"\"\",DEEP\r\n\"two\nlines\",SHALLOW\r\n\r\nx\r\n");
+
+        ImportRecord first = reader.next();
+        assertEquals(2, first.line());
+        assertEquals("a, \"b\"", first.fields().get("title"));
+        assertEquals("DEEP", first.fields().get("taskType"));
+
+        ImportRecord second = reader.next();
+        assertEquals(3, second.line());
+        assertEquals("two\nlines", second.fields().get("title"));
+
+        // the blank line is skipped, the short record is reported at the line it is on
+        ImportRecord third = reader.next();
+        assertEquals(6, third.line());
+        assertEquals("Expected 2 fields, found 1", third.error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csvShouldSkipAnOverlongRecordAndGoOn() throws IOException {
+        RecordReader reader = open(ExportFormat.CSV, 10, "a,b\nshort,1\n" + "y".repeat(50) + ",1\nok,2\n");
+
+        assertEquals("short", reader.next().fields().get("a"));
+        ImportRecord tooLong = reader.next();
+        assertEquals(3, tooLong.line());
+        assertEquals("Record is longer than 10 characters", tooLong.error());
+        ImportRecord next = reader.next();
+        assertEquals(4, next.line());
+        assertEquals("2", next.fields().get("b"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void ndjsonShouldReadFlatObjectsAndReportBadLines() throws IOException {
+        RecordReader reader = open(ExportFormat.NDJSON, 1000, """
+                {"title":"Read \\"x\\"","durationMinutes":120,"completed":true,"completedAt":null}
+                  \s
+                {"title":{"a":1}}
+                {"title":"x"} trailing
+                {"title":"caf\\u00e9"}
+                """);
+
+        ImportRecord first = reader.next();
+        assertEquals(1, first.line());
+        assertEquals("Read \"x\"", first.fields().get("title"));
+        assertEquals("120", first.fields().get("durationMinutes"));
+        assertEquals("true", first.fields().get("completed"));
+        assertTrue(first.fields().containsKey("completedAt"));
+        assertNull(first.fields().get("completedAt"));
+
+        ImportRecord nested = reader.next();
+        assertEquals(3, nested.line());
+        assertEquals("Nested values are not supported", nested.error());
+
+        ImportRecord trailing = reader.next();
+        assertEquals(4, trailing.line());
+        assertTrue(trailing.error().startsWith("Malformed JSON"), trailing.error());
+
+        assertEquals("café", reader.next().fields().get("title"));
+        assertNull(reader.next());
+    }
+
+    @Test
+    void ndjsonShouldSkipAnOverlongLineAndGoOn() throws IOException {
+        RecordReader reader = open(ExportFormat.NDJSON, 16, "{\"title\":\"" + "y".repeat(40) + "\"}\n{\"title\":\"ok\"}\n");
+
+        assertEquals("Record is longer than 16 characters", reader.next().error());
+        ImportRecord next = reader.next();
+        assertEquals(2, next.line());
+        assertEquals("ok", next.fields().get("title"));
+        assertNull(reader.next());
+    }
+
+    static RecordReader open(ExportFormat format, int maxChars, String input) {
+        return RecordReader.open(format, new StringReader(input), maxChars);
+    }
+}
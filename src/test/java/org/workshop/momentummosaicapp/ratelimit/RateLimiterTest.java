@@ -0,0 +1,132 @@
+package org.workshop.momentummosaicapp.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketShouldAllowBurstThenRefillAtConfiguredRate() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(3, 1, now);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+
+        long wait = bucket.tryAcquire(now);
+        assertEquals(SECOND, wait);
+
+        // exactly one token comes back after a second
+        assertEquals(0, bucket.tryAcquire(now + SECOND));
+        assertTrue(bucket.tryAcquire(now + SECOND) > 0);
+    }
+
+    @Test
+    void bucketShouldNeverHandOutMoreThanCapacityUnderContention() throws Exception {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(100, 0.001, now);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        if (bucket.tryAcquire(now) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void bucketShouldBecomeIdleOnceRefilled() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(2, 1, now);
+        bucket.tryAcquire(now);
+
+        assertFalse(bucket.isIdle(now, 10 * SECOND));
+        assertTrue(bucket.isIdle(now + 12 * SECOND, 10 * SECOND));
+    }
+
+    @Test
+    void shouldThrottlePerUserAndPerGroup() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimiter limiter = new RateLimiter(properties(true), registry);
+
+        assertTrue(limiter.tryAcquire("GET", "/api/dashboard/1", "a@test.com").isEmpty());
+        assertTrue(limiter.tryAcquire("GET", "/api/dashboard/1", "a@test.com").isEmpty());
+        var throttled = limiter.tryAcquire("GET", "/api/dashboard/1", "a@test.com");
+
+        assertTrue(throttled.isPresent());
+        assertEquals("reads", throttled.get().group());
+        assertTrue(throttled.get().retryAfterNanos() > 0);
+
+        // other users and other groups have their own buckets
+        assertTrue(limiter.tryAcquire("GET", "/api/dashboard/1", "b@test.com").isEmpty());
+        assertTrue(limiter.tryAcquire("POST", "/api/tasks/1", "a@test.com").isEmpty());
+
+        assertEquals(1.0, registry.get("ratelimit.throttled").tag("group", "reads").counter().count());
+    }
+
+    @Test
+    void shouldIgnoreUnmatchedRoutesAndDisabledLimiter() {
+        RateLimiter limiter = new RateLimiter(properties(true), new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("GET", "/api/tasks/1", "a@test.com").isEmpty());
+        }
+        assertEquals(0, limiter.bucketCount());
+
+        RateLimiter disabled = new RateLimiter(properties(false), new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(disabled.tryAcquire("GET", "/api/dashboard/1", "a@test.com").isEmpty());
+        }
+    }
+
+    @Test
+    void shouldEvictIdleBuckets() {
+        RateLimiter limiter = new RateLimiter(
+                new RateLimitProperties(true, Duration.ofNanos(1), Map.of(
+                        "fast", new RateLimitProperties.Group(List.of("GET"), List.of("/api/fast/**"), 1, 1_000_000_000),
+                        "slow", new RateLimitProperties.Group(List.of("GET"), List.of("/api/slow/**"), 1, 0.0001)
+                )),
+                new SimpleMeterRegistry()
+        );
+        limiter.tryAcquire("GET", "/api/fast/1", "a@test.com");
+        limiter.tryAcquire("GET", "/api/slow/1", "a@test.com");
+        assertEquals(2, limiter.bucketCount());
+
+        limiter.evictIdleBuckets();
+
+        // the fast bucket is full again, the slow one still owes tokens
+        assertEquals(1, limiter.bucketCount());
+    }
+
+    private static RateLimitProperties properties(boolean enabled) {
+        return new RateLimitProperties(enabled, Duration.ofMinutes(10), Map.of(
+                "reads", new RateLimitProperties.Group(List.of("GET"), List.of("/api/dashboard/**"), 2, 0.01),
+                "writes", new RateLimitProperties.Group(List.of("POST"), List.of("/api/tasks/**"), 1, 0.01)
+        ));
+    }
+}
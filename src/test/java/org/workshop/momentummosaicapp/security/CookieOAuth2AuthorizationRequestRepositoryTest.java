@@ -0,0 +1,69 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CookieOAuth2AuthorizationRequestRepositoryTest {
+
+    CookieOAuth2AuthorizationRequestRepository repository = new CookieOAuth2AuthorizationRequestRepository(
+            new JwtService(100, Duration.ofMinutes(10)),
+            new TokenCookies(false, Duration.ofHours(24))
+    );
+
+    @Test
+    void shouldRoundTripAuthorizationRequestThroughCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(authorizationRequest(), new MockHttpServletRequest(), response);
+
+        Cookie cookie = response.getCookie(CookieOAuth2AuthorizationRequestRepository.AUTHORIZATION_REQUEST_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(cookie.isHttpOnly());
+
+        MockHttpServletRequest callback = new MockHttpServletRequest();
+        callback.setCookies(cookie);
+        OAuth2AuthorizationRequest loaded = repository.loadAuthorizationRequest(callback);
+
+        assertNotNull(loaded);
+        assertEquals("state-1", loaded.getState());
+        assertEquals("client", loaded.getClientId());
+    }
+
+    @Test
+    void shouldRejectTamperedCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(authorizationRequest(), new MockHttpServletRequest(), response);
+        String value = response.getCookie(CookieOAuth2AuthorizationRequestRepository.AUTHORIZATION_REQUEST_COOKIE).getValue();
+
+        MockHttpServletRequest callback = new MockHttpServletRequest();
+        callback.setCookies(new Cookie(
+                CookieOAuth2AuthorizationRequestRepository.AUTHORIZATION_REQUEST_COOKIE,
+                "A" + value.substring(1)
+        ));
+
+        assertNull(repository.loadAuthorizationRequest(callback));
+    }
+
+    @Test
+    void shouldNotCreateSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        repository.saveAuthorizationRequest(authorizationRequest(), request, new MockHttpServletResponse());
+
+        assertNull(request.getSession(false));
+    }
+
+    private OAuth2AuthorizationRequest authorizationRequest() {
+        return OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+                .clientId("client")
+                .redirectUri("http://localhost:8080/login/oauth2/code/google")
+                .state("state-1")
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package org.workshop.momentummosaicapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.workshop.momentummosaicapp.user.AppUser;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token verification cost, before and after the reusable parser and cache.
+ * Run with {@code main} from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.workshop.momentummosaicapp.security.JwtAuthBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET_KEY =
+            "MY_SUPER_SECRET_KEY_MY_SUPER_SECRET_KEY_123456";
+
+    private JwtService cachedJwtService;
+    private JwtService uncachedJwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtService = new JwtService(10_000, Duration.ofMinutes(10));
+        uncachedJwtService = new JwtService(0, Duration.ofMinutes(10));
+
+        AppUser user = new AppUser();
+        user.setEmail("bench@example.com");
+        token = cachedJwtService.generateToken(user);
+    }
+
+    // what JwtAuthenticationFilter used to do: three parses, each with a fresh key and parser
+    @Benchmark
+    public boolean legacyPerRequest() {
+        String email = legacyClaims(token).getSubject();
+        return email.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken verifyWithoutCache() {
+        return uncachedJwtService.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyWithCache() {
+        return cachedJwtService.verify(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(
+                Base64.getEncoder().encodeToString(SECRET_KEY.getBytes())
+        );
+        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
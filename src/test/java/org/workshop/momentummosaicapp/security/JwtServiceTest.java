@@ -0,0 +1,93 @@
+package org.workshop.momentummosaicapp.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.Role;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    JwtService jwtService = new JwtService(100, Duration.ofMinutes(10));
+
+    @Test
+    void shouldVerifyGeneratedToken() {
+        String token = jwtService.generateToken(user("test@example.com"));
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("test@example.com", verified.email());
+        assertTrue(verified.expiresAt().isAfter(Instant.now()));
+        assertTrue(jwtService.isTokenValid(token, "test@example.com"));
+        assertFalse(jwtService.isTokenValid(token, "other@example.com"));
+    }
+
+    @Test
+    void shouldCarryUserClaims() {
+        AppUser appUser = user("test@example.com");
+        appUser.setId(7L);
+        appUser.setProfileCompleted(true);
+
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(appUser));
+
+        assertTrue(verified.hasUserClaims());
+        assertEquals(7L, verified.userId());
+        assertEquals(Role.USER, verified.role());
+        assertTrue(verified.profileCompleted());
+        assertEquals(7L, verified.toSnapshot().id());
+    }
+
+    @Test
+    void shouldServeRepeatedVerificationFromCache() {
+        String token = jwtService.generateToken(user("test@example.com"));
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = jwtService.generateToken(user("test@example.com"));
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertFalse(jwtService.isTokenValid(tampered, "test@example.com"));
+    }
+
+    @Test
+    void shouldRejectSignedTokenWithUnknownRole() {
+        String token = Jwts.builder()
+                .subject("test@example.com")
+                .claim(JwtService.ROLE_CLAIM, "SUPERUSER")
+                .expiration(Date.from(Instant.now().plus(Duration.ofMinutes(10))))
+                .signWith(jwtService.signingKey())
+                .compact();
+
+        assertThrows(IllegalArgumentException.class, () -> jwtService.verify(token));
+        assertFalse(jwtService.isTokenValid(token, "test@example.com"));
+    }
+
+    @Test
+    void shouldVerifyWithoutCache() {
+        JwtService uncached = new JwtService(0, Duration.ofMinutes(10));
+        String token = uncached.generateToken(user("test@example.com"));
+
+        assertEquals("test@example.com", uncached.verify(token).email());
+        assertNotSame(uncached.verify(token), uncached.verify(token));
+    }
+
+    private AppUser user(String email) {
+        AppUser user = new AppUser();
+        user.setEmail(email);
+        user.setEnabled(true);
+        return user;
+    }
+}
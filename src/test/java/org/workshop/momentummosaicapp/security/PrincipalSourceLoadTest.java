@@ -0,0 +1,108 @@
+package org.workshop.momentummosaicapp.security;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the same authenticated endpoint in both principal modes and compares
+ * how many JDBC statements each request costs. The user cache is disabled so
+ * DATABASE mode shows its cold-path cost.
+ */
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "security.user-cache.max-size=0",
+        "security.revocation.refresh-interval=PT1H",
+        "spring.security.oauth2.client.registration.google.client-id=test-client",
+        "spring.security.oauth2.client.registration.google.client-secret=test-secret"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+class PrincipalSourceLoadTest {
+
+    static final int REQUESTS = 200;
+
+    // TaskServiceImpl.getActiveTasks: user lookup + task query
+    static final double CONTROLLER_STATEMENTS = 2.0;
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    JwtService jwtService;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    double statementsPerRequest() throws Exception {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        user.setProfileCompleted(true);
+        user = appUserRepository.save(user);
+        String token = jwtService.generateToken(user);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get("/api/tasks/active/" + user.getId())
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+        return (double) statistics.getPrepareStatementCount() / REQUESTS;
+    }
+
+    @Nested
+    @TestPropertySource(properties = "security.principal-source=database")
+    class DatabaseMode {
+        @Test
+        void shouldLoadUserOncePerRequest() throws Exception {
+            assertEquals(CONTROLLER_STATEMENTS + 1, statementsPerRequest());
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "security.principal-source=token")
+    class TokenMode {
+        @Test
+        void shouldAuthorizeWithoutJdbc() throws Exception {
+            assertEquals(CONTROLLER_STATEMENTS, statementsPerRequest());
+        }
+    }
+}
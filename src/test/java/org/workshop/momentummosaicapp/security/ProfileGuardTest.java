@@ -0,0 +1,50 @@
+package org.workshop.momentummosaicapp.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserPrincipal;
+import org.workshop.momentummosaicapp.user.Role;
+import org.workshop.momentummosaicapp.user.UserSnapshot;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileGuardTest {
+
+    ProfileGuard profileGuard = new ProfileGuard();
+
+    @Test
+    void tokenUserShouldOnlyOwnTheirOwnId() {
+        Authentication authentication = authenticated(
+                new CurrentUser(new UserSnapshot(7L, "test@example.com", "Test", Role.USER, true, true)));
+
+        assertTrue(profileGuard.isOwner(authentication, 7L));
+        assertFalse(profileGuard.isOwner(authentication, 8L));
+        assertFalse(profileGuard.isOwner(authentication, null));
+    }
+
+    @Test
+    void sessionUserShouldOnlyOwnTheirOwnId() {
+        AppUser user = new AppUser();
+        user.setId(7L);
+        user.setEmail("test@example.com");
+        Authentication authentication = authenticated(new AppUserPrincipal(user, Map.of()));
+
+        assertTrue(profileGuard.isOwner(authentication, 7L));
+        assertFalse(profileGuard.isOwner(authentication, 8L));
+    }
+
+    @Test
+    void shouldNotOwnAnythingWithoutAKnownPrincipal() {
+        assertFalse(profileGuard.isOwner(null, 7L));
+        assertFalse(profileGuard.isOwner(authenticated("test@example.com"), 7L));
+    }
+
+    static Authentication authenticated(Object principal) {
+        return new UsernamePasswordAuthenticationToken(principal, null, List.of());
+    }
+}
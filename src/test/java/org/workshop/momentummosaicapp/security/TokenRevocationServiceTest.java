@@ -0,0 +1,94 @@
+package org.workshop.momentummosaicapp.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+    @Mock
+    RevokedTokenRepository revokedTokenRepository;
+
+    TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 1_000, 0.001);
+    }
+
+    @Test
+    void shouldAnswerNotRevokedWithoutDatabase() {
+        assertFalse(tokenRevocationService.isRevoked(token("jti-1")));
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void shouldConfirmRevocationAgainstDatabase() {
+        VerifiedToken token = token("jti-1");
+        tokenRevocationService.revoke(token);
+        when(revokedTokenRepository.existsById("jti-1")).thenReturn(true);
+
+        assertTrue(tokenRevocationService.isRevoked(token));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        verify(revokedTokenRepository).existsById("jti-1");
+    }
+
+    @Test
+    void shouldRestoreRevocationsOnRebuild() {
+        when(revokedTokenRepository.findActiveTokenIds(any(Instant.class))).thenReturn(List.of("jti-2"));
+        when(revokedTokenRepository.existsById("jti-2")).thenReturn(true);
+
+        tokenRevocationService.rebuild();
+
+        assertTrue(tokenRevocationService.isRevoked(token("jti-2")));
+    }
+
+    @Test
+    void refreshShouldOnlyReadNewRevocations() {
+        when(revokedTokenRepository.findActiveTokenIds(any(Instant.class))).thenReturn(List.of());
+        when(revokedTokenRepository.findRevokedSince(any(Instant.class), any(Instant.class))).thenReturn(List.of("jti-3"));
+        when(revokedTokenRepository.existsById("jti-3")).thenReturn(true);
+
+        tokenRevocationService.rebuild();
+        tokenRevocationService.refresh();
+
+        assertTrue(tokenRevocationService.isRevoked(token("jti-3")));
+        verify(revokedTokenRepository, times(1)).findActiveTokenIds(any(Instant.class));
+    }
+
+    @Test
+    void purgeShouldRebuildFromTheWholeTable() {
+        when(revokedTokenRepository.deleteExpired(any(Instant.class))).thenReturn(1);
+        when(revokedTokenRepository.findActiveTokenIds(any(Instant.class))).thenReturn(List.of("jti-4"));
+        when(revokedTokenRepository.existsById("jti-4")).thenReturn(true);
+
+        tokenRevocationService.purgeExpired();
+
+        assertTrue(tokenRevocationService.isRevoked(token("jti-4")));
+        verify(revokedTokenRepository, never()).findRevokedSince(any(Instant.class), any(Instant.class));
+    }
+
+    @Test
+    void shouldIgnoreTokensWithoutId() {
+        tokenRevocationService.revoke(token(null));
+
+        assertFalse(tokenRevocationService.isRevoked(token(null)));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    private VerifiedToken token(String tokenId) {
+        Instant now = Instant.now();
+        return new VerifiedToken(tokenId, "test@example.com", null, null, null, null, now, now.plus(1, ChronoUnit.HOURS));
+    }
+}
@@ -0,0 +1,122 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.dashboard.DashboardReadRepository;
+import org.workshop.momentummosaicapp.dashboard.DashboardTaskTotals;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// a chunk size of 2 makes the archiver walk the ids in several transactions
+@DataJpaTest(properties = {"task-archive.chunk-size=2", "task-archive.older-than=P365D"})
+@Import({TaskArchiver.class, UserTaskStatsVerifier.class, SimpleMeterRegistry.class})
+@RecordApplicationEvents
+@Testcontainers
+class TaskArchiverTest {
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+    @Autowired
+    TaskArchiver archiver;
+    @Autowired
+    UserTaskStatsVerifier verifier;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    ArchivedTaskRepository archivedTaskRepository;
+    @Autowired
+    UserTaskStatsRepository statsRepository;
+    @Autowired
+    DashboardReadRepository dashboardReadRepository;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    ApplicationEvents events;
+
+    @Test
+    void oldCompletedTasksShouldMoveWithoutChangingTheTotals() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        appUserRepository.save(user);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Task oldDeep = saveTask(user, TaskType.DEEP, 120, now.minus(Duration.ofDays(400)));
+        Task oldShallow = saveTask(user, TaskType.SHALLOW, 30, now.minus(Duration.ofDays(500)));
+        Task recent = saveTask(user, TaskType.FITNESS, 45, now.minus(Duration.ofDays(1)));
+        Task active = saveTask(user, TaskType.OTHER, 10, null);
+        statsRepository.increment(user.getId(), "DEEP", 1, 120);
+        statsRepository.increment(user.getId(), "SHALLOW", 1, 30);
+        statsRepository.increment(user.getId(), "FITNESS", 1, 45);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, archiver.archiveAll());
+        entityManager.clear();
+
+        assertEquals(List.of(recent.getId()), taskRepository.findByAppUserIdAndCompletedTrue(user.getId()).stream().map(Task::getId).toList());
+        assertEquals(List.of(active.getId()), taskRepository.findByAppUserIdAndCompletedFalse(user.getId()).stream().map(Task::getId).toList());
+        List<ArchivedTask> archived = archivedTaskRepository.findByAppUserId(user.getId());
+        assertEquals(List.of(oldDeep.getId(), oldShallow.getId()), archived.stream().map(ArchivedTask::getId).sorted().toList());
+        assertEquals(oldDeep.getCompletedAt(), archivedTaskRepository.findById(oldDeep.getId()).orElseThrow().getCompletedAt());
+
+        // the counters still match once archived rows are counted, and the live totals agree with them
+        assertEquals(0, verifier.verifyAll());
+        DashboardTaskTotals totals = dashboardReadRepository.findTaskTotals(user.getId());
+        assertEquals(1, totals.getActiveCount().intValue());
+        assertEquals(3, totals.getCompletedCount().intValue());
+        assertEquals(120, totals.getDeepMinutes().intValue());
+        assertEquals(30, totals.getShallowMinutes().intValue());
+        assertEquals(45, totals.getFitnessMinutes().intValue());
+
+        // one event per chunk that moved something, naming the user's moved tasks
+        List<TasksArchivedEvent> published = events.stream(TasksArchivedEvent.class).toList();
+        assertTrue(published.stream().noneMatch(event -> event.taskIdsByUser().isEmpty()));
+        assertEquals(List.of(oldDeep.getId(), oldShallow.getId()), published.stream()
+                .flatMap(event -> event.taskIdsByUser().getOrDefault(user.getId(), List.of()).stream())
+                .sorted()
+                .toList());
+
+        assertEquals(0, archiver.archiveAll());
+    }
+
+    Task saveTask(AppUser user, TaskType type, int minutes, Instant completedAt) {
+        Task task = new Task();
+        task.setAppUser(user);
+        task.setTitle(type.name());
+        task.setTaskType(type);
+        task.setDurationMinutes(minutes);
+        task.setCompleted(completedAt != null);
+        task.setCompletedAt(completedAt);
+        return taskRepository.save(task);
+    }
+}
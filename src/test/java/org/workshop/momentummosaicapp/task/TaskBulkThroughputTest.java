@@ -0,0 +1,187 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.dashboard.DashboardProjectionReconciler;
+import org.workshop.momentummosaicapp.dashboard.DashboardProjector;
+import org.workshop.momentummosaicapp.dashboard.DashboardVersions;
+import org.workshop.momentummosaicapp.task.dto.TaskRequest;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Creates and completes the same number of tasks through the single-item calls and the
+ * bulk calls, each call in its own transaction, and compares the throughput of both. The
+ * dashboard listeners run too, so their statements are part of what is measured.
+ */
+@Tag("perf")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "task.batch.max-items=500",
+        "dashboard.read-model.mode=projection"
+})
+@Import({TaskServiceImpl.class, TaskSearchIndex.class, DashboardVersions.class, DashboardProjector.class,
+        DashboardProjectionReconciler.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class TaskBulkThroughputTest {
+
+    static final int TASKS = 1_000;
+    static final int BATCH = 500;
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test")
+                    .withUrlParam("rewriteBatchedStatements", "true");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    DashboardStatementCounter dashboardStatements;
+
+    @Test
+    void bulkCallsShouldOutpaceSingleCalls() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Long singleUser = seedUser();
+        Long bulkUser = seedUser();
+
+        statistics.clear();
+        dashboardStatements.reset();
+        long start = System.nanoTime();
+        List<Long> singleIds = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            singleIds.add(taskService.createTask("Task " + i, singleUser, TaskType.SHALLOW, 30).getId());
+        }
+        for (Long id : singleIds) {
+            taskService.completeTask(singleUser, id);
+        }
+        long singleNanos = System.nanoTime() - start;
+        long singleStatements = statistics.getPrepareStatementCount();
+        long singleDashboardStatements = dashboardStatements.reset();
+
+        statistics.clear();
+        start = System.nanoTime();
+        List<Long> bulkIds = new ArrayList<>();
+        for (int from = 0; from < TASKS; from += BATCH) {
+            List<TaskRequest> requests = new ArrayList<>();
+            for (int i = from; i < from + BATCH; i++) {
+                requests.add(new TaskRequest("Task " + i, TaskType.SHALLOW, 30));
+            }
+            for (BulkTaskResult result : taskService.createTasks(bulkUser, requests)) {
+                assertTrue(result.isSucceeded());
+                bulkIds.add(result.taskId());
+            }
+        }
+        for (int from = 0; from < TASKS; from += BATCH) {
+            List<BulkTaskResult> results = taskService.completeTasks(bulkUser, bulkIds.subList(from, from + BATCH));
+            assertTrue(results.stream().allMatch(BulkTaskResult::isSucceeded));
+        }
+        long bulkNanos = System.nanoTime() - start;
+        long bulkStatements = statistics.getPrepareStatementCount();
+        long bulkDashboardStatements = dashboardStatements.reset();
+
+        Set<Long> ids = new HashSet<>(singleIds);
+        ids.addAll(bulkIds);
+        assertEquals(2 * TASKS, ids.size());
+        assertEquals(TASKS, taskService.getCompletedTasks(bulkUser).size());
+        assertEquals(List.of(new TaskTypeTotals(TaskType.SHALLOW, (long) TASKS, TASKS * 30L)),
+                taskService.getCompletedTotals(bulkUser, null, null));
+        // inserts and updates leave in batches of 50 instead of one statement per task
+        assertTrue(bulkStatements * 10 < singleStatements,
+                "bulk " + bulkStatements + " vs single " + singleStatements);
+        // a version bump and a projection update per batch, plus the first batch creating the projection row
+        long batches = 2L * TASKS / BATCH;
+        assertTrue(bulkDashboardStatements <= 2 * batches + 1,
+                "bulk " + bulkDashboardStatements + " dashboard statements vs single " + singleDashboardStatements);
+        assertTrue(bulkNanos < singleNanos,
+                String.format("bulk %.0f tasks/s vs single %.0f tasks/s", perSecond(bulkNanos), perSecond(singleNanos)));
+    }
+
+    double perSecond(long nanos) {
+        return TASKS / (nanos / 1_000_000_000.0);
+    }
+
+    Long seedUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Bulk");
+        user.setEnabled(true);
+        return appUserRepository.save(user).getId();
+    }
+
+    // statements that touch the dashboard tables, as Hibernate prepares them
+    static class DashboardStatementCounter implements StatementInspector {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("dashboard_")) {
+                count.incrementAndGet();
+            }
+            return sql;
+        }
+
+        long reset() {
+            return count.getAndSet(0);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        DashboardStatementCounter dashboardStatementCounter() {
+            return new DashboardStatementCounter();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(DashboardStatementCounter counter) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+        }
+    }
+}
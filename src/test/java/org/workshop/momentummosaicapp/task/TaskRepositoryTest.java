@@ -1,8 +1,10 @@
 package org.workshop.momentummosaicapp.task;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
@@ -11,6 +13,9 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +42,9 @@ class TaskRepositoryTest {
     @Autowired
     AppUserRepository appUserRepository;
 
+    @Autowired
+    EntityManager entityManager;
+
     @Test
     void findByAppUserIdAndCompletedFalse() {
         AppUser user = new AppUser();
@@ -69,4 +77,70 @@ class TaskRepositoryTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void completedPagesShouldWalkEveryTaskOnce() {
+        AppUser user = new AppUser();
+        user.setEmail("pages@example.com");
+        user.setEnabled(true);
+        appUserRepository.save(user);
+        // two tasks share a completedAt, so the id has to break the tie
+        Instant base = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 7; i++) {
+            Task task = new Task();
+            task.setAppUser(user);
+            task.setTitle("Task " + i);
+            task.setTaskType(TaskType.SHALLOW);
+            task.setDurationMinutes(30);
+            task.setCompleted(true);
+            task.setCompletedAt(base.minusSeconds(i == 4 ? 3 : i));
+            taskRepository.save(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        List<Task> page = taskRepository.findCompletedPage(user.getId(), Limit.of(3));
+        while (!page.isEmpty()) {
+            page.forEach(t -> seen.add(t.getId()));
+            Task last = page.get(page.size() - 1);
+            page = taskRepository.findCompletedPageAfter(user.getId(), last.getCompletedAt(), last.getId(), Limit.of(3));
+        }
+
+        assertEquals(7, seen.size());
+        assertEquals(7, seen.stream().distinct().count());
+    }
+
+    @Test
+    void conditionalCompleteShouldMatchOnlyOnceAndOnlyForTheOwner() {
+        AppUser owner = new AppUser();
+        owner.setEmail("owner@example.com");
+        owner.setEnabled(true);
+        appUserRepository.save(owner);
+        AppUser other = new AppUser();
+        other.setEmail("other@example.com");
+        other.setEnabled(true);
+        appUserRepository.save(other);
+        Task task = new Task();
+        task.setAppUser(owner);
+        task.setTitle("Thesis");
+        task.setTaskType(TaskType.DEEP);
+        task.setDurationMinutes(120);
+        task.setCompleted(false);
+        taskRepository.save(task);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        assertEquals(0, taskRepository.completeIfActive(task.getId(), other.getId(), now));
+        assertEquals(0, taskRepository.updateIfActive(task.getId(), other.getId(), "Hack", TaskType.SHALLOW, 30, now));
+        assertEquals(1, taskRepository.updateIfActive(task.getId(), owner.getId(), "Thesis", TaskType.DEEP, 150, now));
+        assertEquals(1, taskRepository.completeIfActive(task.getId(), owner.getId(), now));
+        assertEquals(0, taskRepository.completeIfActive(task.getId(), owner.getId(), now));
+        assertEquals(0, taskRepository.updateIfActive(task.getId(), owner.getId(), "Late", TaskType.DEEP, 150, now));
+
+        Task stored = taskRepository.findById(task.getId()).orElseThrow();
+        assertTrue(stored.isCompleted());
+        assertEquals(now, stored.getCompletedAt());
+        assertEquals("Thesis", stored.getTitle());
+        assertEquals(150, stored.getDurationMinutes());
+    }
+}
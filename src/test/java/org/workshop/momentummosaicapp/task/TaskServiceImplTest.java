@@ -5,16 +5,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.workshop.momentummosaicapp.task.dto.TaskRequest;
 import org.workshop.momentummosaicapp.user.AppUser;
 import org.workshop.momentummosaicapp.user.AppUserRepository;
 import org.workshop.momentummosaicapp.utility.exception.BadRequestException;
 import org.workshop.momentummosaicapp.utility.exception.ForbiddenException;
+import org.workshop.momentummosaicapp.utility.exception.ResourceNotFoundException;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -24,6 +33,14 @@ class TaskServiceImplTest {
     TaskRepository taskRepository;
     @Mock
     AppUserRepository appUserRepository;
+    @Mock
+    UserTaskStatsRepository taskStatsRepository;
+    @Mock
+    ArchivedTaskRepository archivedTaskRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    TaskSearchIndex searchIndex;
 
     @InjectMocks
     TaskServiceImpl taskService;
@@ -44,6 +61,7 @@ class TaskServiceImplTest {
         assertEquals(appUser, task.getAppUser());
         verify(appUserRepository).findById(userId);
         verify(taskRepository).save(task);
+        verify(eventPublisher).publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.CREATED, task));
 
     }
     @Test
@@ -71,13 +89,28 @@ class TaskServiceImplTest {
         task.setDurationMinutes(60);
         task.setId(1L);
         task.setAppUser(appUser);
+        when(taskRepository.updateIfActive(eq(1L), eq(userId), eq("Gym"), eq(TaskType.FITNESS), eq(60), any(Instant.class))).thenReturn(1);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(taskRepository.save(task)).thenReturn(task);
-        taskService.updateTask(1L,1L,"Gym",TaskType.FITNESS,60);
-        assertEquals("Gym",task.getTitle());
-        assertEquals(60, task.getDurationMinutes());
-        assertEquals(appUser, task.getAppUser());
-        verify(taskRepository).save(task);
+        Task updated = taskService.updateTask(1L,1L,"Gym",TaskType.FITNESS,60);
+        assertEquals("Gym",updated.getTitle());
+        assertEquals(60, updated.getDurationMinutes());
+        assertEquals(appUser, updated.getAppUser());
+        verify(taskRepository, never()).save(any(Task.class));
+        verify(eventPublisher).publishEvent(TaskChangedEvent.of(TaskChangedEvent.Kind.UPDATED, task));
+    }
+
+    @Test
+    void updatingCompletedTaskShouldFail() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        Task task = new Task();
+        task.setAppUser(appUser);
+        task.setCompleted(true);
+        when(taskRepository.updateIfActive(eq(1L), eq(1L), eq("Gym"), eq(TaskType.FITNESS), eq(60), any(Instant.class))).thenReturn(0);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.updateTask(1L, 1L, "Gym", TaskType.FITNESS, 60));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -86,19 +119,118 @@ class TaskServiceImplTest {
         AppUser appUser = new AppUser();
         appUser.setEnabled(true);
         appUser.setId(userId);
-        when(appUserRepository.findById(userId)).thenReturn(Optional.of(appUser));
+        // the row as read back after the conditional update
         Task task = new Task();
-        task.setCompleted(false);
+        task.setCompleted(true);
+        task.setCompletedAt(Instant.now());
         task.setTaskType(TaskType.FITNESS);
         task.setTitle("Gym");
         task.setDurationMinutes(60);
         task.setId(1L);
         task.setAppUser(appUser);
+        when(taskRepository.completeIfActive(eq(1L), eq(userId), any(Instant.class))).thenReturn(1);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        Task completed = taskService.completeTask(userId,1L);
+        assertTrue(completed.isCompleted());
+        verify(taskRepository, never()).save(any(Task.class));
+        verifyNoInteractions(appUserRepository);
+        verify(taskStatsRepository).increment(userId, "FITNESS", 1, 60);
+    }
+
+    @Test
+    void completingTwiceShouldNotCountTwice() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        Task task = new Task();
+        task.setId(1L);
+        task.setAppUser(appUser);
+        task.setCompleted(true);
+        when(taskRepository.completeIfActive(eq(1L), eq(1L), any(Instant.class))).thenReturn(0);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        taskService.completeTask(userId,1L);
+
+        assertSame(task, taskService.completeTask(1L, 1L));
+        verifyNoInteractions(taskStatsRepository, eventPublisher);
+    }
+
+    @Test
+    void completingAnArchivedTaskShouldReturnItUnchanged() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        ArchivedTask archived = archivedTask(1L, appUser, TaskType.DEEP, 120);
+        when(taskRepository.completeIfActive(eq(1L), eq(1L), any(Instant.class))).thenReturn(0);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedTaskRepository.findById(1L)).thenReturn(Optional.of(archived));
+
+        Task task = taskService.completeTask(1L, 1L);
+
         assertTrue(task.isCompleted());
-        verify(taskRepository).findById(1L);
-        verify(appUserRepository).findById(userId);
+        assertEquals(archived.getCompletedAt(), task.getCompletedAt());
+        verifyNoInteractions(taskStatsRepository, eventPublisher);
+    }
+
+    @Test
+    void deletingAnArchivedTaskShouldDecrementStats() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        ArchivedTask archived = archivedTask(1L, appUser, TaskType.DEEP, 120);
+        when(taskRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(archivedTaskRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(archived));
+
+        taskService.deleteTask(1L, 1L);
+
+        verify(archivedTaskRepository).delete(archived);
+        verify(taskRepository, never()).delete(any(Task.class));
+        verify(taskStatsRepository).increment(1L, "DEEP", -1, -120);
+        verify(eventPublisher).publishEvent(argThat((TaskChangedEvent event) ->
+                event.kind() == TaskChangedEvent.Kind.DELETED && event.completed()));
+    }
+
+    @Test
+    void deletingSomeoneElsesArchivedTaskShouldBeForbidden() {
+        AppUser owner = new AppUser();
+        owner.setId(2L);
+        when(taskRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(archivedTaskRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(archivedTask(1L, owner, TaskType.DEEP, 120)));
+
+        assertThrows(ForbiddenException.class, () -> taskService.deleteTask(1L, 1L));
+        verify(archivedTaskRepository, never()).delete(any());
+        verifyNoInteractions(taskStatsRepository, eventPublisher);
+    }
+
+    @Test
+    void completingSomeoneElsesTaskShouldBeForbidden() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        AppUser owner = new AppUser();
+        owner.setId(2L);
+        Task task = new Task();
+        task.setAppUser(owner);
+        when(taskRepository.completeIfActive(eq(1L), eq(1L), any(Instant.class))).thenReturn(0);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        assertThrows(ForbiddenException.class, () -> taskService.completeTask(1L, 1L));
+        verifyNoInteractions(taskStatsRepository);
+    }
+
+    @Test
+    void deletingCompletedTaskShouldDecrementStats() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        Task task = new Task();
+        task.setId(1L);
+        task.setAppUser(appUser);
+        task.setTaskType(TaskType.DEEP);
+        task.setDurationMinutes(120);
+        task.setCompleted(true);
+        when(taskRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(task));
+
+        taskService.deleteTask(1L, 1L);
+
+        verify(taskRepository).delete(task);
+        verify(taskStatsRepository).increment(1L, "DEEP", -1, -120);
     }
     @Test
     void shouldFailWhenUpdatingTaskNotOwnedByUser() {
@@ -114,4 +246,277 @@ class TaskServiceImplTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    void invalidUpdateOfSomeoneElsesTaskShouldBeForbidden() {
+        Task task = new Task();
+        AppUser owner = new AppUser();
+        owner.setId(2L);
+        task.setAppUser(owner);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        assertThrows(ForbiddenException.class, () -> taskService.updateTask(1L, 1L, "Hack", TaskType.DEEP, 30));
+        verify(taskRepository, never()).updateIfActive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void invalidUpdateOfAMissingTaskShouldBeNotFound() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedTaskRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.updateTask(1L, 1L, "Deep", TaskType.DEEP, 30));
+    }
+
+    @Test
+    void invalidUpdateOfOwnTaskShouldBeBadRequest() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(activeTask(1L, appUser, TaskType.SHALLOW, 30)));
+
+        assertThrows(BadRequestException.class, () -> taskService.updateTask(1L, 1L, "Deep", TaskType.DEEP, 30));
+        verify(taskRepository, never()).updateIfActive(any(), any(), any(), any(), any(), any());
+    }
+
+
+    @Test
+    void completedPageShouldContinueAfterItsCursor() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Instant now = Instant.now();
+        Task newest = completedTask(3L, now);
+        Task middle = completedTask(2L, now.minusSeconds(60));
+        Task oldest = completedTask(1L, now.minusSeconds(120));
+        when(taskRepository.findCompletedPage(1L, Limit.of(3))).thenReturn(List.of(newest, middle, oldest));
+
+        TaskPage first = taskService.getCompletedTasksPage(1L, null, 2);
+
+        assertEquals(List.of(newest, middle), first.tasks());
+        assertNotNull(first.nextCursor());
+        TaskCursor cursor = TaskCursor.decode(first.nextCursor());
+        assertEquals(middle.getCompletedAt(), cursor.at());
+        assertEquals(2L, cursor.id());
+
+        when(taskRepository.findCompletedPageAfter(eq(1L), eq(middle.getCompletedAt()), eq(2L), eq(Limit.of(3)))).thenReturn(List.of(oldest));
+
+        TaskPage last = taskService.getCompletedTasksPage(1L, first.nextCursor(), 2);
+
+        assertEquals(List.of(oldest), last.tasks());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void completedPageShouldInterleaveArchivedTasks() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Instant now = Instant.now();
+        // imported with an old completedAt, so still live while older tasks are archived
+        Task live = completedTask(5L, now.minusSeconds(90));
+        Task newest = completedTask(6L, now);
+        ArchivedTask archived = new ArchivedTask();
+        archived.setId(2L);
+        archived.setCompletedAt(now.minusSeconds(60));
+        ArchivedTask oldest = new ArchivedTask();
+        oldest.setId(1L);
+        oldest.setCompletedAt(now.minusSeconds(120));
+        when(taskRepository.findCompletedPage(1L, Limit.of(3))).thenReturn(List.of(newest, live));
+        when(archivedTaskRepository.findCompletedPage(1L, Limit.of(3))).thenReturn(List.of(archived, oldest));
+
+        TaskPage page = taskService.getCompletedTasksPage(1L, null, 2);
+
+        assertEquals(List.of(6L, 2L), page.tasks().stream().map(Task::getId).toList());
+        assertTrue(page.tasks().get(1).isCompleted());
+        TaskCursor cursor = TaskCursor.decode(page.nextCursor());
+        assertEquals(archived.getCompletedAt(), cursor.at());
+        assertEquals(2L, cursor.id());
+    }
+
+    @Test
+    void completedTotalsForARangeShouldAddArchivedTasks() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Instant to = Instant.now();
+        Instant from = to.minusSeconds(86_400 * 730L);
+        when(taskRepository.sumCompletedByType(1L, from, to)).thenReturn(List.of(new TaskTypeTotals(TaskType.SHALLOW, 2L, 60L)));
+        when(archivedTaskRepository.sumByType(1L, from, to)).thenReturn(List.of(
+                new TaskTypeTotals(TaskType.DEEP, 1L, 120L), new TaskTypeTotals(TaskType.SHALLOW, 1L, 15L)));
+
+        assertEquals(List.of(new TaskTypeTotals(TaskType.DEEP, 1L, 120L), new TaskTypeTotals(TaskType.SHALLOW, 3L, 75L)),
+                taskService.getCompletedTotals(1L, from, to));
+    }
+
+    @Test
+    void searchShouldKeepIndexOrderAndReadArchivedHits() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Task live = completedTask(7L, Instant.now());
+        ArchivedTask archived = new ArchivedTask();
+        archived.setId(3L);
+        archived.setCompletedAt(Instant.now().minusSeconds(86_400 * 400L));
+        // 9 was deleted after the index saw it
+        when(searchIndex.search(1L, "deep wo", null, null, 20)).thenReturn(List.of(3L, 9L, 7L));
+        when(taskRepository.findAllById(List.of(3L, 9L, 7L))).thenReturn(List.of(live));
+        when(archivedTaskRepository.findAllById(List.of(3L, 9L))).thenReturn(List.of(archived));
+
+        List<Task> found = taskService.searchTasks(1L, "deep wo", null, null, 20);
+
+        assertEquals(List.of(3L, 7L), found.stream().map(Task::getId).toList());
+        assertTrue(found.getFirst().isCompleted());
+        assertThrows(BadRequestException.class, () -> taskService.searchTasks(1L, "  ", null, null, 20));
+    }
+
+    @Test
+    void shouldRejectMalformedCursorAndPageSize() {
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+
+        assertThrows(BadRequestException.class, () -> taskService.getActiveTasksPage(1L, "not a cursor", 10));
+        assertThrows(BadRequestException.class, () -> taskService.getActiveTasksPage(1L, null, 0));
+        verifyNoInteractions(taskRepository);
+    }
+
+    Task completedTask(Long id, Instant completedAt) {
+        Task task = new Task();
+        task.setId(id);
+        task.setCompleted(true);
+        task.setCompletedAt(completedAt);
+        return task;
+    }
+
+    @Test
+    void bulkCreateShouldReportEachItem() {
+        ReflectionTestUtils.setField(taskService, "maxBatchItems", 10);
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+
+        List<BulkTaskResult> results = taskService.createTasks(1L, List.of(
+                new TaskRequest("Email", TaskType.SHALLOW, 30),
+                new TaskRequest("Thesis", TaskType.DEEP, 90),
+                new TaskRequest(" ", TaskType.SHALLOW, 30)));
+
+        assertTrue(results.get(0).isSucceeded());
+        assertEquals("Email", results.get(0).task().getTitle());
+        assertEquals("Deep Task should be at least 2 hours", results.get(1).error());
+        assertEquals("Title is Required", results.get(2).error());
+        verify(taskRepository).saveAll(argThat((Iterable<Task> tasks) ->
+                List.of(results.get(0).task()).equals(List.copyOf((Collection<Task>) tasks))));
+        verify(eventPublisher, times(1)).publishEvent(argThat((TaskBatchChangedEvent event) ->
+                event.userId().equals(1L) && event.changes().size() == 1
+                        && event.changes().getFirst().kind() == TaskChangedEvent.Kind.CREATED));
+    }
+
+    @Test
+    void bulkCompleteShouldIncrementStatsOncePerType() {
+        ReflectionTestUtils.setField(taskService, "maxBatchItems", 10);
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        AppUser other = new AppUser();
+        other.setId(2L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Task first = activeTask(10L, appUser, TaskType.DEEP, 120);
+        Task second = activeTask(11L, appUser, TaskType.DEEP, 150);
+        Task foreign = activeTask(12L, other, TaskType.DEEP, 120);
+        when(taskRepository.findAllByIdForUpdate(List.of(10L, 11L, 12L, 13L))).thenReturn(List.of(first, second, foreign));
+
+        List<BulkTaskResult> results = taskService.completeTasks(1L, List.of(10L, 11L, 12L, 13L));
+
+        assertTrue(first.isCompleted());
+        assertTrue(second.isCompleted());
+        assertFalse(foreign.isCompleted());
+        assertEquals("Task does not belong to this user", results.get(2).error());
+        assertEquals("task doesn't exist", results.get(3).error());
+        verify(taskStatsRepository).increment(1L, "DEEP", 2, 270);
+        verifyNoMoreInteractions(taskStatsRepository);
+        verify(eventPublisher).publishEvent(argThat((TaskBatchChangedEvent event) ->
+                event.taskIds().equals(List.of(10L, 11L))
+                        && event.changes().stream().allMatch(change -> change.kind() == TaskChangedEvent.Kind.COMPLETED)));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void bulkDeleteShouldDecrementStatsByTheLockedState() {
+        ReflectionTestUtils.setField(taskService, "maxBatchItems", 10);
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Task active = activeTask(10L, appUser, TaskType.SHALLOW, 30);
+        // completed by another transaction before the batch took its lock
+        Task completed = activeTask(11L, appUser, TaskType.DEEP, 120);
+        completed.setCompleted(true);
+        when(taskRepository.findAllByIdForUpdate(List.of(10L, 11L))).thenReturn(List.of(active, completed));
+
+        List<BulkTaskResult> results = taskService.deleteTasks(1L, List.of(10L, 11L, 10L));
+
+        assertTrue(results.stream().allMatch(BulkTaskResult::isSucceeded));
+        verify(taskRepository).deleteAllInBatch(argThat((Iterable<Task> tasks) ->
+                List.of(active, completed).equals(List.copyOf((Collection<Task>) tasks))));
+        verify(taskStatsRepository).increment(1L, "DEEP", -1, -120);
+        verifyNoMoreInteractions(taskStatsRepository);
+    }
+
+    @Test
+    void bulkDeleteShouldRemoveArchivedTasksFromTheArchive() {
+        ReflectionTestUtils.setField(taskService, "maxBatchItems", 10);
+        AppUser appUser = new AppUser();
+        appUser.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(appUser));
+        Task active = activeTask(10L, appUser, TaskType.SHALLOW, 30);
+        ArchivedTask archived = archivedTask(11L, appUser, TaskType.DEEP, 120);
+        when(taskRepository.findAllByIdForUpdate(List.of(10L, 11L, 12L))).thenReturn(List.of(active));
+        when(archivedTaskRepository.findAllByIdForUpdate(List.of(11L, 12L))).thenReturn(List.of(archived));
+
+        List<BulkTaskResult> results = taskService.deleteTasks(1L, List.of(10L, 11L, 12L));
+
+        assertTrue(results.get(0).isSucceeded());
+        assertTrue(results.get(1).isSucceeded());
+        assertEquals("task doesn't exist", results.get(2).error());
+        verify(taskRepository).deleteAllInBatch(argThat((Iterable<Task> tasks) ->
+                List.of(active).equals(List.copyOf((Collection<Task>) tasks))));
+        verify(archivedTaskRepository).deleteAllInBatch(argThat((Iterable<ArchivedTask> tasks) ->
+                List.of(archived).equals(List.copyOf((Collection<ArchivedTask>) tasks))));
+        verify(taskStatsRepository).increment(1L, "DEEP", -1, -120);
+        verifyNoMoreInteractions(taskStatsRepository);
+    }
+
+    @Test
+    void bulkDeleteForAnUnknownUserShouldBeNotFound() {
+        ReflectionTestUtils.setField(taskService, "maxBatchItems", 10);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.deleteTasks(1L, List.of(10L)));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void bulkCallsShouldRejectOversizedBatches() {
+        ReflectionTestUtils.setField(taskService, "maxBatchItems", 2);
+
+        assertThrows(BadRequestException.class, () -> taskService.deleteTasks(1L, List.of(1L, 2L, 3L)));
+        assertThrows(BadRequestException.class, () -> taskService.deleteTasks(1L, List.of()));
+        verifyNoInteractions(taskRepository);
+    }
+
+    Task activeTask(Long id, AppUser owner, TaskType type, int minutes) {
+        Task task = new Task();
+        task.setId(id);
+        task.setAppUser(owner);
+        task.setTaskType(type);
+        task.setDurationMinutes(minutes);
+        return task;
+    }
+
+    ArchivedTask archivedTask(Long id, AppUser owner, TaskType type, int minutes) {
+        ArchivedTask task = new ArchivedTask();
+        task.setId(id);
+        task.setAppUser(owner);
+        task.setTitle(type.name());
+        task.setTaskType(type);
+        task.setDurationMinutes(minutes);
+        task.setCompletedAt(Instant.now().minusSeconds(86_400 * 400L));
+        return task;
+    }
+}
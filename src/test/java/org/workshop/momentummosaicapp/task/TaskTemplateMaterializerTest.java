@@ -0,0 +1,149 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// partitions of two users and transactions of two templates, so a run spans many of both
+@DataJpaTest(properties = {
+        "task-templates.partition-size=2",
+        "task-templates.batch-size=2",
+        "task-templates.parallelism=3"
+})
+@Import({TaskTemplateMaterializer.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class TaskTemplateMaterializerTest {
+
+    static final LocalDate SATURDAY = LocalDate.of(2026, 10, 17);
+    static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    TaskTemplateMaterializer materializer;
+    @Autowired
+    TaskTemplateRepository templateRepository;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM task WHERE scheduled_on IS NOT NULL");
+        jdbcTemplate.update("DELETE FROM task_template");
+    }
+
+    @Test
+    void eachDueTemplateShouldGetOneTaskPerDay() {
+        AppUser first = seedUser();
+        AppUser second = seedUser();
+        AppUser third = seedUser();
+        TaskTemplate gym = saveTemplate(first, "Gym", TaskType.FITNESS, 60, Set.of());
+        saveTemplate(first, "Deep work", TaskType.DEEP, 120, EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        saveTemplate(second, "Read", TaskType.SHALLOW, 30, Set.of());
+        saveTemplate(second, "Stretch", TaskType.FITNESS, 15, Set.of(DayOfWeek.SATURDAY));
+        saveTemplate(second, "Walk", TaskType.FITNESS, 45, Set.of());
+        saveTemplate(third, "Plan", TaskType.OTHER, 10, Set.of());
+
+        assertEquals(5, materializer.materialize(SATURDAY));
+        assertEquals(List.of("Gym"), titles(first, SATURDAY));
+        assertEquals(List.of("Read", "Stretch", "Walk"), titles(second, SATURDAY));
+        assertEquals(List.of("Plan"), titles(third, SATURDAY));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE scheduled_on = ? AND completed = TRUE", Integer.class, SATURDAY));
+
+        // a rerun finds nothing missing
+        assertEquals(0, materializer.materialize(SATURDAY));
+
+        assertEquals(5, materializer.materialize(MONDAY));
+        assertEquals(List.of("Deep work", "Gym"), titles(first, MONDAY));
+        assertEquals(List.of("Read", "Walk"), titles(second, MONDAY));
+
+        // tasks outlive their template
+        templateRepository.delete(gym);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE user_id = ? AND title = 'Gym' AND template_id IS NULL", Integer.class, first.getId()));
+    }
+
+    @Test
+    void racingRunsShouldCreateEachTaskOnce() {
+        int templates = 0;
+        for (int user = 0; user < 6; user++) {
+            AppUser appUser = seedUser();
+            for (int i = 0; i < 5; i++) {
+                saveTemplate(appUser, "Routine " + i, TaskType.SHALLOW, 20, Set.of());
+                templates++;
+            }
+        }
+
+        CompletableFuture<Long> one = CompletableFuture.supplyAsync(() -> materializer.materialize(MONDAY));
+        CompletableFuture<Long> other = CompletableFuture.supplyAsync(() -> materializer.materialize(MONDAY));
+
+        // a transaction that lost the race on uk_task_template_day rolled back, so its tasks aren't counted
+        assertEquals(templates, one.join() + other.join());
+        assertEquals(templates, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT template_id) FROM task WHERE scheduled_on = ?", Integer.class, MONDAY));
+        assertEquals(templates, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE scheduled_on = ?", Integer.class, MONDAY));
+        assertEquals(0, materializer.materialize(MONDAY));
+    }
+
+    List<String> titles(AppUser user, LocalDate day) {
+        return jdbcTemplate.queryForList(
+                "SELECT title FROM task WHERE user_id = ? AND scheduled_on = ? ORDER BY title", String.class, user.getId(), day);
+    }
+
+    TaskTemplate saveTemplate(AppUser user, String title, TaskType type, int minutes, Set<DayOfWeek> days) {
+        TaskTemplate template = new TaskTemplate();
+        template.setAppUser(user);
+        template.setTitle(title);
+        template.setTaskType(type);
+        template.setDurationMinutes(minutes);
+        template.setDaysOfWeek(TaskTemplate.daysMask(days));
+        return templateRepository.save(template);
+    }
+
+    AppUser seedUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setName("Templates");
+        user.setEnabled(true);
+        return appUserRepository.save(user);
+    }
+}
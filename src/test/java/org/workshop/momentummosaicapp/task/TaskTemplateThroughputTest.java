@@ -0,0 +1,120 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Materializes a day of templates with the production batch settings and checks that, at
+ * the measured rate, a million templates would fit the window.
+ */
+@Tag("perf")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "task-templates.partition-size=250",
+        "task-templates.parallelism=4",
+        "task-templates.batch-size=500",
+        "task-templates.window=PT30M"
+})
+@Import({TaskTemplateMaterializer.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class TaskTemplateThroughputTest {
+
+    static final int USERS = 2_000;
+    static final int TEMPLATES_PER_USER = 10;
+    static final int TEMPLATES = USERS * TEMPLATES_PER_USER;
+    static final Duration WINDOW = Duration.ofMinutes(30);
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test")
+                    .withUrlParam("rewriteBatchedStatements", "true");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    TaskTemplateMaterializer materializer;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void aMillionTemplatesShouldFitTheWindow() {
+        seedTemplates();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDate day = LocalDate.of(2026, 10, 19);
+
+        statistics.clear();
+        long start = System.nanoTime();
+        long created = materializer.materialize(day);
+        long nanos = System.nanoTime() - start;
+        long statements = statistics.getPrepareStatementCount();
+
+        double perSecond = TEMPLATES / (nanos / 1_000_000_000.0);
+        Duration projected = Duration.ofSeconds((long) Math.ceil(1_000_000 / perSecond));
+        assertEquals(TEMPLATES, created);
+        assertEquals(TEMPLATES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE scheduled_on = ?", Integer.class, day));
+        // inserts leave in batches of 50 instead of one statement per task
+        assertTrue(statements * 10 < TEMPLATES, "statements " + statements);
+        assertTrue(projected.compareTo(WINDOW) < 0, "1M templates would take " + projected);
+
+        // the rerun only reads
+        assertEquals(0, materializer.materialize(day));
+    }
+
+    void seedTemplates() {
+        String prefix = UUID.randomUUID().toString();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{prefix + "-" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO app_user (email, enabled, profile_completed, role) VALUES (?, TRUE, TRUE, 'USER')", users);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM app_user WHERE email LIKE ?", Long.class, prefix + "-%");
+        List<Object[]> templates = new ArrayList<>();
+        for (Long userId : userIds) {
+            for (int i = 0; i < TEMPLATES_PER_USER; i++) {
+                templates.add(new Object[]{"Routine " + i, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO task_template (created_at, days_of_week, duration_minutes, task_type, title, user_id)
+                VALUES (NOW(6), 127, 30, 'SHALLOW', ?, ?)
+                """, templates);
+    }
+}
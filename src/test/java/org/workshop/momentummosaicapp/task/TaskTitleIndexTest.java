@@ -0,0 +1,89 @@
+package org.workshop.momentummosaicapp.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTitleIndexTest {
+
+    @Test
+    void shouldMatchEveryTermAsAWordPrefix() {
+        TaskTitleIndex index = new TaskTitleIndex();
+        index.put(1L, "Write thesis chapter 3", TaskType.DEEP, false);
+        index.put(2L, "Review thesis draft", TaskType.SHALLOW, true);
+        index.put(3L, "Rewrite CV", TaskType.SHALLOW, false);
+
+        assertEquals(List.of(2L, 1L), search(index, "thes"));
+        assertEquals(List.of(1L), search(index, "THESIS, wri"));
+        assertEquals(List.of(3L), search(index, "rew"));
+        assertEquals(List.of(), search(index, "thesis cv"));
+        // prefixes match at the start of a word only
+        assertEquals(List.of(), search(index, "esis"));
+    }
+
+    @Test
+    void shouldFilterByStateAndType() {
+        TaskTitleIndex index = new TaskTitleIndex();
+        index.put(1L, "Gym legs", TaskType.FITNESS, true);
+        index.put(2L, "Gym push", TaskType.FITNESS, false);
+        index.put(3L, "Gym membership email", TaskType.SHALLOW, false);
+
+        assertEquals(List.of(3L, 2L), index.search(List.of("gym"), false, null, 10));
+        assertEquals(List.of(2L), index.search(List.of("gym"), false, TaskType.FITNESS, 10));
+        assertEquals(List.of(1L), index.search(List.of("gym"), true, null, 10));
+        assertEquals(List.of(3L), index.search(List.of("gym"), null, null, 1));
+    }
+
+    @Test
+    void shouldFollowRetitlesCompletionsAndDeletes() {
+        TaskTitleIndex index = new TaskTitleIndex();
+        index.put(1L, "Plan sprint", TaskType.SHALLOW, false);
+        index.put(2L, "Plan trip", TaskType.OTHER, false);
+
+        index.put(1L, "Plan sprint", TaskType.SHALLOW, true);
+        index.put(2L, "Book flights", TaskType.OTHER, false);
+
+        assertEquals(List.of(1L), search(index, "plan"));
+        assertEquals(List.of(1L), index.search(List.of("sprint"), true, null, 10));
+        assertEquals(List.of(2L), search(index, "book"));
+        assertEquals(List.of(), search(index, "trip"));
+
+        index.remove(1L);
+        assertEquals(List.of(), search(index, "plan"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void compactionShouldKeepResultsAndOrder() {
+        TaskTitleIndex index = new TaskTitleIndex();
+        for (long id = 1; id <= 500; id++) {
+            index.put(id, "task " + id, TaskType.SHALLOW, false);
+        }
+        // enough retitles and deletes to renumber the docs more than once
+        for (long id = 1; id <= 400; id++) {
+            if (id % 2 == 0) {
+                index.remove(id);
+            } else {
+                index.put(id, "renamed " + id, TaskType.SHALLOW, false);
+            }
+        }
+
+        assertEquals(300, index.size());
+        assertEquals(List.of(500L, 499L), index.search(List.of("task"), null, null, 2));
+        assertEquals(List.of(399L), search(index, "renamed 399"));
+        assertEquals(200, index.search(List.of("renamed"), null, null, 1000).size());
+        assertEquals(100, index.search(List.of("task"), null, null, 1000).size());
+    }
+
+    @Test
+    void tokensShouldSplitOnAnythingButLettersAndDigits() {
+        assertEquals(List.of("café", "run", "5k", "x"), TaskTitleIndex.tokens("  Café-run: 5K/x!"));
+        assertEquals(List.of(), TaskTitleIndex.tokens("--"));
+    }
+
+    static List<Long> search(TaskTitleIndex index, String query) {
+        return index.search(TaskTitleIndex.tokens(query), null, null, 10);
+    }
+}
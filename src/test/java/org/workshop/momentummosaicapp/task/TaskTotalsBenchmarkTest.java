@@ -0,0 +1,134 @@
+package org.workshop.momentummosaicapp.task;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-type totals for a user with 12k completed tasks, summed by the database versus
+ * hydrating every Task and summing in memory; the database has to win on the median.
+ */
+@Tag("perf")
+@DataJpaTest
+@Testcontainers
+class TaskTotalsBenchmarkTest {
+
+    static final int TASKS = 12_000;
+    static final int ROUNDS = 20;
+
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void groupedSumShouldMatchInMemorySum() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Long userId = seedUser(now);
+
+        Supplier<Map<TaskType, Long>> inMemory = () -> {
+            entityManager.clear();
+            Map<TaskType, Long> minutes = new EnumMap<>(TaskType.class);
+            for (Task task : taskRepository.findByAppUserIdAndCompletedTrue(userId)) {
+                minutes.merge(task.getTaskType(), task.getDurationMinutes().longValue(), Long::sum);
+            }
+            return minutes;
+        };
+        Supplier<Map<TaskType, Long>> grouped = () -> {
+            Map<TaskType, Long> minutes = new EnumMap<>(TaskType.class);
+            for (TaskTypeTotals totals : taskRepository.sumCompletedByType(userId, null, null)) {
+                minutes.put(totals.taskType(), totals.totalMinutes());
+            }
+            return minutes;
+        };
+
+        assertEquals(inMemory.get(), grouped.get());
+        long inMemoryNanos = medianNanos(inMemory);
+        long groupedNanos = medianNanos(grouped);
+        assertTrue(groupedNanos < inMemoryNanos, "grouped " + groupedNanos + "ns vs hydrated " + inMemoryNanos + "ns");
+        List<TaskTypeTotals> all = taskRepository.sumCompletedByType(userId, null, null);
+        assertEquals(TASKS, all.stream().mapToLong(TaskTypeTotals::taskCount).sum());
+
+        // task n was completed n seconds ago, so the last hour holds n = 0..3599
+        List<TaskTypeTotals> lastHour = taskRepository.sumCompletedByType(userId, now.minusSeconds(3599), now.plusSeconds(1));
+        assertEquals(3600, lastHour.stream().mapToLong(TaskTypeTotals::taskCount).sum());
+    }
+
+    // p50 of ROUNDS runs after one warm-up run
+    long medianNanos(Supplier<?> run) {
+        run.get();
+        long[] nanos = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[ROUNDS / 2];
+    }
+
+    // one INSERT ... SELECT over a generated 0..9999+ sequence instead of 12k entity saves
+    Long seedUser(Instant now) {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        user = appUserRepository.saveAndFlush(user);
+
+        entityManager.createNativeQuery("""
+                        INSERT INTO task (user_id, title, task_type, duration_minutes, completed, completed_at, created_at)
+                        SELECT :userId, CONCAT('task ', seq.n), ELT(seq.n % 4 + 1, 'DEEP', 'SHALLOW', 'FITNESS', 'OTHER'),
+                               120 + seq.n % 60, TRUE, TIMESTAMPADD(SECOND, -seq.n, :now), :now
+                          FROM (SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d AS n
+                                  FROM (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                                        UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) a
+                                 CROSS JOIN (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                                        UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) b
+                                 CROSS JOIN (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                                        UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) c
+                                 CROSS JOIN (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                                        UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) e
+                                 CROSS JOIN (SELECT 0 d UNION ALL SELECT 1) f) seq
+                         WHERE seq.n < :tasks
+                        """)
+                .setParameter("userId", user.getId())
+                .setParameter("now", now)
+                .setParameter("tasks", TASKS)
+                .executeUpdate();
+        return user.getId();
+    }
+}
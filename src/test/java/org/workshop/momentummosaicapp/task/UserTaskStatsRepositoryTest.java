@@ -0,0 +1,94 @@
+package org.workshop.momentummosaicapp.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.workshop.momentummosaicapp.user.AppUser;
+import org.workshop.momentummosaicapp.user.AppUserRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({UserTaskStatsVerifier.class, SimpleMeterRegistry.class})
+@Testcontainers
+class UserTaskStatsRepositoryTest {
+    @Container
+    static MySQLContainer<?> mysql =
+            new MySQLContainer<>("mysql:8.4")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+    @Autowired
+    UserTaskStatsRepository statsRepository;
+    @Autowired
+    UserTaskStatsVerifier verifier;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    AppUserRepository appUserRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void incrementsShouldAccumulate() {
+        AppUser user = saveUser();
+
+        statsRepository.increment(user.getId(), "DEEP", 1, 120);
+        statsRepository.increment(user.getId(), "DEEP", 1, 150);
+        statsRepository.increment(user.getId(), "SHALLOW", 1, 30);
+        statsRepository.increment(user.getId(), "SHALLOW", -1, -30);
+
+        List<TaskTypeTotals> totals = statsRepository.findTotals(user.getId());
+        assertEquals(List.of(new TaskTypeTotals(TaskType.DEEP, 2L, 270L)), totals);
+    }
+
+    @Test
+    void verifierShouldReportDriftedCountersWithoutRewritingThem() {
+        AppUser user = saveUser();
+        saveCompletedTask(user, TaskType.DEEP, 120);
+        saveCompletedTask(user, TaskType.DEEP, 180);
+        // counted twice, and a type whose tasks no longer exist
+        statsRepository.increment(user.getId(), "DEEP", 3, 420);
+        statsRepository.increment(user.getId(), "FITNESS", 1, 60);
+        entityManager.flush();
+
+        assertEquals(2, verifier.verifyAll());
+        assertEquals(List.of(new TaskTypeTotals(TaskType.DEEP, 3L, 420L), new TaskTypeTotals(TaskType.FITNESS, 1L, 60L)),
+                statsRepository.findTotals(user.getId()));
+        assertEquals(2, verifier.verifyAll());
+    }
+
+    AppUser saveUser() {
+        AppUser user = new AppUser();
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setEnabled(true);
+        return appUserRepository.save(user);
+    }
+
+    void saveCompletedTask(AppUser user, TaskType type, int minutes) {
+        Task task = new Task();
+        task.setAppUser(user);
+        task.setTitle(type.name());
+        task.setTaskType(type);
+        task.setDurationMinutes(minutes);
+        task.setCompleted(true);
+        taskRepository.save(task);
+    }
+}
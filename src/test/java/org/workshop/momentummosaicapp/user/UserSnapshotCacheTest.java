@@ -0,0 +1,77 @@
+package org.workshop.momentummosaicapp.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotCacheTest {
+    @Mock
+    AppUserRepository appUserRepository;
+
+    UserSnapshotCache userSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        userSnapshotCache = new UserSnapshotCache(appUserRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldLoadUserOnceAndServeFromCache() {
+        AppUser appUser = user(1L, "test@example.com", true);
+        when(appUserRepository.findByEmail("test@example.com")).thenReturn(Optional.of(appUser));
+
+        UserSnapshot first = userSnapshotCache.getByEmail("test@example.com").orElseThrow();
+        UserSnapshot second = userSnapshotCache.getByEmail("test@example.com").orElseThrow();
+
+        assertEquals(1L, first.id());
+        assertTrue(first.profileCompleted());
+        assertSame(first, second);
+        verify(appUserRepository, times(1)).findByEmail("test@example.com");
+        assertEquals(1, userSnapshotCache.stats().hitCount());
+        assertEquals(1, userSnapshotCache.stats().missCount());
+    }
+
+    @Test
+    void shouldReloadAfterEvictionById() {
+        AppUser incomplete = user(1L, "test@example.com", false);
+        AppUser completed = user(1L, "test@example.com", true);
+        when(appUserRepository.findByEmail("test@example.com"))
+                .thenReturn(Optional.of(incomplete))
+                .thenReturn(Optional.of(completed));
+
+        assertFalse(userSnapshotCache.getByEmail("test@example.com").orElseThrow().profileCompleted());
+        userSnapshotCache.evictById(1L);
+
+        assertTrue(userSnapshotCache.getByEmail("test@example.com").orElseThrow().profileCompleted());
+        verify(appUserRepository, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void shouldNotCacheUnknownEmail() {
+        when(appUserRepository.findByEmail("missing@mail.com")).thenReturn(Optional.empty());
+
+        assertTrue(userSnapshotCache.getByEmail("missing@mail.com").isEmpty());
+        assertTrue(userSnapshotCache.getByEmail("missing@mail.com").isEmpty());
+
+        verify(appUserRepository, times(2)).findByEmail("missing@mail.com");
+    }
+
+    private AppUser user(Long id, String email, boolean profileCompleted) {
+        AppUser appUser = new AppUser();
+        appUser.setId(id);
+        appUser.setEmail(email);
+        appUser.setEnabled(true);
+        appUser.setProfileCompleted(profileCompleted);
+        return appUser;
+    }
+}